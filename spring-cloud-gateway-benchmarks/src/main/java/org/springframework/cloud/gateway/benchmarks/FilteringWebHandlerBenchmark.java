@@ -0,0 +1,119 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Measures {@link FilteringWebHandler} merging, sorting and running the global and
+ * route filters of a request through filters that only delegate to the chain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilteringWebHandlerBenchmark {
+
+	@Param({ "10" })
+	private int globalFilters;
+
+	@Param({ "0", "5", "20" })
+	private int routeFilters;
+
+	private FilteringWebHandler webHandler;
+
+	private Route route;
+
+	private MockServerWebExchange exchange;
+
+	@Setup
+	public void setup() {
+		List<GlobalFilter> global = new ArrayList<>(globalFilters);
+		for (int i = 0; i < globalFilters; i++) {
+			global.add(new PassThroughGlobalFilter(i * 10));
+		}
+		webHandler = new FilteringWebHandler(global);
+
+		List<GatewayFilter> filters = new ArrayList<>(routeFilters);
+		for (int i = 0; i < routeFilters; i++) {
+			filters.add(new OrderedGatewayFilter(
+					(exchange, chain) -> chain.filter(exchange), i * 10 + 5));
+		}
+		route = Route.async().id("route").uri("http://localhost:8080")
+				.predicate(exchange -> true).filters(filters).build();
+		exchange = MockServerWebExchange
+				.from(MockServerHttpRequest.get("http://localhost/get").build());
+	}
+
+	@Benchmark
+	public Object handle() {
+		exchange.getAttributes().clear();
+		exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, route);
+		return webHandler.handle(exchange).block();
+	}
+
+	private static class PassThroughGlobalFilter implements GlobalFilter, Ordered {
+
+		private final int order;
+
+		PassThroughGlobalFilter(int order) {
+			this.order = order;
+		}
+
+		@Override
+		public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+			return chain.filter(exchange);
+		}
+
+		@Override
+		public int getOrder() {
+			return order;
+		}
+
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.benchmarks;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.cloud.gateway.filter.headers.ForwardedHeadersFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.filter.headers.RemoveHopByHopHeadersFilter;
+import org.springframework.cloud.gateway.filter.headers.XForwardedHeadersFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+
+/**
+ * Measures the default request {@link HttpHeadersFilter} chain applied before a
+ * request is proxied.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpHeadersFilterBenchmark {
+
+	private List<HttpHeadersFilter> filters;
+
+	private MockServerWebExchange exchange;
+
+	@Setup
+	public void setup() {
+		filters = Arrays.asList(new ForwardedHeadersFilter(),
+				new RemoveHopByHopHeadersFilter(), new XForwardedHeadersFilter());
+		exchange = MockServerWebExchange.from(MockServerHttpRequest
+				.get("http://localhost:8080/get")
+				.remoteAddress(new InetSocketAddress("10.0.0.1", 54321))
+				.header(HttpHeaders.HOST, "localhost:8080")
+				.header(HttpHeaders.ACCEPT, "application/json")
+				.header(HttpHeaders.USER_AGENT, "jmh")
+				.header(HttpHeaders.CONNECTION, "keep-alive")
+				.header("Keep-Alive", "timeout=5")
+				.header("X-Forwarded-For", "192.168.0.1")
+				.header("Forwarded", "for=192.168.0.1;proto=http").build());
+		exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR,
+				URI.create("http://backend:9090/get"));
+	}
+
+	@Benchmark
+	public HttpHeaders filterRequest() {
+		return HttpHeadersFilter.filterRequest(filters, exchange);
+	}
+
+}
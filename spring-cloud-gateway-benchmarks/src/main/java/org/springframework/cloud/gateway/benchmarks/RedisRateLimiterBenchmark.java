@@ -0,0 +1,112 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.benchmarks;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import redis.embedded.RedisServer;
+
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+
+/**
+ * Measures a {@link RedisRateLimiter} round trip against an embedded Redis server,
+ * spreading requests over a configurable number of keys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class RedisRateLimiterBenchmark {
+
+	private static final String ROUTE_ID = "route";
+
+	@Param({ "1", "1000" })
+	private int keys;
+
+	private RedisServer redisServer;
+
+	private LettuceConnectionFactory connectionFactory;
+
+	private RedisRateLimiter rateLimiter;
+
+	@Setup
+	@SuppressWarnings("unchecked")
+	public void setup() throws IOException {
+		int port = findOpenPort();
+		redisServer = new RedisServer(port);
+		redisServer.start();
+
+		connectionFactory = new LettuceConnectionFactory("localhost", port);
+		connectionFactory.afterPropertiesSet();
+
+		DefaultRedisScript script = new DefaultRedisScript<>();
+		script.setScriptSource(new ResourceScriptSource(
+				new ClassPathResource("META-INF/scripts/request_rate_limiter.lua")));
+		script.setResultType(List.class);
+
+		rateLimiter = new RedisRateLimiter(
+				new ReactiveStringRedisTemplate(connectionFactory), script, null);
+		// high enough that requests are never denied, denial costs the same round trip
+		rateLimiter.getConfig().put(ROUTE_ID, new RedisRateLimiter.Config()
+				.setReplenishRate(1_000_000).setBurstCapacity(1_000_000));
+	}
+
+	@TearDown
+	public void tearDown() {
+		connectionFactory.destroy();
+		redisServer.stop();
+	}
+
+	@Benchmark
+	public RateLimiter.Response isAllowed() {
+		String id = "client" + ThreadLocalRandom.current().nextInt(keys);
+		return rateLimiter.isAllowed(ROUTE_ID, id).block();
+	}
+
+	private static int findOpenPort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.route.CachingRouteLocator;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+/**
+ * Measures {@link RoutePredicateHandlerMapping} finding the route of a request, where
+ * the matching route is the last one of the table so every route is evaluated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteLookupBenchmark {
+
+	@Param({ "10", "1000", "10000" })
+	private int routes;
+
+	private RoutePredicateHandlerMapping handlerMapping;
+
+	private MockServerWebExchange exchange;
+
+	@Setup
+	public void setup() {
+		PathRoutePredicateFactory factory = new PathRoutePredicateFactory();
+		List<Route> table = new ArrayList<>(routes);
+		for (int i = 0; i < routes; i++) {
+			table.add(Route.async().id("route" + i).uri("http://localhost:8080")
+					.order(i)
+					.predicate(factory.apply(new PathRoutePredicateFactory.Config()
+							.setPatterns(Collections
+									.singletonList("/service" + i + "/**"))))
+					.build());
+		}
+		CachingRouteLocator routeLocator = new CachingRouteLocator(
+				() -> Flux.fromIterable(table));
+		handlerMapping = new RoutePredicateHandlerMapping(
+				new FilteringWebHandler(Collections.emptyList()), routeLocator,
+				new GlobalCorsProperties(), new StandardEnvironment());
+		exchange = MockServerWebExchange.from(MockServerHttpRequest
+				.get("http://localhost/service" + (routes - 1) + "/resource").build());
+	}
+
+	@Benchmark
+	public Object lookupRoute() {
+		exchange.getAttributes().clear();
+		return handlerMapping.getHandler(exchange).block();
+	}
+
+}
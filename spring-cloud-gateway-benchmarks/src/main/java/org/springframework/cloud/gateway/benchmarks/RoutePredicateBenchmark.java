@@ -0,0 +1,103 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.cloud.gateway.handler.predicate.HostRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.URI_TEMPLATE_VARIABLES_ATTRIBUTE;
+
+/**
+ * Measures matching a request against the {@code Path} and {@code Host} route
+ * predicates, both when the last pattern matches and when none does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutePredicateBenchmark {
+
+	private Predicate<ServerWebExchange> pathPredicate;
+
+	private Predicate<ServerWebExchange> hostPredicate;
+
+	private ServerWebExchange matching;
+
+	private ServerWebExchange notMatching;
+
+	@Setup
+	public void setup() {
+		pathPredicate = new PathRoutePredicateFactory()
+				.apply(new PathRoutePredicateFactory.Config().setPatterns(Arrays.asList(
+						"/red/{segment}", "/blue/**", "/green/{id}/items/{item}")));
+
+		HostRoutePredicateFactory.Config hostConfig = new HostRoutePredicateFactory.Config();
+		hostConfig.setPatterns(Arrays.asList("**.somehost.org", "**.anotherhost.org",
+				"{sub}.myhost.org"));
+		hostPredicate = new HostRoutePredicateFactory().apply(hostConfig);
+
+		matching = MockServerWebExchange.from(
+				MockServerHttpRequest.get("http://www.myhost.org/green/42/items/7")
+						.header("Host", "www.myhost.org").build());
+		notMatching = MockServerWebExchange.from(
+				MockServerHttpRequest.get("http://www.otherhost.org/yellow/42")
+						.header("Host", "www.otherhost.org").build());
+	}
+
+	@Benchmark
+	public boolean pathMatch() {
+		matching.getAttributes().remove(URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+		return pathPredicate.test(matching);
+	}
+
+	@Benchmark
+	public boolean pathNoMatch() {
+		return pathPredicate.test(notMatching);
+	}
+
+	@Benchmark
+	public boolean hostMatch() {
+		matching.getAttributes().remove(URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+		return hostPredicate.test(matching);
+	}
+
+	@Benchmark
+	public boolean hostNoMatch() {
+		return hostPredicate.test(notMatching);
+	}
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.gateway.event.WeightDefinedEvent;
+import org.springframework.cloud.gateway.filter.WeightCalculatorWebFilter;
+import org.springframework.cloud.gateway.support.WeightConfig;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+
+/**
+ * Measures {@link WeightCalculatorWebFilter} picking a route for every weight group
+ * of a request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeightCalculatorBenchmark {
+
+	@Param({ "1", "10" })
+	private int groups;
+
+	@Param({ "2", "10" })
+	private int routesPerGroup;
+
+	private WeightCalculatorWebFilter filter;
+
+	private WebFilterChain chain;
+
+	private MockServerWebExchange exchange;
+
+	@Setup
+	public void setup() {
+		filter = new WeightCalculatorWebFilter(null, null);
+		for (int group = 0; group < groups; group++) {
+			for (int route = 0; route < routesPerGroup; route++) {
+				WeightConfig config = new WeightConfig("group" + group,
+						"group" + group + "route" + route, route + 1);
+				filter.onApplicationEvent(new WeightDefinedEvent(this, config));
+			}
+		}
+		chain = exchange -> Mono.empty();
+		exchange = MockServerWebExchange
+				.from(MockServerHttpRequest.get("http://localhost/get").build());
+	}
+
+	@Benchmark
+	public Object filter() {
+		exchange.getAttributes().clear();
+		return filter.filter(exchange, chain).block();
+	}
+
+}
@@ -18,9 +18,14 @@ package org.springframework.cloud.gateway.actuate;
 
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -32,21 +37,28 @@ import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.cloud.gateway.filter.factory.GatewayFilterFactory;
+import org.springframework.cloud.gateway.handler.FilterProfiler;
+import org.springframework.cloud.gateway.route.CachingRouteLocator;
 import org.springframework.cloud.gateway.route.Route;
 import org.springframework.cloud.gateway.route.RouteDefinition;
 import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.cloud.gateway.route.RouteDefinitionRouteLocator;
 import org.springframework.cloud.gateway.route.RouteDefinitionWriter;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.support.NotFoundException;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 /**
  * @author Spencer Gibb
@@ -68,6 +80,16 @@ public class GatewayControllerEndpoint implements ApplicationEventPublisherAware
 
 	private ApplicationEventPublisher publisher;
 
+	private FilterProfiler filterProfiler;
+
+	private RouteDefinitionRouteLocator routeDefinitionRouteLocator;
+
+	private final Object stagingLock = new Object();
+
+	private StagedDefinitions staged;
+
+	private StagedDefinitions promoted;
+
 	public GatewayControllerEndpoint(RouteDefinitionLocator routeDefinitionLocator,
 			List<GlobalFilter> globalFilters, List<GatewayFilterFactory> GatewayFilters,
 			RouteDefinitionWriter routeDefinitionWriter, RouteLocator routeLocator) {
@@ -83,6 +105,21 @@ public class GatewayControllerEndpoint implements ApplicationEventPublisherAware
 		this.publisher = publisher;
 	}
 
+	public void setFilterProfiler(FilterProfiler filterProfiler) {
+		this.filterProfiler = filterProfiler;
+	}
+
+	/**
+	 * Sets the converter used to validate bulk imports and to update the imported routes
+	 * without converting all routes again. Without it, imports are not validated and
+	 * refresh all routes.
+	 * @param routeDefinitionRouteLocator the route definition converter
+	 */
+	public void setRouteDefinitionRouteLocator(
+			RouteDefinitionRouteLocator routeDefinitionRouteLocator) {
+		this.routeDefinitionRouteLocator = routeDefinitionRouteLocator;
+	}
+
 	// TODO: Add uncommited or new but not active routes endpoint
 
 	@PostMapping("/refresh")
@@ -101,6 +138,124 @@ public class GatewayControllerEndpoint implements ApplicationEventPublisherAware
 		return getNamesToOrders(this.GatewayFilters);
 	}
 
+	@GetMapping("/filterprofile")
+	public Mono<ResponseEntity<List<Map<String, Object>>>> filterprofile() {
+		if (this.filterProfiler == null) {
+			return Mono.just(ResponseEntity.notFound().build());
+		}
+		return Mono.just(ResponseEntity.ok(this.filterProfiler.getStatistics()));
+	}
+
+	@DeleteMapping("/filterprofile")
+	public Mono<ResponseEntity<Object>> resetFilterprofile() {
+		if (this.filterProfiler == null) {
+			return Mono.just(ResponseEntity.notFound().build());
+		}
+		this.filterProfiler.reset();
+		return Mono.just(ResponseEntity.ok().build());
+	}
+
+	@GetMapping("/routetables")
+	public Mono<ResponseEntity<Map<String, Object>>> routetables() {
+		return withRouteTables(routes -> {
+			Map<String, Object> tables = new HashMap<>();
+			tables.put("candidate", routes.getCandidate());
+			return Mono.just(ResponseEntity.ok(tables));
+		});
+	}
+
+	/*
+	 * Promotes the candidate staged by an import with stage=true, writing its route
+	 * definitions.
+	 *
+	 * http POST :8080/actuator/gateway/routetables/candidate/1/promote
+	 */
+	@PostMapping("/routetables/candidate/{version}/promote")
+	public Mono<ResponseEntity<Map<String, Object>>> promoteCandidate(
+			@PathVariable long version) {
+		// the candidate applies to the active routes, which must be loaded
+		return withRouteTables(routes -> routes.getRoutes()
+				.then(Mono.defer(() -> promote(routes, version))));
+	}
+
+	private Mono<ResponseEntity<Map<String, Object>>> promote(
+			CachingRouteLocator routes, long version) {
+		StagedDefinitions staged;
+		synchronized (this.stagingLock) {
+			staged = this.staged;
+			if (staged == null || staged.version != version) {
+				return Mono.just(ResponseEntity.notFound().build());
+			}
+			try {
+				if (!routes.promoteCandidate(version)) {
+					return Mono.just(ResponseEntity.notFound().build());
+				}
+			}
+			catch (IllegalStateException e) {
+				return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT)
+						.body(Collections.singletonMap("error", e.getMessage())));
+			}
+			this.staged = null;
+		}
+		return writtenRouteDefinitions()
+				.flatMap(previous -> writeAll(staged.batch, staged.deleted, previous)
+						.then(Mono.fromSupplier(() -> {
+							synchronized (this.stagingLock) {
+								this.promoted = staged.withPrevious(previous);
+							}
+							Map<String, Object> result = result(staged.batch,
+									staged.deleted);
+							result.put("version", version);
+							return ResponseEntity.ok(result);
+						})))
+				.onErrorResume(e -> {
+					routes.rollback();
+					return Mono.error(e);
+				});
+	}
+
+	@DeleteMapping("/routetables/candidate")
+	public Mono<ResponseEntity<Map<String, Object>>> discardCandidate() {
+		return withRouteTables(routes -> {
+			synchronized (this.stagingLock) {
+				routes.discardCandidate();
+				this.staged = null;
+			}
+			return Mono.just(ResponseEntity.ok().build());
+		});
+	}
+
+	/*
+	 * Restores the route table and the route definitions replaced by the last
+	 * promotion, unless the routes were refreshed since.
+	 */
+	@PostMapping("/routetables/rollback")
+	public Mono<ResponseEntity<Map<String, Object>>> rollback() {
+		return withRouteTables(routes -> {
+			StagedDefinitions promoted;
+			synchronized (this.stagingLock) {
+				if (!routes.rollback()) {
+					return Mono.just(ResponseEntity.notFound().build());
+				}
+				promoted = this.promoted;
+				this.promoted = null;
+			}
+			if (promoted == null) {
+				return Mono.just(ResponseEntity.ok().build());
+			}
+			return restore(promoted.ids(), promoted.previous)
+					.then(Mono.just(ResponseEntity.ok().build()));
+		});
+	}
+
+	private <T> Mono<ResponseEntity<T>> withRouteTables(
+			Function<CachingRouteLocator, Mono<ResponseEntity<T>>> action) {
+		if (!(this.routeLocator instanceof CachingRouteLocator)) {
+			return Mono.just(ResponseEntity.notFound().build());
+		}
+		return action.apply((CachingRouteLocator) this.routeLocator);
+	}
+
 	private <T> Mono<HashMap<String, Object>> getNamesToOrders(List<T> list) {
 		return Flux.fromIterable(list).reduce(new HashMap<>(), this::putItem);
 	}
@@ -116,47 +271,76 @@ public class GatewayControllerEndpoint implements ApplicationEventPublisherAware
 	}
 
 	// TODO: Flush out routes without a definition
+	/*
+	 * Streams the routes one at a time, optionally only those whose id starts with
+	 * prefix, skipping offset routes and returning at most limit routes. The summary
+	 * view only holds the id, order and uri of each route.
+	 */
 	@GetMapping("/routes")
-	public Mono<List<Map<String, Object>>> routes() {
-		Mono<Map<String, RouteDefinition>> routeDefs = this.routeDefinitionLocator
-				.getRouteDefinitions().collectMap(RouteDefinition::getId);
-		Mono<List<Route>> routes = this.routeLocator.getRoutes().collectList();
-		return Mono.zip(routeDefs, routes).map(tuple -> {
-			Map<String, RouteDefinition> defs = tuple.getT1();
-			List<Route> routeList = tuple.getT2();
-			List<Map<String, Object>> allRoutes = new ArrayList<>();
-
-			routeList.forEach(route -> {
-				HashMap<String, Object> r = new HashMap<>();
-				r.put("route_id", route.getId());
-				r.put("order", route.getOrder());
-
-				if (defs.containsKey(route.getId())) {
-					r.put("route_definition", defs.get(route.getId()));
-				}
-				else {
-					HashMap<String, Object> obj = new HashMap<>();
+	public Flux<Map<String, Object>> routes(
+			@RequestParam(required = false) String prefix,
+			@RequestParam(defaultValue = "0") long offset,
+			@RequestParam(required = false) Long limit,
+			@RequestParam(defaultValue = "false") boolean summary) {
+		Flux<Route> routes = this.routeLocator.getRoutes();
+		if (StringUtils.hasLength(prefix)) {
+			routes = routes.filter(route -> route.getId().startsWith(prefix));
+		}
+		routes = routes.skip(Math.max(0, offset));
+		if (limit != null) {
+			routes = routes.take(Math.max(0, limit));
+		}
+		if (summary) {
+			return routes.map(this::summarize);
+		}
+		Flux<Route> page = routes;
+		Flux<RouteDefinition> routeDefinitions = this.routeDefinitionLocator
+				.getRouteDefinitions();
+		if (StringUtils.hasLength(prefix)) {
+			routeDefinitions = routeDefinitions
+					.filter(routeDefinition -> routeDefinition.getId() != null
+							&& routeDefinition.getId().startsWith(prefix));
+		}
+		return routeDefinitions.collectMap(RouteDefinition::getId)
+				.flatMapMany(defs -> page.map(route -> describe(route, defs)));
+	}
 
-					obj.put("predicate", route.getPredicate().toString());
+	private Map<String, Object> summarize(Route route) {
+		Map<String, Object> r = new HashMap<>();
+		r.put("route_id", route.getId());
+		r.put("order", route.getOrder());
+		r.put("uri", route.getUri().toString());
+		return r;
+	}
 
-					if (!route.getFilters().isEmpty()) {
-						ArrayList<String> filters = new ArrayList<>();
-						for (GatewayFilter filter : route.getFilters()) {
-							filters.add(filter.toString());
-						}
+	private Map<String, Object> describe(Route route,
+			Map<String, RouteDefinition> defs) {
+		HashMap<String, Object> r = new HashMap<>();
+		r.put("route_id", route.getId());
+		r.put("order", route.getOrder());
 
-						obj.put("filters", filters);
-					}
+		if (defs.containsKey(route.getId())) {
+			r.put("route_definition", defs.get(route.getId()));
+		}
+		else {
+			HashMap<String, Object> obj = new HashMap<>();
 
-					if (!obj.isEmpty()) {
-						r.put("route_object", obj);
-					}
+			obj.put("predicate", route.getPredicate().toString());
+
+			if (!route.getFilters().isEmpty()) {
+				ArrayList<String> filters = new ArrayList<>();
+				for (GatewayFilter filter : route.getFilters()) {
+					filters.add(filter.toString());
 				}
-				allRoutes.add(r);
-			});
 
-			return allRoutes;
-		});
+				obj.put("filters", filters);
+			}
+
+			if (!obj.isEmpty()) {
+				r.put("route_object", obj);
+			}
+		}
+		return r;
 	}
 
 	/*
@@ -176,6 +360,187 @@ public class GatewayControllerEndpoint implements ApplicationEventPublisherAware
 				.just(ResponseEntity.created(URI.create("/routes/" + id)).build())));
 	}
 
+	/*
+	 * Saves a batch of route definitions, as newline delimited or as an array, all or
+	 * none. With replace=true, the written routes missing from the batch are deleted.
+	 * With stage=true, the batch is staged as a candidate route table instead, serving
+	 * the requests with the header and the percentage of the other requests, and is
+	 * only written once promoted.
+	 *
+	 * curl -X POST -H 'Content-Type: application/stream+json' --data-binary @routes.json
+	 * :8080/actuator/gateway/routedefinitions?replace=true
+	 */
+	@PostMapping("/routedefinitions")
+	public Mono<ResponseEntity<Map<String, Object>>> saveAll(
+			@RequestBody Flux<ImportedRouteDefinition> routeDefinitions,
+			@RequestParam(defaultValue = "false") boolean replace,
+			@RequestParam(defaultValue = "false") boolean stage,
+			@RequestParam(required = false) String header,
+			@RequestParam(defaultValue = "0") int percentage) {
+		if (percentage < 0 || percentage > 100) {
+			return Mono.just(ResponseEntity.badRequest().build());
+		}
+		Flux<RouteDefinition> imported = routeDefinitions
+				.map(ImportedRouteDefinition::toRouteDefinition);
+		return imported.collectList().flatMap(batch -> {
+			List<String> invalid = invalidIds(batch);
+			if (!invalid.isEmpty()) {
+				return Mono.just(invalidRoutes(invalid));
+			}
+			return convert(batch).flatMap(converted -> {
+				List<String> unconvertible = new ArrayList<>();
+				for (RouteDefinition routeDefinition : batch) {
+					if (!converted.containsKey(routeDefinition.getId())) {
+						unconvertible.add(routeDefinition.getId());
+					}
+				}
+				if (!unconvertible.isEmpty()) {
+					return Mono.just(invalidRoutes(unconvertible));
+				}
+				return writtenRouteDefinitions().flatMap(previous -> {
+					Set<String> deleted = deletions(batch, previous, replace);
+					if (stage) {
+						return stage(batch, converted, deleted, header, percentage);
+					}
+					return writeAll(batch, deleted, previous)
+							.then(Mono.fromSupplier(() -> {
+								refreshRoutes(converted, deleted);
+								return ResponseEntity.ok(result(batch, deleted));
+							}));
+				});
+			});
+		});
+	}
+
+	/**
+	 * Streams the definitions of all routes, in the format accepted by
+	 * {@link #saveAll(Flux, boolean, boolean, String, int)}.
+	 * @return the route definitions
+	 */
+	@GetMapping(path = "/routedefinitions",
+			produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+	public Flux<RouteDefinition> routeDefinitions() {
+		return this.routeDefinitionLocator.getRouteDefinitions();
+	}
+
+	private Mono<ResponseEntity<Map<String, Object>>> stage(List<RouteDefinition> batch,
+			Map<String, Route> converted, Set<String> deleted, String header,
+			int percentage) {
+		if (this.routeDefinitionRouteLocator == null) {
+			return Mono.just(ResponseEntity.notFound().build());
+		}
+		return withRouteTables(routes -> {
+			Map<String, Route> changes = new HashMap<>(converted);
+			deleted.forEach(id -> changes.put(id, null));
+			Map<String, Object> result = result(batch, deleted);
+			synchronized (this.stagingLock) {
+				long version = routes.stageCandidate(changes, header, percentage);
+				this.staged = new StagedDefinitions(version, batch, deleted, null);
+				result.put("version", version);
+			}
+			return Mono.just(ResponseEntity.ok(result));
+		});
+	}
+
+	private Map<String, Object> result(List<RouteDefinition> batch,
+			Set<String> deleted) {
+		Map<String, Object> result = new HashMap<>();
+		result.put("saved", batch.size());
+		result.put("deleted", deleted.size());
+		return result;
+	}
+
+	private List<String> invalidIds(List<RouteDefinition> batch) {
+		Set<String> ids = new HashSet<>();
+		List<String> invalid = new ArrayList<>();
+		for (RouteDefinition routeDefinition : batch) {
+			String id = routeDefinition.getId();
+			if (!StringUtils.hasText(id) || !ids.add(id)) {
+				invalid.add(id);
+			}
+		}
+		return invalid;
+	}
+
+	private ResponseEntity<Map<String, Object>> invalidRoutes(List<String> ids) {
+		log.debug("Rejecting route definitions " + ids);
+		return ResponseEntity.badRequest()
+				.body(Collections.singletonMap("invalid_routes", ids));
+	}
+
+	private Mono<Map<String, Route>> convert(List<RouteDefinition> batch) {
+		if (this.routeDefinitionRouteLocator == null) {
+			Map<String, Route> unconverted = new HashMap<>();
+			batch.forEach(routeDefinition -> unconverted.put(routeDefinition.getId(),
+					null));
+			return Mono.just(unconverted);
+		}
+		return this.routeDefinitionRouteLocator
+				.getRoutes(Flux.fromIterable(batch)).collectMap(Route::getId);
+	}
+
+	private Mono<Map<String, RouteDefinition>> writtenRouteDefinitions() {
+		if (this.routeDefinitionWriter instanceof RouteDefinitionLocator) {
+			return ((RouteDefinitionLocator) this.routeDefinitionWriter)
+					.getRouteDefinitions().collectMap(RouteDefinition::getId);
+		}
+		return Mono.just(Collections.emptyMap());
+	}
+
+	private Set<String> deletions(List<RouteDefinition> batch,
+			Map<String, RouteDefinition> previous, boolean replace) {
+		Set<String> deleted = new LinkedHashSet<>();
+		if (replace) {
+			deleted.addAll(previous.keySet());
+			batch.forEach(routeDefinition -> deleted.remove(routeDefinition.getId()));
+		}
+		return deleted;
+	}
+
+	/**
+	 * Saves the batch one route definition at a time, then deletes the given routes,
+	 * restoring the previous definitions of the routes written so far if a write fails.
+	 */
+	private Mono<Void> writeAll(List<RouteDefinition> batch, Set<String> deleted,
+			Map<String, RouteDefinition> previous) {
+		List<String> written = new ArrayList<>();
+		return Flux.fromIterable(batch)
+				.concatMap(routeDefinition -> this.routeDefinitionWriter
+						.save(Mono.just(routeDefinition))
+						.doOnSuccess(v -> written.add(routeDefinition.getId())))
+				.thenMany(Flux.fromIterable(deleted)
+						.concatMap(id -> this.routeDefinitionWriter.delete(Mono.just(id))
+								.doOnSuccess(v -> written.add(id))))
+				.then().onErrorResume(
+						e -> restore(written, previous).then(Mono.<Void>error(e)));
+	}
+
+	private Mono<Void> restore(List<String> written,
+			Map<String, RouteDefinition> previous) {
+		log.warn("Restoring route definitions " + written);
+		return Flux.fromIterable(written).concatMap(id -> {
+			RouteDefinition routeDefinition = previous.get(id);
+			if (routeDefinition != null) {
+				return this.routeDefinitionWriter.save(Mono.just(routeDefinition));
+			}
+			return this.routeDefinitionWriter.delete(Mono.just(id));
+		}).onErrorResume(e -> {
+			log.error("Unable to restore route definitions", e);
+			return Mono.empty();
+		}).then();
+	}
+
+	private void refreshRoutes(Map<String, Route> converted, Set<String> deleted) {
+		if (this.routeDefinitionRouteLocator == null
+				|| !(this.routeLocator instanceof CachingRouteLocator)) {
+			this.publisher.publishEvent(new RefreshRoutesEvent(this));
+			return;
+		}
+		Map<String, Route> routes = new HashMap<>(converted);
+		deleted.forEach(id -> routes.put(id, null));
+		((CachingRouteLocator) this.routeLocator).updateRoutes(routes);
+	}
+
 	@DeleteMapping("/routes/{id}")
 	public Mono<ResponseEntity<Object>> delete(@PathVariable String id) {
 		return this.routeDefinitionWriter.delete(Mono.just(id))
@@ -200,4 +565,62 @@ public class GatewayControllerEndpoint implements ApplicationEventPublisherAware
 				.reduce(new HashMap<>(), this::putItem);
 	}
 
+	/**
+	 * Route definitions staged with a candidate route table, and once promoted, the
+	 * written route definitions they replaced.
+	 */
+	private static final class StagedDefinitions {
+
+		private final long version;
+
+		private final List<RouteDefinition> batch;
+
+		private final Set<String> deleted;
+
+		private final Map<String, RouteDefinition> previous;
+
+		StagedDefinitions(long version, List<RouteDefinition> batch,
+				Set<String> deleted, Map<String, RouteDefinition> previous) {
+			this.version = version;
+			this.batch = batch;
+			this.deleted = deleted;
+			this.previous = previous;
+		}
+
+		StagedDefinitions withPrevious(Map<String, RouteDefinition> previous) {
+			return new StagedDefinitions(this.version, this.batch, this.deleted,
+					previous);
+		}
+
+		List<String> ids() {
+			List<String> ids = new ArrayList<>(this.deleted);
+			this.batch.forEach(routeDefinition -> ids.add(routeDefinition.getId()));
+			return ids;
+		}
+
+	}
+
+	/**
+	 * A route definition read from an import, without the generated id of
+	 * {@link RouteDefinition}, so that an entry without an id is rejected rather than
+	 * saved under a new id on every import.
+	 */
+	public static class ImportedRouteDefinition extends RouteDefinition {
+
+		public ImportedRouteDefinition() {
+			setId(null);
+		}
+
+		RouteDefinition toRouteDefinition() {
+			RouteDefinition routeDefinition = new RouteDefinition();
+			routeDefinition.setId(getId());
+			routeDefinition.setPredicates(getPredicates());
+			routeDefinition.setFilters(getFilters());
+			routeDefinition.setUri(getUri());
+			routeDefinition.setOrder(getOrder());
+			return routeDefinition;
+		}
+
+	}
+
 }
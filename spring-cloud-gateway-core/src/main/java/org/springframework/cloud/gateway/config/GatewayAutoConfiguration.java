@@ -16,6 +16,7 @@
 
 package org.springframework.cloud.gateway.config;
 
+import java.nio.file.Paths;
 import java.security.cert.X509Certificate;
 import java.util.List;
 
@@ -43,6 +44,8 @@ import org.springframework.boot.autoconfigure.web.reactive.HttpHandlerAutoConfig
 import org.springframework.boot.autoconfigure.web.reactive.WebFluxAutoConfiguration;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.context.properties.PropertyMapper;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
 import org.springframework.cloud.gateway.actuate.GatewayControllerEndpoint;
 import org.springframework.cloud.gateway.filter.AdaptCachedBodyGlobalFilter;
 import org.springframework.cloud.gateway.filter.ForwardPathFilter;
@@ -50,6 +53,9 @@ import org.springframework.cloud.gateway.filter.ForwardRoutingFilter;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
 import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.RequestDecompressionProperties;
+import org.springframework.cloud.gateway.filter.RequestDecompressionWebFilter;
+import org.springframework.cloud.gateway.filter.ResponseBodyRelay;
 import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
 import org.springframework.cloud.gateway.filter.WebsocketRoutingFilter;
 import org.springframework.cloud.gateway.filter.WeightCalculatorWebFilter;
@@ -65,6 +71,7 @@ import org.springframework.cloud.gateway.filter.factory.PreserveHostHeaderGatewa
 import org.springframework.cloud.gateway.filter.factory.RedirectToGatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.factory.RemoveRequestHeaderGatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.factory.RemoveResponseHeaderGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.RequestCoalescingGatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.factory.RequestHeaderToRequestUriGatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.factory.RequestRateLimiterGatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.factory.RequestSizeGatewayFilterFactory;
@@ -79,6 +86,10 @@ import org.springframework.cloud.gateway.filter.factory.SetRequestHeaderGatewayF
 import org.springframework.cloud.gateway.filter.factory.SetResponseHeaderGatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.factory.SetStatusGatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.factory.StripPrefixGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.cache.ResponseCache;
+import org.springframework.cloud.gateway.filter.factory.cache.ResponseCacheGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.cache.ResponseCacheProperties;
+import org.springframework.cloud.gateway.filter.factory.compression.ResponseCompressionGatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.factory.rewrite.ModifyRequestBodyGatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.factory.rewrite.ModifyResponseBodyGatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.headers.ForwardedHeadersFilter;
@@ -88,7 +99,11 @@ import org.springframework.cloud.gateway.filter.headers.XForwardedHeadersFilter;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
 import org.springframework.cloud.gateway.filter.ratelimit.PrincipalNameKeyResolver;
 import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.handler.FilterProfiler;
+import org.springframework.cloud.gateway.handler.FilterProfilerProperties;
 import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RawProxyProperties;
+import org.springframework.cloud.gateway.handler.RawProxyRouteProvider;
 import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
 import org.springframework.cloud.gateway.handler.predicate.AfterRoutePredicateFactory;
 import org.springframework.cloud.gateway.handler.predicate.BeforeRoutePredicateFactory;
@@ -107,13 +122,18 @@ import org.springframework.cloud.gateway.handler.predicate.WeightRoutePredicateF
 import org.springframework.cloud.gateway.route.CachingRouteLocator;
 import org.springframework.cloud.gateway.route.CompositeRouteDefinitionLocator;
 import org.springframework.cloud.gateway.route.CompositeRouteLocator;
+import org.springframework.cloud.gateway.route.FileRouteDefinitionRepository;
+import org.springframework.cloud.gateway.route.FileRouteDefinitionRepositoryProperties;
 import org.springframework.cloud.gateway.route.InMemoryRouteDefinitionRepository;
+import org.springframework.cloud.gateway.route.RouteDefinitionChangeRefresher;
 import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
 import org.springframework.cloud.gateway.route.RouteDefinitionRepository;
 import org.springframework.cloud.gateway.route.RouteDefinitionRouteLocator;
 import org.springframework.cloud.gateway.route.RouteDefinitionWriter;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.RouteRefreshListener;
+import org.springframework.cloud.gateway.route.RouteSnapshotProperties;
+import org.springframework.cloud.gateway.route.SnapshotRouteDefinitionLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.cloud.gateway.support.StringToZonedDateTimeConverter;
 import org.springframework.context.ApplicationEventPublisher;
@@ -167,22 +187,48 @@ public class GatewayAutoConfiguration {
 		return new PropertiesRouteDefinitionLocator(properties);
 	}
 
+	@Bean
+	public FileRouteDefinitionRepositoryProperties fileRouteDefinitionRepositoryProperties() {
+		return new FileRouteDefinitionRepositoryProperties();
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "spring.cloud.gateway.route-repository.file.enabled")
+	@ConditionalOnMissingBean(RouteDefinitionRepository.class)
+	public FileRouteDefinitionRepository fileRouteDefinitionRepository(
+			FileRouteDefinitionRepositoryProperties properties) {
+		return new FileRouteDefinitionRepository(Paths.get(properties.getLocation()),
+				properties.getCompactionThreshold());
+	}
+
 	@Bean
 	@ConditionalOnMissingBean(RouteDefinitionRepository.class)
 	public InMemoryRouteDefinitionRepository inMemoryRouteDefinitionRepository() {
 		return new InMemoryRouteDefinitionRepository();
 	}
 
+	@Bean
+	public RouteSnapshotProperties routeSnapshotProperties() {
+		return new RouteSnapshotProperties();
+	}
+
 	@Bean
 	@Primary
 	public RouteDefinitionLocator routeDefinitionLocator(
-			List<RouteDefinitionLocator> routeDefinitionLocators) {
-		return new CompositeRouteDefinitionLocator(
+			List<RouteDefinitionLocator> routeDefinitionLocators,
+			RouteSnapshotProperties snapshotProperties) {
+		RouteDefinitionLocator locator = new CompositeRouteDefinitionLocator(
 				Flux.fromIterable(routeDefinitionLocators));
+		if (snapshotProperties.isEnabled()) {
+			return new SnapshotRouteDefinitionLocator(locator,
+					Paths.get(snapshotProperties.getLocation()));
+		}
+		return locator;
 	}
 
 	@Bean
-	public RouteLocator routeDefinitionRouteLocator(GatewayProperties properties,
+	public RouteDefinitionRouteLocator routeDefinitionRouteLocator(
+			GatewayProperties properties,
 			List<GatewayFilterFactory> GatewayFilters,
 			List<RoutePredicateFactory> predicates,
 			RouteDefinitionLocator routeDefinitionLocator,
@@ -194,20 +240,44 @@ public class GatewayAutoConfiguration {
 	@Bean
 	@Primary
 	// TODO: property to disable composite?
-	public RouteLocator cachedCompositeRouteLocator(List<RouteLocator> routeLocators) {
+	public CachingRouteLocator cachedCompositeRouteLocator(
+			List<RouteLocator> routeLocators) {
 		return new CachingRouteLocator(
 				new CompositeRouteLocator(Flux.fromIterable(routeLocators)));
 	}
 
 	@Bean
+	@ConditionalOnBean(FileRouteDefinitionRepository.class)
+	public RouteDefinitionChangeRefresher routeDefinitionChangeRefresher(
+			FileRouteDefinitionRepository repository,
+			RouteDefinitionRouteLocator routeDefinitionRouteLocator,
+			CachingRouteLocator cachedCompositeRouteLocator) {
+		return new RouteDefinitionChangeRefresher(repository.changes(),
+				routeDefinitionRouteLocator, cachedCompositeRouteLocator);
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
 	public RouteRefreshListener routeRefreshListener(
 			ApplicationEventPublisher publisher) {
 		return new RouteRefreshListener(publisher);
 	}
 
 	@Bean
-	public FilteringWebHandler filteringWebHandler(List<GlobalFilter> globalFilters) {
-		return new FilteringWebHandler(globalFilters);
+	public FilterProfilerProperties filterProfilerProperties() {
+		return new FilterProfilerProperties();
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "spring.cloud.gateway.filter-profiler.enabled")
+	public FilterProfiler filterProfiler(FilterProfilerProperties properties) {
+		return new FilterProfiler(properties.getSampleRate());
+	}
+
+	@Bean
+	public FilteringWebHandler filteringWebHandler(List<GlobalFilter> globalFilters,
+			ObjectProvider<FilterProfiler> filterProfiler) {
+		return new FilteringWebHandler(globalFilters, filterProfiler.getIfAvailable());
 	}
 
 	@Bean
@@ -235,6 +305,11 @@ public class GatewayAutoConfiguration {
 		return new SecureHeadersProperties();
 	}
 
+	@Bean
+	public ResponseCacheProperties responseCacheProperties() {
+		return new ResponseCacheProperties();
+	}
+
 	@Bean
 	@ConditionalOnProperty(name = "spring.cloud.gateway.forwarded.enabled",
 			matchIfMissing = true)
@@ -298,6 +373,18 @@ public class GatewayAutoConfiguration {
 		return new WeightCalculatorWebFilter(validator, routeLocator);
 	}
 
+	@Bean
+	public RequestDecompressionProperties requestDecompressionProperties() {
+		return new RequestDecompressionProperties();
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "spring.cloud.gateway.filter.request-decompression.enabled")
+	public RequestDecompressionWebFilter requestDecompressionWebFilter(
+			RequestDecompressionProperties properties) {
+		return new RequestDecompressionWebFilter(properties);
+	}
+
 	@Bean
 	public AfterRoutePredicateFactory afterRoutePredicateFactory() {
 		return new AfterRoutePredicateFactory();
@@ -509,6 +596,28 @@ public class GatewayAutoConfiguration {
 		return new RequestSizeGatewayFilterFactory();
 	}
 
+	@Bean
+	public RequestCoalescingGatewayFilterFactory requestCoalescingGatewayFilterFactory() {
+		return new RequestCoalescingGatewayFilterFactory();
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public ResponseCache responseCache(ResponseCacheProperties properties) {
+		return new ResponseCache(properties);
+	}
+
+	@Bean
+	public ResponseCacheGatewayFilterFactory responseCacheGatewayFilterFactory(
+			ResponseCache responseCache) {
+		return new ResponseCacheGatewayFilterFactory(responseCache);
+	}
+
+	@Bean
+	public ResponseCompressionGatewayFilterFactory responseCompressionGatewayFilterFactory() {
+		return new ResponseCompressionGatewayFilterFactory();
+	}
+
 	@Configuration
 	@ConditionalOnClass(HttpClient.class)
 	protected static class NettyConfiguration {
@@ -605,10 +714,38 @@ public class GatewayAutoConfiguration {
 			return new NettyRoutingFilter(httpClient, headersFilters, properties);
 		}
 
+		@Bean
+		public RawProxyProperties rawProxyProperties() {
+			return new RawProxyProperties();
+		}
+
+		@Bean
+		@ConditionalOnProperty(name = "spring.cloud.gateway.raw-proxy.enabled")
+		public WebServerFactoryCustomizer<NettyReactiveWebServerFactory> rawProxyCustomizer(
+				HttpClient httpClient, RawProxyProperties properties) {
+			RawProxyRouteProvider routeProvider = new RawProxyRouteProvider(httpClient,
+					properties.getRoutes());
+			return factory -> factory.addRouteProviders(routeProvider);
+		}
+
+		@Bean
+		@ConditionalOnProperty(name = "spring.cloud.gateway.httpclient.relay.enabled")
+		public ResponseBodyRelay responseBodyRelay(HttpClientProperties properties) {
+			HttpClientProperties.Relay relay = properties.getRelay();
+			return new ResponseBodyRelay((int) relay.getLowWaterMark().toBytes(),
+					(int) relay.getHighWaterMark().toBytes(), relay.getPrefetch());
+		}
+
 		@Bean
 		public NettyWriteResponseFilter nettyWriteResponseFilter(
-				GatewayProperties properties) {
-			return new NettyWriteResponseFilter(properties.getStreamingMediaTypes());
+				GatewayProperties properties,
+				ObjectProvider<ResponseBodyRelay> responseBodyRelay) {
+			NettyWriteResponseFilter filter = new NettyWriteResponseFilter(
+					properties.getStreamingMediaTypes(),
+					properties.getStreamingFlushInterval(),
+					properties.getStreamingFlushSize().toBytes());
+			filter.setResponseBodyRelay(responseBodyRelay.getIfAvailable());
+			return filter;
 		}
 
 		@Bean
@@ -652,9 +789,16 @@ public class GatewayAutoConfiguration {
 				RouteDefinitionLocator routeDefinitionLocator,
 				List<GlobalFilter> globalFilters,
 				List<GatewayFilterFactory> GatewayFilters,
-				RouteDefinitionWriter routeDefinitionWriter, RouteLocator routeLocator) {
-			return new GatewayControllerEndpoint(routeDefinitionLocator, globalFilters,
-					GatewayFilters, routeDefinitionWriter, routeLocator);
+				RouteDefinitionWriter routeDefinitionWriter, RouteLocator routeLocator,
+				ObjectProvider<FilterProfiler> filterProfiler,
+				ObjectProvider<RouteDefinitionRouteLocator> routeDefinitionRouteLocator) {
+			GatewayControllerEndpoint endpoint = new GatewayControllerEndpoint(
+					routeDefinitionLocator, globalFilters, GatewayFilters,
+					routeDefinitionWriter, routeLocator);
+			endpoint.setFilterProfiler(filterProfiler.getIfAvailable());
+			endpoint.setRouteDefinitionRouteLocator(
+					routeDefinitionRouteLocator.getIfAvailable());
+			return endpoint;
 		}
 
 	}
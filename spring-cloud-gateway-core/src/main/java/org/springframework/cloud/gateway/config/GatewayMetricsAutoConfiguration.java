@@ -16,17 +16,28 @@
 
 package org.springframework.cloud.gateway.config;
 
+import java.util.List;
+
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
 import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.web.reactive.HttpHandlerAutoConfiguration;
 import org.springframework.cloud.gateway.filter.GatewayMetricsFilter;
+import org.springframework.cloud.gateway.filter.GatewayPhaseTimingWebFilter;
+import org.springframework.cloud.gateway.filter.ResponseBodyRelay;
+import org.springframework.cloud.gateway.support.tagsprovider.GatewayHttpTagsProvider;
+import org.springframework.cloud.gateway.support.tagsprovider.GatewayRouteTagsProvider;
+import org.springframework.cloud.gateway.support.tagsprovider.GatewayTagsProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.reactive.DispatcherHandler;
@@ -40,12 +51,57 @@ import org.springframework.web.reactive.DispatcherHandler;
 		MetricsAutoConfiguration.class })
 public class GatewayMetricsAutoConfiguration {
 
+	@Bean
+	public GatewayMetricsProperties gatewayMetricsProperties() {
+		return new GatewayMetricsProperties();
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public GatewayHttpTagsProvider gatewayHttpTagsProvider() {
+		return new GatewayHttpTagsProvider();
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public GatewayRouteTagsProvider gatewayRouteTagsProvider() {
+		return new GatewayRouteTagsProvider();
+	}
+
 	@Bean
 	@ConditionalOnBean(MeterRegistry.class)
 	@ConditionalOnProperty(name = "spring.cloud.gateway.metrics.enabled",
 			matchIfMissing = true)
-	public GatewayMetricsFilter gatewayMetricFilter(MeterRegistry meterRegistry) {
-		return new GatewayMetricsFilter(meterRegistry);
+	public GatewayMetricsFilter gatewayMetricFilter(MeterRegistry meterRegistry,
+			List<GatewayTagsProvider> tagsProviders,
+			GatewayMetricsProperties properties) {
+		return new GatewayMetricsFilter(meterRegistry, tagsProviders,
+				properties.isLowCardinality());
+	}
+
+	@Bean
+	@ConditionalOnBean(MeterRegistry.class)
+	@ConditionalOnProperty(name = "spring.cloud.gateway.metrics.phases.enabled")
+	public GatewayPhaseTimingWebFilter gatewayPhaseTimingWebFilter(
+			MeterRegistry meterRegistry, GatewayMetricsProperties properties) {
+		return new GatewayPhaseTimingWebFilter(meterRegistry,
+				properties.getPhases().isServerTiming());
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "spring.cloud.gateway.httpclient.relay.enabled")
+	public MeterBinder gatewayRelayMetrics(
+			ObjectProvider<ResponseBodyRelay> responseBodyRelay) {
+		return registry -> responseBodyRelay.ifAvailable(relay -> {
+			Gauge.builder("gateway.relay.buffered", relay,
+					ResponseBodyRelay::getBufferedBytes).baseUnit("bytes")
+					.description("Response data written to clients but not sent yet")
+					.register(registry);
+			Gauge.builder("gateway.relay.paused", relay,
+					ResponseBodyRelay::getPausedUpstreams)
+					.description("Proxied responses not read because of slow clients")
+					.register(registry);
+		});
 	}
 
 }
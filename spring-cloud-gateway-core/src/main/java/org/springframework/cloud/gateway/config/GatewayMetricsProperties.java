@@ -0,0 +1,104 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.style.ToStringCreator;
+
+/**
+ * Configuration properties for the
+ * {@link org.springframework.cloud.gateway.filter.GatewayMetricsFilter}.
+ */
+@ConfigurationProperties("spring.cloud.gateway.metrics")
+public class GatewayMetricsProperties {
+
+	/**
+	 * Enables the collection of metrics data.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Only tags requests with their route id and outcome, ignoring the tags providers.
+	 */
+	private boolean lowCardinality;
+
+	private final Phases phases = new Phases();
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public boolean isLowCardinality() {
+		return lowCardinality;
+	}
+
+	public void setLowCardinality(boolean lowCardinality) {
+		this.lowCardinality = lowCardinality;
+	}
+
+	public Phases getPhases() {
+		return phases;
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringCreator(this).append("enabled", enabled)
+				.append("lowCardinality", lowCardinality).append("phases", phases)
+				.toString();
+	}
+
+	public static class Phases {
+
+		/**
+		 * Enables the per phase latency breakdown of gateway requests.
+		 */
+		private boolean enabled;
+
+		/**
+		 * Adds the phase durations to a Server-Timing response header.
+		 */
+		private boolean serverTiming;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public boolean isServerTiming() {
+			return serverTiming;
+		}
+
+		public void setServerTiming(boolean serverTiming) {
+			this.serverTiming = serverTiming;
+		}
+
+		@Override
+		public String toString() {
+			return new ToStringCreator(this).append("enabled", enabled)
+					.append("serverTiming", serverTiming).toString();
+		}
+
+	}
+
+}
@@ -16,6 +16,7 @@
 
 package org.springframework.cloud.gateway.config;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -30,6 +31,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.cloud.gateway.filter.FilterDefinition;
 import org.springframework.cloud.gateway.route.RouteDefinition;
 import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.annotation.Validated;
 
 /**
@@ -56,6 +58,18 @@ public class GatewayProperties {
 	private List<MediaType> streamingMediaTypes = Arrays
 			.asList(MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_STREAM_JSON);
 
+	/**
+	 * Maximum time a buffer of a streaming response waits to be flushed together with
+	 * the following buffers. Zero flushes every buffer as it arrives.
+	 */
+	private Duration streamingFlushInterval = Duration.ZERO;
+
+	/**
+	 * Amount of pending streaming response data that is flushed right away, without
+	 * waiting for the flush interval. Zero only flushes on the interval.
+	 */
+	private DataSize streamingFlushSize = DataSize.ofBytes(0);
+
 	public List<RouteDefinition> getRoutes() {
 		return routes;
 	}
@@ -83,10 +97,28 @@ public class GatewayProperties {
 		this.streamingMediaTypes = streamingMediaTypes;
 	}
 
+	public Duration getStreamingFlushInterval() {
+		return streamingFlushInterval;
+	}
+
+	public void setStreamingFlushInterval(Duration streamingFlushInterval) {
+		this.streamingFlushInterval = streamingFlushInterval;
+	}
+
+	public DataSize getStreamingFlushSize() {
+		return streamingFlushSize;
+	}
+
+	public void setStreamingFlushSize(DataSize streamingFlushSize) {
+		this.streamingFlushSize = streamingFlushSize;
+	}
+
 	@Override
 	public String toString() {
 		return "GatewayProperties{" + "routes=" + routes + ", defaultFilters="
-				+ defaultFilters + ", streamingMediaTypes=" + streamingMediaTypes + '}';
+				+ defaultFilters + ", streamingMediaTypes=" + streamingMediaTypes
+				+ ", streamingFlushInterval=" + streamingFlushInterval
+				+ ", streamingFlushSize=" + streamingFlushSize + '}';
 	}
 
 }
@@ -35,6 +35,7 @@ import org.springframework.boot.context.properties.DeprecatedConfigurationProper
 import org.springframework.boot.web.server.WebServerException;
 import org.springframework.core.style.ToStringCreator;
 import org.springframework.util.ResourceUtils;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Configuration properties for the Netty {@link reactor.netty.http.client.HttpClient}.
@@ -60,6 +61,9 @@ public class HttpClientProperties {
 	/** Websocket configuration for Netty HttpClient. */
 	private Websocket websocket = new Websocket();
 
+	/** Configuration for relaying response bodies to slow clients. */
+	private Relay relay = new Relay();
+
 	public Integer getConnectTimeout() {
 		return connectTimeout;
 	}
@@ -108,6 +112,14 @@ public class HttpClientProperties {
 		this.websocket = websocket;
 	}
 
+	public Relay getRelay() {
+		return relay;
+	}
+
+	public void setRelay(Relay relay) {
+		this.relay = relay;
+	}
+
 	@Override
 	public String toString() {
 		// @formatter:off
@@ -118,6 +130,7 @@ public class HttpClientProperties {
 				.append("proxy", proxy)
 				.append("ssl", ssl)
 				.append("websocket", websocket)
+				.append("relay", relay)
 				.toString();
 		// @formatter:on
 
@@ -440,4 +453,72 @@ public class HttpClientProperties {
 
 	}
 
+	public static class Relay {
+
+		/**
+		 * Enables bounding the response data buffered for slow clients, by pausing
+		 * reads from the proxied service.
+		 */
+		private boolean enabled;
+
+		/**
+		 * Amount of data buffered for a client above which reading from the proxied
+		 * service pauses.
+		 */
+		private DataSize highWaterMark = DataSize.ofKilobytes(64);
+
+		/**
+		 * Amount of data buffered for a client below which reading from the proxied
+		 * service resumes.
+		 */
+		private DataSize lowWaterMark = DataSize.ofKilobytes(32);
+
+		/**
+		 * Number of buffers read from the proxied service ahead of the writes to the
+		 * client.
+		 */
+		private int prefetch = 16;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public DataSize getHighWaterMark() {
+			return highWaterMark;
+		}
+
+		public void setHighWaterMark(DataSize highWaterMark) {
+			this.highWaterMark = highWaterMark;
+		}
+
+		public DataSize getLowWaterMark() {
+			return lowWaterMark;
+		}
+
+		public void setLowWaterMark(DataSize lowWaterMark) {
+			this.lowWaterMark = lowWaterMark;
+		}
+
+		public int getPrefetch() {
+			return prefetch;
+		}
+
+		public void setPrefetch(int prefetch) {
+			this.prefetch = prefetch;
+		}
+
+		@Override
+		public String toString() {
+			return new ToStringCreator(this).append("enabled", enabled)
+					.append("highWaterMark", highWaterMark)
+					.append("lowWaterMark", lowWaterMark).append("prefetch", prefetch)
+					.toString();
+		}
+
+	}
+
 }
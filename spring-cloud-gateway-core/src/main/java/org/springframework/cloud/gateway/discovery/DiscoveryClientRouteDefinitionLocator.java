@@ -17,23 +17,47 @@
 package org.springframework.cloud.gateway.discovery;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import org.springframework.cloud.client.ServiceInstance;
 import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.cloud.client.discovery.event.HeartbeatMonitor;
+import org.springframework.cloud.client.discovery.event.ParentHeartbeatEvent;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
 import org.springframework.cloud.gateway.filter.FilterDefinition;
 import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
 import org.springframework.cloud.gateway.route.RouteDefinition;
 import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.cloud.gateway.support.ExpressionCache;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.context.ApplicationListener;
 import org.springframework.core.style.ToStringCreator;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ParseException;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.ast.BeanReference;
+import org.springframework.expression.spel.ast.FunctionReference;
+import org.springframework.expression.spel.ast.MethodReference;
+import org.springframework.expression.spel.ast.PropertyOrFieldReference;
+import org.springframework.expression.spel.ast.VariableReference;
+import org.springframework.expression.spel.standard.SpelExpression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.SimpleEvaluationContext;
 import org.springframework.util.StringUtils;
@@ -43,11 +67,14 @@ import org.springframework.util.StringUtils;
  *
  * @author Spencer Gibb
  */
-public class DiscoveryClientRouteDefinitionLocator implements RouteDefinitionLocator {
+public class DiscoveryClientRouteDefinitionLocator implements RouteDefinitionLocator,
+		ApplicationListener<ApplicationEvent>, ApplicationEventPublisherAware {
 
 	private static final Log log = LogFactory
 			.getLog(DiscoveryClientRouteDefinitionLocator.class);
 
+	private static final String SERVICE_ID = "serviceId";
+
 	private final DiscoveryClient discoveryClient;
 
 	private final DiscoveryLocatorProperties properties;
@@ -56,6 +83,19 @@ public class DiscoveryClientRouteDefinitionLocator implements RouteDefinitionLoc
 
 	private final SimpleEvaluationContext evalCtxt;
 
+	private final SpelExpressionParser parser = new SpelExpressionParser();
+
+	private final ExpressionCache expressionCache = ExpressionCache.shared();
+
+	private final HeartbeatMonitor monitor = new HeartbeatMonitor();
+
+	private final AtomicBoolean updateScheduled = new AtomicBoolean();
+
+	// routes by service id when maintained incrementally, replaced on every update
+	private volatile Map<String, RouteDefinition> routesByService;
+
+	private ApplicationEventPublisher publisher;
+
 	public DiscoveryClientRouteDefinitionLocator(DiscoveryClient discoveryClient,
 			DiscoveryLocatorProperties properties) {
 		this.discoveryClient = discoveryClient;
@@ -72,74 +112,226 @@ public class DiscoveryClientRouteDefinitionLocator implements RouteDefinitionLoc
 
 	@Override
 	public Flux<RouteDefinition> getRouteDefinitions() {
+		if (properties.isIncremental()) {
+			Map<String, RouteDefinition> routes = this.routesByService;
+			if (routes != null) {
+				return Flux.fromIterable(routes.values());
+			}
+			// the first call loads all services, away from the calling thread
+			return Mono.fromCallable(() -> {
+				update();
+				return this.routesByService.values();
+			}).subscribeOn(Schedulers.elastic()).flatMapIterable(Function.identity());
+		}
 
-		SpelExpressionParser parser = new SpelExpressionParser();
-		Expression includeExpr = parser
-				.parseExpression(properties.getIncludeExpression());
-		Expression urlExpr = parser.parseExpression(properties.getUrlExpression());
+		Predicate<ServiceInstance> includePredicate = includePredicate();
+		Expression urlExpr = this.expressionCache.parseExpression(parser,
+				properties.getUrlExpression());
 
-		Predicate<ServiceInstance> includePredicate;
-		if (properties.getIncludeExpression() == null
-				|| "true".equalsIgnoreCase(properties.getIncludeExpression())) {
-			includePredicate = instance -> true;
+		return Flux.fromIterable(discoveryClient.getServices())
+				.map(discoveryClient::getInstances)
+				.filter(instances -> !instances.isEmpty())
+				.map(instances -> instances.get(0)).filter(includePredicate)
+				.map(instance -> buildRouteDefinition(instance, urlExpr));
+	}
+
+	/**
+	 * Tracks heartbeats when routes are maintained incrementally, updating them off the
+	 * calling thread whenever the heartbeat changes.
+	 */
+	@Override
+	public void onApplicationEvent(ApplicationEvent event) {
+		if (!properties.isIncremental()) {
+			return;
 		}
-		else {
-			includePredicate = instance -> {
-				Boolean include = includeExpr.getValue(evalCtxt, instance, Boolean.class);
-				if (include == null) {
+		Object value = null;
+		if (event instanceof ParentHeartbeatEvent) {
+			value = ((ParentHeartbeatEvent) event).getValue();
+		}
+		else if (event instanceof HeartbeatEvent) {
+			value = ((HeartbeatEvent) event).getValue();
+		}
+		if (value != null && this.monitor.update(value)) {
+			scheduleUpdate();
+		}
+	}
+
+	@Override
+	public void setApplicationEventPublisher(ApplicationEventPublisher publisher) {
+		this.publisher = publisher;
+	}
+
+	private void scheduleUpdate() {
+		// heartbeats arriving while an update is pending are covered by that update
+		if (!this.updateScheduled.compareAndSet(false, true)) {
+			return;
+		}
+		Mono.fromCallable(() -> {
+			this.updateScheduled.set(false);
+			return update();
+		}).subscribeOn(Schedulers.elastic()).subscribe(changed -> {
+			if (changed && this.publisher != null) {
+				this.publisher.publishEvent(new RefreshRoutesEvent(this));
+			}
+		}, error -> log.warn("Unable to update routes from the DiscoveryClient",
+				error));
+	}
+
+	/**
+	 * Brings the routes in line with the services of the registry. Instances are only
+	 * looked up for new services, and for known services whose routes depend on more
+	 * than their service id. Unlike a full lookup, which drops services without
+	 * instances, a known service whose route depends on its service id only therefore
+	 * keeps its route while the registry lists it, even once it has no instances left,
+	 * as some registries such as Consul keep listing such services. Its route then
+	 * fails like any route to a service without instances.
+	 * @return whether any route appeared, disappeared or changed
+	 */
+	synchronized boolean update() {
+		Map<String, RouteDefinition> previous = this.routesByService;
+		if (previous == null) {
+			previous = Collections.emptyMap();
+		}
+		Predicate<ServiceInstance> includePredicate = includePredicate();
+		Expression urlExpr = this.expressionCache.parseExpression(parser,
+				properties.getUrlExpression());
+		boolean serviceIdOnly = routesDependOnServiceIdOnly();
+
+		Map<String, RouteDefinition> routes = new LinkedHashMap<>();
+		boolean changed = false;
+		for (String serviceId : discoveryClient.getServices()) {
+			RouteDefinition known = previous.get(serviceId);
+			// see above, instances are not checked for such a service
+			if (known != null && serviceIdOnly) {
+				routes.put(serviceId, known);
+				continue;
+			}
+			List<ServiceInstance> instances = discoveryClient.getInstances(serviceId);
+			if (instances.isEmpty() || !includePredicate.test(instances.get(0))) {
+				continue;
+			}
+			RouteDefinition definition = buildRouteDefinition(instances.get(0),
+					urlExpr);
+			// RouteDefinition.equals does not compare filters
+			if (known != null && known.equals(definition)
+					&& known.getFilters().equals(definition.getFilters())) {
+				definition = known;
+			}
+			else {
+				changed = true;
+			}
+			routes.put(serviceId, definition);
+		}
+		changed = changed || !routes.keySet().equals(previous.keySet());
+		this.routesByService = routes;
+		return changed;
+	}
+
+	private Predicate<ServiceInstance> includePredicate() {
+		String includeExpression = properties.getIncludeExpression();
+		if (includeExpression == null || "true".equalsIgnoreCase(includeExpression)) {
+			return instance -> true;
+		}
+		Expression includeExpr = this.expressionCache.parseExpression(parser,
+				includeExpression);
+		return instance -> {
+			Boolean include = includeExpr.getValue(evalCtxt, instance, Boolean.class);
+			if (include == null) {
+				return false;
+			}
+			return include;
+		};
+	}
+
+	private RouteDefinition buildRouteDefinition(ServiceInstance instance,
+			Expression urlExpr) {
+		String serviceId = instance.getServiceId();
+
+		RouteDefinition routeDefinition = new RouteDefinition();
+		routeDefinition.setId(this.routeIdPrefix + serviceId);
+		String uri = urlExpr.getValue(evalCtxt, instance, String.class);
+		routeDefinition.setUri(URI.create(uri));
+
+		final ServiceInstance instanceForEval = new DelegatingServiceInstance(instance,
+				properties);
+
+		for (PredicateDefinition original : this.properties.getPredicates()) {
+			PredicateDefinition predicate = new PredicateDefinition();
+			predicate.setName(original.getName());
+			for (Map.Entry<String, String> entry : original.getArgs().entrySet()) {
+				String value = getValueFromExpr(evalCtxt, parser, instanceForEval, entry);
+				predicate.addArg(entry.getKey(), value);
+			}
+			routeDefinition.getPredicates().add(predicate);
+		}
+
+		for (FilterDefinition original : this.properties.getFilters()) {
+			FilterDefinition filter = new FilterDefinition();
+			filter.setName(original.getName());
+			for (Map.Entry<String, String> entry : original.getArgs().entrySet()) {
+				String value = getValueFromExpr(evalCtxt, parser, instanceForEval, entry);
+				filter.addArg(entry.getKey(), value);
+			}
+			routeDefinition.getFilters().add(filter);
+		}
+
+		return routeDefinition;
+	}
+
+	/**
+	 * Whether the include, url, predicate and filter expressions refer to nothing but
+	 * the service id, so the route of a known service cannot change.
+	 */
+	private boolean routesDependOnServiceIdOnly() {
+		List<String> expressions = new ArrayList<>();
+		String includeExpression = properties.getIncludeExpression();
+		if (includeExpression != null && !"true".equalsIgnoreCase(includeExpression)) {
+			expressions.add(includeExpression);
+		}
+		expressions.add(properties.getUrlExpression());
+		properties.getPredicates()
+				.forEach(predicate -> expressions.addAll(predicate.getArgs().values()));
+		properties.getFilters()
+				.forEach(filter -> expressions.addAll(filter.getArgs().values()));
+		try {
+			for (String expression : expressions) {
+				Expression parsed = this.expressionCache.parseExpression(parser,
+						expression);
+				if (!(parsed instanceof SpelExpression)
+						|| !refersToServiceIdOnly(((SpelExpression) parsed).getAST())) {
 					return false;
 				}
-				return include;
-			};
+			}
+			return true;
+		}
+		catch (ParseException e) {
+			return false;
 		}
+	}
 
-		return Flux.fromIterable(discoveryClient.getServices())
-				.map(discoveryClient::getInstances)
-				.filter(instances -> !instances.isEmpty())
-				.map(instances -> instances.get(0)).filter(includePredicate)
-				.map(instance -> {
-					String serviceId = instance.getServiceId();
-
-					RouteDefinition routeDefinition = new RouteDefinition();
-					routeDefinition.setId(this.routeIdPrefix + serviceId);
-					String uri = urlExpr.getValue(evalCtxt, instance, String.class);
-					routeDefinition.setUri(URI.create(uri));
-
-					final ServiceInstance instanceForEval = new DelegatingServiceInstance(
-							instance, properties);
-
-					for (PredicateDefinition original : this.properties.getPredicates()) {
-						PredicateDefinition predicate = new PredicateDefinition();
-						predicate.setName(original.getName());
-						for (Map.Entry<String, String> entry : original.getArgs()
-								.entrySet()) {
-							String value = getValueFromExpr(evalCtxt, parser,
-									instanceForEval, entry);
-							predicate.addArg(entry.getKey(), value);
-						}
-						routeDefinition.getPredicates().add(predicate);
-					}
-
-					for (FilterDefinition original : this.properties.getFilters()) {
-						FilterDefinition filter = new FilterDefinition();
-						filter.setName(original.getName());
-						for (Map.Entry<String, String> entry : original.getArgs()
-								.entrySet()) {
-							String value = getValueFromExpr(evalCtxt, parser,
-									instanceForEval, entry);
-							filter.addArg(entry.getKey(), value);
-						}
-						routeDefinition.getFilters().add(filter);
-					}
-
-					return routeDefinition;
-				});
+	private static boolean refersToServiceIdOnly(SpelNode node) {
+		if (node instanceof PropertyOrFieldReference) {
+			if (!SERVICE_ID.equals(((PropertyOrFieldReference) node).getName())) {
+				return false;
+			}
+		}
+		else if (node instanceof MethodReference || node instanceof VariableReference
+				|| node instanceof BeanReference || node instanceof FunctionReference) {
+			return false;
+		}
+		for (int i = 0; i < node.getChildCount(); i++) {
+			if (!refersToServiceIdOnly(node.getChild(i))) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	String getValueFromExpr(SimpleEvaluationContext evalCtxt, SpelExpressionParser parser,
 			ServiceInstance instance, Map.Entry<String, String> entry) {
 		try {
-			Expression valueExpr = parser.parseExpression(entry.getValue());
+			Expression valueExpr = this.expressionCache.parseExpression(parser,
+					entry.getValue());
 			return valueExpr.getValue(evalCtxt, instance, String.class);
 		}
 		catch (ParseException | EvaluationException e) {
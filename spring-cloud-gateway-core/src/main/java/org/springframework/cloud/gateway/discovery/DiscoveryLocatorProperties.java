@@ -54,6 +54,14 @@ public class DiscoveryLocatorProperties {
 	 */
 	private boolean lowerCaseServiceId = false;
 
+	/**
+	 * Option to maintain the routes incrementally from heartbeat events, defaults to
+	 * false. Routes are then served from memory, and on a changed heartbeat only the
+	 * instances of new services, or of services whose routes depend on more than their
+	 * service id, are looked up. Routes are refreshed only if they changed.
+	 */
+	private boolean incremental = false;
+
 	private List<PredicateDefinition> predicates = new ArrayList<>();
 
 	private List<FilterDefinition> filters = new ArrayList<>();
@@ -98,6 +106,14 @@ public class DiscoveryLocatorProperties {
 		this.lowerCaseServiceId = lowerCaseServiceId;
 	}
 
+	public boolean isIncremental() {
+		return incremental;
+	}
+
+	public void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+	}
+
 	public List<PredicateDefinition> getPredicates() {
 		return predicates;
 	}
@@ -121,6 +137,7 @@ public class DiscoveryLocatorProperties {
 				.append("includeExpression", includeExpression)
 				.append("urlExpression", urlExpression)
 				.append("lowerCaseServiceId", lowerCaseServiceId)
+				.append("incremental", incremental)
 				.append("predicates", predicates).append("filters", filters).toString();
 	}
 
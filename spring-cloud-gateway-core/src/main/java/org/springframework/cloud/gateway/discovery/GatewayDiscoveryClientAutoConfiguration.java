@@ -32,6 +32,8 @@ import org.springframework.cloud.gateway.filter.FilterDefinition;
 import org.springframework.cloud.gateway.filter.factory.RewritePathGatewayFilterFactory;
 import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
 import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.RouteRefreshListener;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.reactive.DispatcherHandler;
@@ -88,6 +90,16 @@ public class GatewayDiscoveryClientAutoConfiguration {
 		return new DiscoveryClientRouteDefinitionLocator(discoveryClient, properties);
 	}
 
+	@Bean
+	@ConditionalOnBean(DiscoveryClient.class)
+	@ConditionalOnProperty(name = { "spring.cloud.gateway.discovery.locator.enabled",
+			"spring.cloud.gateway.discovery.locator.incremental" })
+	public RouteRefreshListener discoveryRouteRefreshListener(
+			ApplicationEventPublisher publisher) {
+		// the discovery locator tracks heartbeats and refreshes only changed routes
+		return new RouteRefreshListener(publisher, false);
+	}
+
 	@Bean
 	public DiscoveryLocatorProperties discoveryLocatorProperties() {
 		DiscoveryLocatorProperties properties = new DiscoveryLocatorProperties();
@@ -16,6 +16,11 @@
 
 package org.springframework.cloud.gateway.filter;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
@@ -25,25 +30,53 @@ import org.apache.commons.logging.LogFactory;
 import reactor.core.publisher.Mono;
 
 import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.tagsprovider.GatewayHttpTagsProvider;
+import org.springframework.cloud.gateway.support.tagsprovider.GatewayRouteTagsProvider;
+import org.springframework.cloud.gateway.support.tagsprovider.GatewayTagsProvider;
 import org.springframework.core.Ordered;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.server.reactive.AbstractServerHttpResponse;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.server.ServerWebExchange;
 
 import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
 
 /**
+ * Records the {@code gateway.requests} timer. Timers are cached by their tags, so the
+ * registry is only consulted the first time a combination of tags is seen. In low
+ * cardinality mode requests are only tagged with their route id and outcome, and the
+ * timers are resolved per route and status series without building any tags.
+ *
  * @author Tony Clarke
  */
 public class GatewayMetricsFilter implements GlobalFilter, Ordered {
 
 	private static final Log log = LogFactory.getLog(GatewayMetricsFilter.class);
 
-	private MeterRegistry meterRegistry;
+	private static final String METRICS_NAME = "gateway.requests";
+
+	private static final HttpStatus.Series[] SERIES = HttpStatus.Series.values();
+
+	private final MeterRegistry meterRegistry;
+
+	private final GatewayTagsProvider compositeTagsProvider;
+
+	private final boolean lowCardinality;
+
+	private final ConcurrentMap<Tags, Timer> timers = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<String, Timer[]> routeTimers = new ConcurrentHashMap<>();
 
 	public GatewayMetricsFilter(MeterRegistry meterRegistry) {
+		this(meterRegistry, Arrays.asList(new GatewayHttpTagsProvider(),
+				new GatewayRouteTagsProvider()), false);
+	}
+
+	public GatewayMetricsFilter(MeterRegistry meterRegistry,
+			List<GatewayTagsProvider> tagsProviders, boolean lowCardinality) {
 		this.meterRegistry = meterRegistry;
+		this.compositeTagsProvider = tagsProviders.stream()
+				.reduce(exchange -> Tags.empty(), GatewayTagsProvider::and);
+		this.lowCardinality = lowCardinality;
 	}
 
 	@Override
@@ -77,48 +110,49 @@ public class GatewayMetricsFilter implements GlobalFilter, Ordered {
 	}
 
 	private void endTimerInner(ServerWebExchange exchange, Sample sample) {
-		String outcome = "CUSTOM";
-		String status = "CUSTOM";
-		String httpStatusCodeStr = "NA";
-
-		String httpMethod = exchange.getRequest().getMethodValue();
-
-		// a non standard HTTPS status could be used. Let's be defensive here
-		// it needs to be checked for first, otherwise the delegate response
-		// who's status DIDN"T change, will be used
-		if (exchange.getResponse() instanceof AbstractServerHttpResponse) {
-			Integer statusInt = ((AbstractServerHttpResponse) exchange.getResponse())
-					.getStatusCodeValue();
-			if (statusInt != null) {
-				status = String.valueOf(statusInt);
-				httpStatusCodeStr = status;
-				HttpStatus resolved = HttpStatus.resolve(statusInt);
-				if (resolved != null) {
-					// this is not a CUSTOM status, so use series here.
-					outcome = resolved.series().name();
-					status = resolved.name();
-				}
-			}
+		if (lowCardinality) {
+			sample.stop(routeTimer(exchange));
+			return;
 		}
-		else {
-			HttpStatus statusCode = exchange.getResponse().getStatusCode();
-			if (statusCode != null) {
-				httpStatusCodeStr = String.valueOf(statusCode.value());
-				outcome = statusCode.series().name();
-				status = statusCode.name();
-			}
+
+		Tags tags = compositeTagsProvider.apply(exchange);
+
+		if (log.isTraceEnabled()) {
+			log.trace(METRICS_NAME + " tags: " + tags);
 		}
+		Timer timer = timers.get(tags);
+		if (timer == null) {
+			timer = timers.computeIfAbsent(tags,
+					key -> meterRegistry.timer(METRICS_NAME, key));
+		}
+		sample.stop(timer);
+	}
 
-		// TODO refactor to allow Tags provider like in MetricsWebFilter
+	private Timer routeTimer(ServerWebExchange exchange) {
 		Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
-		Tags tags = Tags.of("outcome", outcome, "status", status, "httpStatusCode",
-				httpStatusCodeStr, "routeId", route.getId(), "routeUri",
-				route.getUri().toString(), "httpMethod", httpMethod);
+		String routeId = route != null ? route.getId() : "";
+		Timer[] timers = routeTimers.get(routeId);
+		if (timers == null) {
+			// one slot per series plus one for custom status codes
+			timers = routeTimers.computeIfAbsent(routeId,
+					key -> new Timer[SERIES.length + 1]);
+		}
 
-		if (log.isTraceEnabled()) {
-			log.trace("gateway.requests tags: " + tags);
+		Integer statusCode = GatewayHttpTagsProvider
+				.statusCode(exchange.getResponse());
+		HttpStatus status = statusCode != null ? HttpStatus.resolve(statusCode) : null;
+		int index = status != null ? status.series().ordinal() : SERIES.length;
+
+		Timer timer = timers[index];
+		if (timer == null) {
+			// racing threads resolve the same timer from the registry
+			String outcome = status != null ? status.series().name()
+					: GatewayHttpTagsProvider.CUSTOM;
+			timer = meterRegistry.timer(METRICS_NAME, "routeId", routeId, "outcome",
+					outcome);
+			timers[index] = timer;
 		}
-		sample.stop(meterRegistry.timer("gateway.requests", tags));
+		return timer;
 	}
 
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.filter;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.gateway.support.PhaseTimings;
+import org.springframework.cloud.gateway.support.PhaseTimings.Phase;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_PHASE_TIMINGS_ATTR;
+
+/**
+ * Enables {@link PhaseTimings} for every exchange and records the duration of each
+ * phase in the {@code gateway.requests.phases} timer, tagged with the phase name and
+ * publishing a percentile histogram. Optionally adds the phases completed before the
+ * response is committed to a {@code Server-Timing} response header.
+ */
+public class GatewayPhaseTimingWebFilter implements WebFilter, Ordered {
+
+	/**
+	 * Order of Gateway Phase Timing Web filter.
+	 */
+	public static final int PHASE_TIMING_FILTER_ORDER = Ordered.HIGHEST_PRECEDENCE;
+
+	/**
+	 * Server-Timing header name.
+	 */
+	public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+	private static final String METRICS_NAME = "gateway.requests.phases";
+
+	private static final Phase[] PHASES = Phase.values();
+
+	private final Timer[] timers = new Timer[PHASES.length];
+
+	private final boolean serverTiming;
+
+	public GatewayPhaseTimingWebFilter(MeterRegistry meterRegistry,
+			boolean serverTiming) {
+		for (Phase phase : PHASES) {
+			timers[phase.ordinal()] = Timer.builder(METRICS_NAME)
+					.tag("phase", phase.getName()).publishPercentileHistogram()
+					.register(meterRegistry);
+		}
+		this.serverTiming = serverTiming;
+	}
+
+	@Override
+	public int getOrder() {
+		return PHASE_TIMING_FILTER_ORDER;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+		PhaseTimings timings = new PhaseTimings();
+		exchange.getAttributes().put(GATEWAY_PHASE_TIMINGS_ATTR, timings);
+		if (serverTiming) {
+			exchange.getResponse().beforeCommit(() -> {
+				String value = timings.toServerTiming();
+				if (!value.isEmpty()) {
+					exchange.getResponse().getHeaders().add(SERVER_TIMING_HEADER, value);
+				}
+				return Mono.empty();
+			});
+		}
+		return chain.filter(exchange).doFinally(signalType -> record(timings));
+	}
+
+	private void record(PhaseTimings timings) {
+		for (Phase phase : PHASES) {
+			long duration = timings.getDuration(phase);
+			if (duration >= 0) {
+				timers[phase.ordinal()].record(duration, TimeUnit.NANOSECONDS);
+			}
+		}
+	}
+
+}
@@ -33,6 +33,8 @@ import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.cloud.gateway.config.HttpClientProperties;
 import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
 import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter.Type;
+import org.springframework.cloud.gateway.support.PhaseTimings;
+import org.springframework.cloud.gateway.support.PhaseTimings.Mark;
 import org.springframework.cloud.gateway.support.TimeoutException;
 import org.springframework.core.Ordered;
 import org.springframework.core.io.buffer.NettyDataBuffer;
@@ -103,6 +105,7 @@ public class NettyRoutingFilter implements GlobalFilter, Ordered {
 			return chain.filter(exchange);
 		}
 		setAlreadyRouted(exchange);
+		PhaseTimings.mark(exchange, Mark.ROUTING_START);
 
 		ServerHttpRequest request = exchange.getRequest();
 
@@ -119,6 +122,7 @@ public class NettyRoutingFilter implements GlobalFilter, Ordered {
 
 		Flux<HttpClientResponse> responseFlux = this.httpClient.request(method).uri(url)
 				.send((req, nettyOutbound) -> {
+					PhaseTimings.mark(exchange, Mark.CONNECTED);
 					req.headers(httpHeaders);
 
 					if (preserveHost) {
@@ -136,6 +140,7 @@ public class NettyRoutingFilter implements GlobalFilter, Ordered {
 									.map(dataBuffer -> ((NettyDataBuffer) dataBuffer)
 											.getNativeBuffer()));
 				}).responseConnection((res, connection) -> {
+					PhaseTimings.mark(exchange, Mark.RESPONSE_HEADERS);
 
 					// Defer committing the response until all route filters have run
 					// Put client response as ServerWebExchange attribute and write
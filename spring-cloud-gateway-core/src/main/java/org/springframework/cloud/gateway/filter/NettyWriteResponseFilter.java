@@ -16,17 +16,35 @@
 
 package org.springframework.cloud.gateway.filter;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.reactivestreams.Subscription;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.netty.Connection;
 
+import org.springframework.cloud.gateway.support.PhaseTimings;
+import org.springframework.cloud.gateway.support.PhaseTimings.Mark;
 import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.NettyDataBuffer;
 import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.core.io.buffer.PooledDataBuffer;
 import org.springframework.http.MediaType;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.lang.Nullable;
@@ -46,10 +64,59 @@ public class NettyWriteResponseFilter implements GlobalFilter, Ordered {
 
 	private static final Log log = LogFactory.getLog(NettyWriteResponseFilter.class);
 
+	/**
+	 * Maximum number of buffers flushed together.
+	 */
+	private static final int MAX_FLUSH_BUFFERS = 256;
+
 	private final List<MediaType> streamingMediaTypes;
 
+	// subtypes of the streaming media types without wildcards by type, matched without
+	// iterating over the streaming media types
+	private final Map<String, Set<String>> streamingSubtypes = new HashMap<>();
+
+	private final List<MediaType> wildcardStreamingMediaTypes = new ArrayList<>();
+
+	private final Duration flushInterval;
+
+	private final long flushSize;
+
+	private ResponseBodyRelay responseBodyRelay;
+
 	public NettyWriteResponseFilter(List<MediaType> streamingMediaTypes) {
+		this(streamingMediaTypes, Duration.ZERO, 0);
+	}
+
+	/**
+	 * @param streamingMediaTypes the media types of the responses to stream
+	 * @param flushInterval the maximum time a buffer of a streaming response waits to be
+	 * flushed, zero flushes every buffer
+	 * @param flushSize the number of pending bytes flushed without waiting for the
+	 * interval before more are added, zero only flushes on the interval
+	 */
+	public NettyWriteResponseFilter(List<MediaType> streamingMediaTypes,
+			Duration flushInterval, long flushSize) {
 		this.streamingMediaTypes = streamingMediaTypes;
+		this.flushInterval = flushInterval;
+		this.flushSize = flushSize;
+		for (MediaType mediaType : streamingMediaTypes) {
+			if (mediaType.isWildcardType() || mediaType.isWildcardSubtype()) {
+				this.wildcardStreamingMediaTypes.add(mediaType);
+			}
+			else {
+				this.streamingSubtypes
+						.computeIfAbsent(mediaType.getType(), type -> new HashSet<>())
+						.add(mediaType.getSubtype());
+			}
+		}
+	}
+
+	/**
+	 * @param responseBodyRelay the relay bounding the data buffered for slow clients,
+	 * or {@code null} to write the body as it is read
+	 */
+	public void setResponseBodyRelay(ResponseBodyRelay responseBodyRelay) {
+		this.responseBodyRelay = responseBodyRelay;
 	}
 
 	@Override
@@ -82,11 +149,14 @@ public class NettyWriteResponseFilter implements GlobalFilter, Ordered {
 							.bufferFactory();
 
 					// TODO: needed?
-					final Flux<NettyDataBuffer> body = connection
+					Flux<NettyDataBuffer> received = connection
 							.inbound()
 							.receive()
 							.retain()
 							.map(factory::wrap);
+					final Flux<NettyDataBuffer> body = this.responseBodyRelay != null
+							? this.responseBodyRelay.relay(exchange, connection, received)
+							: received;
 
 					MediaType contentType = null;
 					try {
@@ -98,8 +168,10 @@ public class NettyWriteResponseFilter implements GlobalFilter, Ordered {
 						}
 					}
 					return (isStreamingMediaType(contentType)
-							? response.writeAndFlushWith(body.map(Flux::just))
-							: response.writeWith(body));
+							? response.writeAndFlushWith(flushBatches(body))
+							: response.writeWith(body))
+							.doOnSuccess(aVoid -> PhaseTimings.mark(exchange,
+									Mark.RESPONSE_COMPLETE));
 				})).doOnCancel(() -> cleanup(exchange));
 		// @formatter:on
 	}
@@ -111,11 +183,181 @@ public class NettyWriteResponseFilter implements GlobalFilter, Ordered {
 		}
 	}
 
+	/**
+	 * Groups the buffers of a streaming response into the batches flushed together, a
+	 * batch per buffer unless a flush interval is set.
+	 */
+	/* for testing */
+	Flux<Flux<NettyDataBuffer>> flushBatches(Flux<NettyDataBuffer> body) {
+		if (this.flushInterval.isZero() || this.flushInterval.isNegative()) {
+			return body.map(Flux::just);
+		}
+		Flux<Flux<NettyDataBuffer>> windows = this.flushSize > 0
+				? body.windowUntil(new PendingBytes(this.flushSize), true)
+				: Flux.just(body);
+		return windows
+				.concatMap(window -> Flux.<Flux<NettyDataBuffer>>create(
+						sink -> window.subscribe(new Batcher(sink, this.flushInterval))))
+				.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
+	}
+
 	// TODO: use framework if possible
 	// TODO: port to WebClientWriteResponseFilter
-	private boolean isStreamingMediaType(@Nullable MediaType contentType) {
-		return (contentType != null && this.streamingMediaTypes.stream()
-				.anyMatch(contentType::isCompatibleWith));
+	/* for testing */ boolean isStreamingMediaType(@Nullable MediaType contentType) {
+		if (contentType == null) {
+			return false;
+		}
+		if (contentType.isWildcardType() || contentType.isWildcardSubtype()) {
+			return this.streamingMediaTypes.stream()
+					.anyMatch(contentType::isCompatibleWith);
+		}
+		Set<String> subtypes = this.streamingSubtypes.get(contentType.getType());
+		if (subtypes != null && subtypes.contains(contentType.getSubtype())) {
+			return true;
+		}
+		for (MediaType mediaType : this.wildcardStreamingMediaTypes) {
+			if (mediaType.isCompatibleWith(contentType)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Starts a new batch before the buffer that would take it past the given number of
+	 * bytes.
+	 */
+	private static final class PendingBytes implements Predicate<DataBuffer> {
+
+		private final long flushSize;
+
+		private long pending;
+
+		PendingBytes(long flushSize) {
+			this.flushSize = flushSize;
+		}
+
+		@Override
+		public boolean test(DataBuffer buffer) {
+			int size = buffer.readableByteCount();
+			if (this.pending == 0 || this.pending + size <= this.flushSize) {
+				this.pending += size;
+				return false;
+			}
+			// the buffer is the first of the new batch
+			this.pending = size;
+			return true;
+		}
+
+	}
+
+	/**
+	 * Batches the buffers of a window, a batch being due once the flush interval has
+	 * elapsed since its first buffer, once it is full or once the window completes. A
+	 * due batch is only emitted when requested, unlike with
+	 * {@link Flux#bufferTimeout(int, Duration)}, so it keeps filling while the client is
+	 * slow and the window is not read past a full batch.
+	 */
+	private static final class Batcher extends BaseSubscriber<NettyDataBuffer> {
+
+		private final FluxSink<Flux<NettyDataBuffer>> sink;
+
+		private final Duration flushInterval;
+
+		// guarded by this
+		private List<NettyDataBuffer> batch = new ArrayList<>();
+
+		private long batches;
+
+		private Disposable timer;
+
+		private boolean due;
+
+		private boolean done;
+
+		Batcher(FluxSink<Flux<NettyDataBuffer>> sink, Duration flushInterval) {
+			this.sink = sink;
+			this.flushInterval = flushInterval;
+			sink.onRequest(n -> emitIfDue());
+			sink.onDispose(this::discard);
+		}
+
+		@Override
+		protected void hookOnSubscribe(Subscription subscription) {
+			request(MAX_FLUSH_BUFFERS);
+		}
+
+		@Override
+		protected synchronized void hookOnNext(NettyDataBuffer buffer) {
+			if (this.sink.isCancelled()) {
+				DataBufferUtils.release(buffer);
+				return;
+			}
+			this.batch.add(buffer);
+			if (this.batch.size() == 1) {
+				long current = this.batches;
+				this.timer = Schedulers.parallel().schedule(() -> timeout(current),
+						this.flushInterval.toNanos(), TimeUnit.NANOSECONDS);
+			}
+			if (this.batch.size() >= MAX_FLUSH_BUFFERS) {
+				this.due = true;
+			}
+			emitIfDue();
+		}
+
+		@Override
+		protected synchronized void hookOnComplete() {
+			this.done = true;
+			this.due = true;
+			emitIfDue();
+		}
+
+		@Override
+		protected void hookOnError(Throwable throwable) {
+			discard();
+			this.sink.error(throwable);
+		}
+
+		private synchronized void timeout(long batch) {
+			// a timer of an emitted batch is ignored
+			if (batch == this.batches) {
+				this.due = true;
+				emitIfDue();
+			}
+		}
+
+		private synchronized void emitIfDue() {
+			if (this.sink.isCancelled()) {
+				return;
+			}
+			if (this.due && !this.batch.isEmpty()
+					&& this.sink.requestedFromDownstream() > 0) {
+				List<NettyDataBuffer> emitted = this.batch;
+				this.batch = new ArrayList<>();
+				this.batches++;
+				this.due = this.done;
+				if (this.timer != null) {
+					this.timer.dispose();
+				}
+				this.sink.next(Flux.fromIterable(emitted));
+				if (!this.done) {
+					request(emitted.size());
+				}
+			}
+			if (this.done && this.batch.isEmpty()) {
+				this.sink.complete();
+			}
+		}
+
+		private synchronized void discard() {
+			dispose();
+			if (this.timer != null) {
+				this.timer.dispose();
+			}
+			this.batch.forEach(DataBufferUtils::release);
+			this.batch.clear();
+		}
+
 	}
 
 }
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.filter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.style.ToStringCreator;
+
+/**
+ * Configuration properties for the {@link RequestDecompressionWebFilter}.
+ */
+@ConfigurationProperties("spring.cloud.gateway.filter.request-decompression")
+public class RequestDecompressionProperties {
+
+	/**
+	 * Whether compressed request bodies are decompressed by the gateway.
+	 */
+	private boolean enabled;
+
+	/**
+	 * Maximum ratio between the decompressed and compressed size of a request body.
+	 */
+	private int maxRatio = 100;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getMaxRatio() {
+		return maxRatio;
+	}
+
+	public void setMaxRatio(int maxRatio) {
+		this.maxRatio = maxRatio;
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringCreator(this).append("enabled", enabled)
+				.append("maxRatio", maxRatio).toString();
+	}
+
+}
@@ -0,0 +1,354 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.filter;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+/**
+ * Decompresses request bodies sent with the {@code gzip} or {@code deflate}
+ * {@code Content-Encoding} before routes are matched, so body aware predicates and
+ * filters see the decompressed body. The body is inflated chunk by chunk as it is
+ * read, without being buffered as a whole. Requests whose body inflates beyond the
+ * configured ratio to its compressed size are rejected with
+ * {@code 413 Payload Too Large}, malformed bodies with {@code 400 Bad Request}.
+ */
+public class RequestDecompressionWebFilter implements WebFilter, Ordered {
+
+	/**
+	 * Order of Request Decompression Web filter.
+	 */
+	public static final int REQUEST_DECOMPRESSION_FILTER_ORDER = 10000;
+
+	private final RequestDecompressionProperties properties;
+
+	private int order = REQUEST_DECOMPRESSION_FILTER_ORDER;
+
+	public RequestDecompressionWebFilter(RequestDecompressionProperties properties) {
+		this.properties = properties;
+	}
+
+	@Override
+	public int getOrder() {
+		return order;
+	}
+
+	public void setOrder(int order) {
+		this.order = order;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+		ServerHttpRequest request = exchange.getRequest();
+		String encoding = request.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+		if (encoding == null) {
+			return chain.filter(exchange);
+		}
+		encoding = encoding.trim().toLowerCase(Locale.ROOT);
+		boolean gzip = encoding.equals("gzip") || encoding.equals("x-gzip");
+		if (!gzip && !encoding.equals("deflate")) {
+			return chain.filter(exchange);
+		}
+		DataBufferFactory bufferFactory = exchange.getResponse().bufferFactory();
+		int maxRatio = properties.getMaxRatio();
+		HttpHeaders headers = new HttpHeaders();
+		headers.putAll(request.getHeaders());
+		headers.remove(HttpHeaders.CONTENT_ENCODING);
+		headers.remove(HttpHeaders.CONTENT_LENGTH);
+		headers.set(HttpHeaders.TRANSFER_ENCODING, "chunked");
+
+		ServerHttpRequest decompressed = new ServerHttpRequestDecorator(request) {
+			@Override
+			public HttpHeaders getHeaders() {
+				return headers;
+			}
+
+			@Override
+			public Flux<DataBuffer> getBody() {
+				return Flux.defer(() -> {
+					BodyInflater inflater = new BodyInflater(gzip, maxRatio);
+					return super.getBody()
+							.concatMapIterable(buffer -> inflater.inflate(read(buffer)))
+							.concatWith(Mono.fromRunnable(inflater::finish))
+							.map(bufferFactory::wrap)
+							.doFinally(signalType -> inflater.end());
+				});
+			}
+		};
+		return chain.filter(exchange.mutate().request(decompressed).build());
+	}
+
+	private static byte[] read(DataBuffer buffer) {
+		byte[] bytes = new byte[buffer.readableByteCount()];
+		buffer.read(bytes);
+		DataBufferUtils.release(buffer);
+		return bytes;
+	}
+
+	/**
+	 * Streaming inflater for a single request body. Gzip member headers and trailers are
+	 * parsed here, so that the body can be fed in arbitrary chunks; concatenated gzip
+	 * members are supported like {@link java.util.zip.GZIPInputStream} does.
+	 */
+	static final class BodyInflater {
+
+		private static final int GZIP_MAGIC = 0x8b1f;
+
+		private static final int FHCRC = 2;
+
+		private static final int FEXTRA = 4;
+
+		private static final int FNAME = 8;
+
+		private static final int FCOMMENT = 16;
+
+		private static final int TRAILER_LENGTH = 8;
+
+		private static final int MAX_HEADER_LENGTH = 128 * 1024;
+
+		/**
+		 * Bodies inflating to less than this are never rejected by the ratio check, so
+		 * small highly compressible bodies are let through.
+		 */
+		private static final long RATIO_CHECK_THRESHOLD = 64 * 1024;
+
+		private enum State {
+
+			HEADER, BODY, TRAILER, DONE
+
+		}
+
+		private final boolean gzip;
+
+		private final int maxRatio;
+
+		private final Inflater inflater;
+
+		private final CRC32 crc = new CRC32();
+
+		private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+		private final byte[] output = new byte[8192];
+
+		private State state;
+
+		private int members;
+
+		private long compressed;
+
+		private long inflated;
+
+		BodyInflater(boolean gzip, int maxRatio) {
+			this.gzip = gzip;
+			this.maxRatio = maxRatio;
+			this.inflater = new Inflater(gzip);
+			this.state = gzip ? State.HEADER : State.BODY;
+		}
+
+		List<byte[]> inflate(byte[] input) {
+			compressed += input.length;
+			List<byte[]> chunks = new ArrayList<>();
+			int offset = 0;
+			while (offset < input.length) {
+				switch (state) {
+				case HEADER:
+					pending.write(input, offset, input.length - offset);
+					offset = input.length;
+					byte[] header = pending.toByteArray();
+					int headerLength = headerLength(header);
+					if (headerLength >= 0) {
+						pending.reset();
+						inflater.reset();
+						crc.reset();
+						state = State.BODY;
+						input = Arrays.copyOfRange(header, headerLength, header.length);
+						offset = 0;
+					}
+					else if (state == State.HEADER
+							&& header.length > MAX_HEADER_LENGTH) {
+						throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+								"Malformed gzip request body header");
+					}
+					break;
+				case BODY:
+					offset = inflate(input, offset, chunks);
+					break;
+				case TRAILER:
+					int length = Math.min(TRAILER_LENGTH - pending.size(),
+							input.length - offset);
+					pending.write(input, offset, length);
+					offset += length;
+					if (pending.size() == TRAILER_LENGTH) {
+						checkTrailer(pending.toByteArray());
+						pending.reset();
+						members++;
+						state = State.HEADER;
+					}
+					break;
+				default:
+					// trailing data after the compressed body is ignored
+					offset = input.length;
+				}
+			}
+			return chunks;
+		}
+
+		/**
+		 * Verifies the body was complete.
+		 */
+		void finish() {
+			boolean complete = state == State.DONE
+					|| (state == State.HEADER && members > 0);
+			if (!complete) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+						"Truncated compressed request body");
+			}
+		}
+
+		void end() {
+			inflater.end();
+		}
+
+		private int inflate(byte[] input, int offset, List<byte[]> chunks) {
+			inflater.setInput(input, offset, input.length - offset);
+			try {
+				while (true) {
+					int count = inflater.inflate(output);
+					if (count > 0) {
+						emit(count, chunks);
+					}
+					if (inflater.finished()) {
+						state = gzip ? State.TRAILER : State.DONE;
+						return input.length - inflater.getRemaining();
+					}
+					if (count == 0
+							&& (inflater.needsInput() || inflater.needsDictionary())) {
+						return input.length;
+					}
+				}
+			}
+			catch (DataFormatException e) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+						"Malformed compressed request body", e);
+			}
+		}
+
+		private void emit(int count, List<byte[]> chunks) {
+			inflated += count;
+			if (inflated > RATIO_CHECK_THRESHOLD && inflated > compressed * maxRatio) {
+				throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+						"Compressed request body exceeds the decompression ratio of "
+								+ maxRatio);
+			}
+			if (gzip) {
+				crc.update(output, 0, count);
+			}
+			chunks.add(Arrays.copyOf(output, count));
+		}
+
+		/**
+		 * @return the length of the gzip member header at the start of the given bytes,
+		 * or -1 if more bytes are needed
+		 */
+		private int headerLength(byte[] bytes) {
+			if (bytes.length < 10) {
+				return -1;
+			}
+			if (((bytes[0] & 0xff) | (bytes[1] & 0xff) << 8) != GZIP_MAGIC
+					|| bytes[2] != 8) {
+				if (members > 0) {
+					// like GZIPInputStream, ignore trailing garbage after a member
+					state = State.DONE;
+					pending.reset();
+					return -1;
+				}
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+						"Malformed gzip request body header");
+			}
+			int flags = bytes[3] & 0xff;
+			int length = 10;
+			if ((flags & FEXTRA) != 0) {
+				if (bytes.length < length + 2) {
+					return -1;
+				}
+				length += 2 + ((bytes[length] & 0xff) | (bytes[length + 1] & 0xff) << 8);
+			}
+			if ((flags & FNAME) != 0) {
+				length = skipZeroTerminated(bytes, length);
+			}
+			if ((flags & FCOMMENT) != 0) {
+				length = skipZeroTerminated(bytes, length);
+			}
+			if ((flags & FHCRC) != 0) {
+				length = length < 0 ? length : length + 2;
+			}
+			return length < 0 || length > bytes.length ? -1 : length;
+		}
+
+		private static int skipZeroTerminated(byte[] bytes, int offset) {
+			if (offset < 0) {
+				return offset;
+			}
+			for (int i = offset; i < bytes.length; i++) {
+				if (bytes[i] == 0) {
+					return i + 1;
+				}
+			}
+			return -1;
+		}
+
+		private void checkTrailer(byte[] trailer) {
+			long expectedCrc = readInt(trailer, 0);
+			long expectedSize = readInt(trailer, 4);
+			if (expectedCrc != crc.getValue()
+					|| expectedSize != (inflater.getBytesWritten() & 0xffffffffL)) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+						"Corrupt gzip request body");
+			}
+		}
+
+		private static long readInt(byte[] bytes, int offset) {
+			return ((bytes[offset] & 0xffL) | (bytes[offset + 1] & 0xffL) << 8
+					| (bytes[offset + 2] & 0xffL) << 16
+					| (bytes[offset + 3] & 0xffL) << 24);
+		}
+
+	}
+
+}
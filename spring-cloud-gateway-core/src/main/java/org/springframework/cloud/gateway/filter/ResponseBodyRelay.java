@@ -0,0 +1,171 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.filter;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.WriteBufferWaterMark;
+import reactor.core.publisher.Flux;
+import reactor.netty.Connection;
+
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.http.server.reactive.AbstractServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * Relays a proxied response body to the client with a bounded amount of data in
+ * flight. The client connection buffers at most {@code highWaterMark} bytes of written
+ * data; beyond that, the upstream connection stops reading until the client has taken
+ * the buffered data below {@code lowWaterMark}. At most {@code prefetch} buffers are
+ * requested from the upstream connection ahead of the writes.
+ */
+public class ResponseBodyRelay {
+
+	private static final String HANDLER_NAME = "gateway.relay";
+
+	private final WriteBufferWaterMark waterMark;
+
+	private final int prefetch;
+
+	private final Set<Channel> relaying = ConcurrentHashMap.newKeySet();
+
+	private final AtomicInteger paused = new AtomicInteger();
+
+	public ResponseBodyRelay(int lowWaterMark, int highWaterMark, int prefetch) {
+		this.waterMark = new WriteBufferWaterMark(lowWaterMark, highWaterMark);
+		this.prefetch = prefetch;
+	}
+
+	/**
+	 * @param exchange the exchange to respond to
+	 * @param upstream the connection the body is read from
+	 * @param body the body read from the upstream connection
+	 * @return the body to write to the client
+	 */
+	public Flux<NettyDataBuffer> relay(ServerWebExchange exchange, Connection upstream,
+			Flux<NettyDataBuffer> body) {
+		return relay(getConnection(exchange.getResponse()), upstream, body);
+	}
+
+	/* for testing */
+	Flux<NettyDataBuffer> relay(Connection downstream, Connection upstream,
+			Flux<NettyDataBuffer> body) {
+		if (downstream == null) {
+			return body.limitRate(this.prefetch);
+		}
+		return Flux.defer(() -> {
+			Channel channel = downstream.channel();
+			PauseUpstreamHandler handler = new PauseUpstreamHandler(upstream.channel());
+			channel.config().setWriteBufferWaterMark(this.waterMark);
+			downstream.addHandlerLast(HANDLER_NAME, handler);
+			this.relaying.add(channel);
+			return body.limitRate(this.prefetch).doFinally(signal -> {
+				this.relaying.remove(channel);
+				downstream.removeHandler(HANDLER_NAME);
+				handler.resume();
+			});
+		});
+	}
+
+	/**
+	 * @return the bytes written to clients that they have not received yet
+	 */
+	public long getBufferedBytes() {
+		long buffered = 0;
+		for (Channel channel : this.relaying) {
+			ChannelOutboundBuffer outbound = channel.unsafe().outboundBuffer();
+			if (outbound != null) {
+				buffered += outbound.totalPendingWriteBytes();
+			}
+		}
+		return buffered;
+	}
+
+	/**
+	 * @return the number of upstream connections not read because their client is slow
+	 */
+	public int getPausedUpstreams() {
+		return this.paused.get();
+	}
+
+	private static Connection getConnection(ServerHttpResponse response) {
+		while (response instanceof ServerHttpResponseDecorator) {
+			response = ((ServerHttpResponseDecorator) response).getDelegate();
+		}
+		if (response instanceof AbstractServerHttpResponse) {
+			Object nativeResponse = ((AbstractServerHttpResponse) response)
+					.getNativeResponse();
+			if (nativeResponse instanceof Connection) {
+				return (Connection) nativeResponse;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Toggles reading from the upstream connection with the writability of the client
+	 * connection.
+	 */
+	private final class PauseUpstreamHandler extends ChannelInboundHandlerAdapter {
+
+		private final Channel upstream;
+
+		private boolean upstreamPaused;
+
+		PauseUpstreamHandler(Channel upstream) {
+			this.upstream = upstream;
+		}
+
+		@Override
+		public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+			if (ctx.channel().isWritable()) {
+				resume();
+			}
+			else {
+				pause();
+			}
+			ctx.fireChannelWritabilityChanged();
+		}
+
+		private synchronized void pause() {
+			if (!this.upstreamPaused) {
+				this.upstreamPaused = true;
+				paused.incrementAndGet();
+				this.upstream.config().setAutoRead(false);
+			}
+		}
+
+		synchronized void resume() {
+			if (this.upstreamPaused) {
+				this.upstreamPaused = false;
+				paused.decrementAndGet();
+				this.upstream.config().setAutoRead(true);
+				this.upstream.read();
+			}
+		}
+
+	}
+
+}
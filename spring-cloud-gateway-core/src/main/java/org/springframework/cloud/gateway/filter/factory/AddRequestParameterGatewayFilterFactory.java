@@ -29,6 +29,11 @@ import org.springframework.web.util.UriComponentsBuilder;
 public class AddRequestParameterGatewayFilterFactory
 		extends AbstractNameValueGatewayFilterFactory {
 
+	@Override
+	public boolean isStateless() {
+		return true;
+	}
+
 	@Override
 	public GatewayFilter apply(NameValueConfig config) {
 		return (exchange, chain) -> {
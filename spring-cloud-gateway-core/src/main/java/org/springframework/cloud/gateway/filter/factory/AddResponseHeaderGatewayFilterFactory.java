@@ -24,6 +24,11 @@ import org.springframework.cloud.gateway.filter.GatewayFilter;
 public class AddResponseHeaderGatewayFilterFactory
 		extends AbstractNameValueGatewayFilterFactory {
 
+	@Override
+	public boolean isStateless() {
+		return true;
+	}
+
 	@Override
 	public GatewayFilter apply(NameValueConfig config) {
 		return (exchange, chain) -> {
@@ -79,6 +79,11 @@ public class DedupeResponseHeaderGatewayFilterFactory extends
 		return Arrays.asList(NAME_KEY, STRATEGY_KEY);
 	}
 
+	@Override
+	public boolean isStateless() {
+		return true;
+	}
+
 	@Override
 	public GatewayFilter apply(Config config) {
 		return (exchange, chain) -> chain.filter(exchange).then(Mono.fromRunnable(() -> {
@@ -58,6 +58,15 @@ public interface GatewayFilterFactory<C> extends ShortcutConfigurable, Configura
 
 	GatewayFilter apply(C config);
 
+	/**
+	 * Whether the filters returned by {@link #apply(Object)} hold no state besides their
+	 * configuration, so that routes configured identically can share a single filter.
+	 * @return {@code true} if filters for equal configurations may be shared
+	 */
+	default boolean isStateless() {
+		return false;
+	}
+
 	default String name() {
 		// TODO: deal with proxys
 		return NameUtils.normalizeFilterFactoryName(getClass());
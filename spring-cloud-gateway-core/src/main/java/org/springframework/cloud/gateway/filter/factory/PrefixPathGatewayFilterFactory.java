@@ -52,6 +52,11 @@ public class PrefixPathGatewayFilterFactory
 		return Arrays.asList(PREFIX_KEY);
 	}
 
+	@Override
+	public boolean isStateless() {
+		return true;
+	}
+
 	@Override
 	public GatewayFilter apply(Config config) {
 		return (exchange, chain) -> {
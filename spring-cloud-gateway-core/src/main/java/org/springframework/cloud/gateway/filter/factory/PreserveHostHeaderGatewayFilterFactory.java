@@ -25,6 +25,11 @@ import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.P
  */
 public class PreserveHostHeaderGatewayFilterFactory extends AbstractGatewayFilterFactory {
 
+	@Override
+	public boolean isStateless() {
+		return true;
+	}
+
 	public GatewayFilter apply() {
 		return apply(o -> {
 		});
@@ -56,6 +56,11 @@ public class RedirectToGatewayFilterFactory
 		return Arrays.asList(STATUS_KEY, URL_KEY);
 	}
 
+	@Override
+	public boolean isStateless() {
+		return true;
+	}
+
 	@Override
 	public GatewayFilter apply(Config config) {
 		return apply(config.status, config.url);
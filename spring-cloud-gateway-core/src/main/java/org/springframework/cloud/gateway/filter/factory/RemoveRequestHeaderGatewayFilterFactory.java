@@ -37,6 +37,11 @@ public class RemoveRequestHeaderGatewayFilterFactory
 		return Arrays.asList(NAME_KEY);
 	}
 
+	@Override
+	public boolean isStateless() {
+		return true;
+	}
+
 	@Override
 	public GatewayFilter apply(NameConfig config) {
 		return (exchange, chain) -> {
@@ -38,6 +38,11 @@ public class RemoveResponseHeaderGatewayFilterFactory
 		return Arrays.asList(NAME_KEY);
 	}
 
+	@Override
+	public boolean isStateless() {
+		return true;
+	}
+
 	@Override
 	public GatewayFilter apply(NameConfig config) {
 		return (exchange, chain) -> chain.filter(exchange).then(Mono.fromRunnable(() -> {
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.filter.factory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * Coalesces identical concurrent {@code GET} requests so that only one of them is
+ * routed. The first request for a given key (method, URI and the configured headers)
+ * is forwarded; requests arriving while it is in flight wait for its response, which
+ * is then replayed to each of them. If the forwarded request fails, waiting requests
+ * are routed on their own.
+ *
+ * Requests carrying credentials ({@code Authorization} or {@code Cookie} headers) are
+ * never coalesced, and {@code Set-Cookie} headers of the forwarded response are not
+ * replayed to waiting requests.
+ *
+ * The response body of a coalesced request is aggregated in memory, so this filter
+ * should only be applied to routes returning reasonably sized, non streaming bodies.
+ */
+public class RequestCoalescingGatewayFilterFactory extends
+		AbstractGatewayFilterFactory<RequestCoalescingGatewayFilterFactory.Config> {
+
+	/**
+	 * Headers key.
+	 */
+	public static final String HEADERS_KEY = "headers";
+
+	private static final byte[] EMPTY_BODY = new byte[0];
+
+	public RequestCoalescingGatewayFilterFactory() {
+		super(Config.class);
+	}
+
+	@Override
+	public List<String> shortcutFieldOrder() {
+		return Collections.singletonList(HEADERS_KEY);
+	}
+
+	@Override
+	public ShortcutType shortcutType() {
+		return ShortcutType.GATHER_LIST;
+	}
+
+	@Override
+	public GatewayFilter apply(Config config) {
+		return new RequestCoalescingGatewayFilter(config);
+	}
+
+	public static class Config {
+
+		private List<String> headers = new ArrayList<>();
+
+		public List<String> getHeaders() {
+			return headers;
+		}
+
+		public Config setHeaders(List<String> headers) {
+			this.headers = headers;
+			return this;
+		}
+
+	}
+
+	public static class RequestCoalescingGatewayFilter implements GatewayFilter, Ordered {
+
+		private final Config config;
+
+		private final ConcurrentMap<String, MonoProcessor<SharedResponse>> inFlight;
+
+		public RequestCoalescingGatewayFilter(Config config) {
+			this.config = config;
+			this.inFlight = new ConcurrentHashMap<>();
+		}
+
+		@Override
+		public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+			ServerHttpRequest request = exchange.getRequest();
+			if (request.getMethod() != HttpMethod.GET || hasCredentials(request)) {
+				return chain.filter(exchange);
+			}
+
+			String key = key(request);
+			MonoProcessor<SharedResponse> leader = MonoProcessor.create();
+			MonoProcessor<SharedResponse> existing = inFlight.putIfAbsent(key, leader);
+
+			if (existing != null) {
+				// an identical request is in flight, replay its response or route
+				// this request on its own if it fails
+				return existing.materialize()
+						.flatMap(signal -> signal.hasValue()
+								? write(exchange, signal.get())
+								: chain.filter(exchange));
+			}
+
+			return chain
+					.filter(exchange.mutate().response(decorate(exchange, leader))
+							.build())
+					.doFinally(signalType -> {
+						inFlight.remove(key, leader);
+						if (!leader.isTerminated()) {
+							leader.onError(new IllegalStateException(
+									"Coalesced request completed without a response: "
+											+ signalType));
+						}
+					});
+		}
+
+		private boolean hasCredentials(ServerHttpRequest request) {
+			HttpHeaders headers = request.getHeaders();
+			return headers.containsKey(HttpHeaders.AUTHORIZATION)
+					|| headers.containsKey(HttpHeaders.COOKIE);
+		}
+
+		String key(ServerHttpRequest request) {
+			StringBuilder key = new StringBuilder(request.getMethodValue()).append(' ')
+					.append(request.getURI().toString());
+			HttpHeaders headers = request.getHeaders();
+			for (String header : config.getHeaders()) {
+				key.append('\n').append(header).append(':');
+				List<String> values = headers.get(header);
+				if (values != null) {
+					key.append(values);
+				}
+			}
+			return key.toString();
+		}
+
+		ServerHttpResponse decorate(ServerWebExchange exchange,
+				MonoProcessor<SharedResponse> processor) {
+			return new ServerHttpResponseDecorator(exchange.getResponse()) {
+
+				@Override
+				public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+					return DataBufferUtils.join(body).map(joined -> {
+						byte[] bytes = new byte[joined.readableByteCount()];
+						joined.read(bytes);
+						DataBufferUtils.release(joined);
+						return bytes;
+					}).defaultIfEmpty(EMPTY_BODY).flatMap(bytes -> {
+						processor.onNext(new SharedResponse(getStatusCode(),
+								getHeaders(), bytes));
+						return getDelegate()
+								.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+					});
+				}
+
+				@Override
+				public Mono<Void> writeAndFlushWith(
+						Publisher<? extends Publisher<? extends DataBuffer>> body) {
+					return writeWith(Flux.from(body).flatMapSequential(p -> p));
+				}
+			};
+		}
+
+		private Mono<Void> write(ServerWebExchange exchange, SharedResponse shared) {
+			ServerHttpResponse response = exchange.getResponse();
+			if (shared.status != null) {
+				response.setStatusCode(shared.status);
+			}
+			HttpHeaders headers = response.getHeaders();
+			shared.headers.forEach(
+					(name, values) -> headers.put(name, new ArrayList<>(values)));
+			return response.writeWith(
+					Mono.fromSupplier(() -> response.bufferFactory().wrap(shared.body)));
+		}
+
+		@Override
+		public int getOrder() {
+			return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+		}
+
+	}
+
+	/**
+	 * Status, headers and body of a response shared between coalesced requests. The body
+	 * is never mutated, so each waiting request wraps it without copying. Cookies set by
+	 * the response belong to the forwarded request only and are not shared.
+	 */
+	static final class SharedResponse {
+
+		private final HttpStatus status;
+
+		private final HttpHeaders headers;
+
+		private final byte[] body;
+
+		SharedResponse(HttpStatus status, HttpHeaders headers, byte[] body) {
+			this.status = status;
+			HttpHeaders copy = new HttpHeaders();
+			headers.forEach((name, values) -> copy.put(name, new ArrayList<>(values)));
+			copy.remove(HttpHeaders.SET_COOKIE);
+			this.headers = HttpHeaders.readOnlyHttpHeaders(copy);
+			this.body = body;
+		}
+
+	}
+
+}
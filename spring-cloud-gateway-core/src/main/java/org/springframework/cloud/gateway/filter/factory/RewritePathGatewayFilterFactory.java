@@ -18,9 +18,13 @@ package org.springframework.cloud.gateway.filter.factory;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.lang.Nullable;
 
 import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
 import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.addOriginalRequestUrl;
@@ -41,6 +45,14 @@ public class RewritePathGatewayFilterFactory
 	 */
 	public static final String REPLACEMENT_KEY = "replacement";
 
+	/**
+	 * Matches regular expressions that replace a literal prefix while keeping the rest
+	 * of the path, such as {@code /foo/(?<segment>.*)}.
+	 */
+	private static final Pattern LITERAL_PREFIX_REGEXP = Pattern.compile(
+			"(\\^?)([^\\\\^$.|?*+()\\[\\]{}]*)"
+					+ "\\(\\?<([a-zA-Z][a-zA-Z0-9]*)>\\.\\*\\)");
+
 	public RewritePathGatewayFilterFactory() {
 		super(Config.class);
 	}
@@ -50,14 +62,31 @@ public class RewritePathGatewayFilterFactory
 		return Arrays.asList(REGEXP_KEY, REPLACEMENT_KEY);
 	}
 
+	@Override
+	public boolean isStateless() {
+		return true;
+	}
+
 	@Override
 	public GatewayFilter apply(Config config) {
 		String replacement = config.replacement.replace("$\\", "$");
+		UnaryOperator<String> rewrite = literalPrefixRewrite(config.regexp,
+				replacement);
+		if (rewrite == null) {
+			Pattern pattern = Pattern.compile(config.regexp);
+			rewrite = path -> pattern.matcher(path).replaceAll(replacement);
+		}
+		UnaryOperator<String> rewritePath = rewrite;
 		return (exchange, chain) -> {
 			ServerHttpRequest req = exchange.getRequest();
 			addOriginalRequestUrl(exchange, req.getURI());
 			String path = req.getURI().getRawPath();
-			String newPath = path.replaceAll(config.regexp, replacement);
+			String newPath = rewritePath.apply(path);
+
+			if (newPath.equals(path)) {
+				exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, req.getURI());
+				return chain.filter(exchange);
+			}
 
 			ServerHttpRequest request = req.mutate().path(newPath).build();
 
@@ -67,6 +96,41 @@ public class RewritePathGatewayFilterFactory
 		};
 	}
 
+	/**
+	 * Returns a rewrite done with plain string operations when the regular expression
+	 * only replaces a literal prefix, such as {@code /foo/(?<segment>.*)} rewritten to
+	 * {@code /$\{segment}}.
+	 * @param regexp the regular expression of the route
+	 * @param replacement the replacement, with {@code $\} already unescaped
+	 * @return the rewrite or {@code null} if a regular expression is needed
+	 */
+	@Nullable
+	static UnaryOperator<String> literalPrefixRewrite(String regexp, String replacement) {
+		Matcher matcher = LITERAL_PREFIX_REGEXP.matcher(regexp);
+		if (!matcher.matches()) {
+			return null;
+		}
+		boolean anchored = !matcher.group(1).isEmpty();
+		String prefix = matcher.group(2);
+		String group = "${" + matcher.group(3) + "}";
+		if (prefix.isEmpty() || !replacement.endsWith(group)) {
+			return null;
+		}
+		String newPrefix = replacement.substring(0,
+				replacement.length() - group.length());
+		if (newPrefix.indexOf('$') >= 0 || newPrefix.indexOf('\\') >= 0) {
+			return null;
+		}
+		return path -> {
+			int index = path.indexOf(prefix);
+			if (index < 0 || (anchored && index > 0)) {
+				return path;
+			}
+			return path.substring(0, index) + newPrefix
+					+ path.substring(index + prefix.length());
+		};
+	}
+
 	public static class Config {
 
 		private String regexp;
@@ -18,6 +18,7 @@ package org.springframework.cloud.gateway.filter.factory;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.regex.Pattern;
 
 import reactor.core.publisher.Mono;
 
@@ -49,8 +50,15 @@ public class RewriteResponseHeaderGatewayFilterFactory extends
 		return Arrays.asList(NAME_KEY, REGEXP_KEY, REPLACEMENT_KEY);
 	}
 
+	@Override
+	public boolean isStateless() {
+		return true;
+	}
+
 	@Override
 	public GatewayFilter apply(Config config) {
+		// compile eagerly so an invalid regexp fails when the route is created
+		config.compiledRegexp();
 		return (exchange, chain) -> chain.filter(exchange).then(Mono.fromRunnable(() -> {
 			rewriteHeader(exchange, config);
 		}));
@@ -62,13 +70,17 @@ public class RewriteResponseHeaderGatewayFilterFactory extends
 		if (value == null) {
 			return;
 		}
-		final String newValue = rewrite(value, config.getRegexp(),
+		final String newValue = rewrite(value, config.compiledRegexp(),
 				config.getReplacement());
 		exchange.getResponse().getHeaders().set(name, newValue);
 	}
 
 	String rewrite(String value, String regexp, String replacement) {
-		return value.replaceAll(regexp, replacement.replace("$\\", "$"));
+		return rewrite(value, Pattern.compile(regexp), replacement);
+	}
+
+	private String rewrite(String value, Pattern regexp, String replacement) {
+		return regexp.matcher(value).replaceAll(replacement.replace("$\\", "$"));
 	}
 
 	public static class Config extends AbstractGatewayFilterFactory.NameConfig {
@@ -77,15 +89,27 @@ public class RewriteResponseHeaderGatewayFilterFactory extends
 
 		private String replacement;
 
+		private volatile Pattern compiledRegexp;
+
 		public String getRegexp() {
 			return regexp;
 		}
 
 		public Config setRegexp(String regexp) {
 			this.regexp = regexp;
+			this.compiledRegexp = null;
 			return this;
 		}
 
+		Pattern compiledRegexp() {
+			Pattern pattern = compiledRegexp;
+			if (pattern == null) {
+				pattern = Pattern.compile(regexp);
+				compiledRegexp = pattern;
+			}
+			return pattern;
+		}
+
 		public String getReplacement() {
 			return replacement;
 		}
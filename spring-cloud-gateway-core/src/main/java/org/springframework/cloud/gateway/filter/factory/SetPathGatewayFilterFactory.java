@@ -49,6 +49,11 @@ public class SetPathGatewayFilterFactory
 		return Arrays.asList(TEMPLATE_KEY);
 	}
 
+	@Override
+	public boolean isStateless() {
+		return true;
+	}
+
 	@Override
 	public GatewayFilter apply(Config config) {
 		UriTemplate uriTemplate = new UriTemplate(config.template);
@@ -64,6 +69,10 @@ public class SetPathGatewayFilterFactory
 
 			exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, uri);
 
+			if (newPath.equals(req.getURI().getRawPath())) {
+				return chain.filter(exchange);
+			}
+
 			ServerHttpRequest request = req.mutate().path(newPath).build();
 
 			return chain.filter(exchange.mutate().request(request).build());
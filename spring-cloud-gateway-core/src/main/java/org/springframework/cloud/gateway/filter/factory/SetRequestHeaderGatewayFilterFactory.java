@@ -25,6 +25,11 @@ import org.springframework.http.server.reactive.ServerHttpRequest;
 public class SetRequestHeaderGatewayFilterFactory
 		extends AbstractNameValueGatewayFilterFactory {
 
+	@Override
+	public boolean isStateless() {
+		return true;
+	}
+
 	@Override
 	public GatewayFilter apply(NameValueConfig config) {
 		return (exchange, chain) -> {
@@ -26,6 +26,11 @@ import org.springframework.cloud.gateway.filter.GatewayFilter;
 public class SetResponseHeaderGatewayFilterFactory
 		extends AbstractNameValueGatewayFilterFactory {
 
+	@Override
+	public boolean isStateless() {
+		return true;
+	}
+
 	@Override
 	public GatewayFilter apply(NameValueConfig config) {
 		return (exchange, chain) -> chain.filter(exchange).then(Mono.fromRunnable(() -> {
@@ -46,6 +46,11 @@ public class SetStatusGatewayFilterFactory
 		return Arrays.asList(STATUS_KEY);
 	}
 
+	@Override
+	public boolean isStateless() {
+		return true;
+	}
+
 	@Override
 	public GatewayFilter apply(Config config) {
 		HttpStatusHolder statusHolder = HttpStatusHolder.parse(config.status);
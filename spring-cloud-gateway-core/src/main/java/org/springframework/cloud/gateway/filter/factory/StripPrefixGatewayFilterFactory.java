@@ -50,6 +50,11 @@ public class StripPrefixGatewayFilterFactory
 		return Arrays.asList(PARTS_KEY);
 	}
 
+	@Override
+	public boolean isStateless() {
+		return true;
+	}
+
 	@Override
 	public GatewayFilter apply(Config config) {
 		return (exchange, chain) -> {
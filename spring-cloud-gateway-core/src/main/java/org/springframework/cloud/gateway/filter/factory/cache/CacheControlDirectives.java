@@ -0,0 +1,139 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.filter.factory.cache;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * The subset of {@code Cache-Control} directives the response cache understands.
+ */
+final class CacheControlDirectives {
+
+	private boolean noStore;
+
+	private boolean noCache;
+
+	private boolean isPrivate;
+
+	private boolean isPublic;
+
+	private boolean mustRevalidate;
+
+	private long maxAge = -1;
+
+	private long sharedMaxAge = -1;
+
+	private long staleWhileRevalidate = -1;
+
+	private CacheControlDirectives() {
+	}
+
+	static CacheControlDirectives parse(String cacheControl) {
+		CacheControlDirectives directives = new CacheControlDirectives();
+		if (!StringUtils.hasText(cacheControl)) {
+			return directives;
+		}
+		for (String directive : StringUtils.tokenizeToStringArray(cacheControl, ",")) {
+			int idx = directive.indexOf('=');
+			String name = (idx < 0 ? directive : directive.substring(0, idx)).trim()
+					.toLowerCase();
+			String value = idx < 0 ? null : directive.substring(idx + 1).trim();
+			switch (name) {
+			case "no-store":
+				directives.noStore = true;
+				break;
+			case "no-cache":
+				directives.noCache = true;
+				break;
+			case "private":
+				directives.isPrivate = true;
+				break;
+			case "public":
+				directives.isPublic = true;
+				break;
+			case "must-revalidate":
+				directives.mustRevalidate = true;
+				break;
+			case "max-age":
+				directives.maxAge = seconds(value);
+				break;
+			case "s-maxage":
+				directives.sharedMaxAge = seconds(value);
+				break;
+			case "stale-while-revalidate":
+				directives.staleWhileRevalidate = seconds(value);
+				break;
+			default:
+				break;
+			}
+		}
+		return directives;
+	}
+
+	private static long seconds(String value) {
+		if (value == null) {
+			return -1;
+		}
+		try {
+			return Long.parseLong(StringUtils.trimTrailingCharacter(
+					StringUtils.trimLeadingCharacter(value, '"'), '"'));
+		}
+		catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	boolean isNoStore() {
+		return noStore;
+	}
+
+	boolean isNoCache() {
+		return noCache;
+	}
+
+	boolean isPrivate() {
+		return isPrivate;
+	}
+
+	boolean isPublic() {
+		return isPublic;
+	}
+
+	boolean isMustRevalidate() {
+		return mustRevalidate;
+	}
+
+	/**
+	 * @return whether an explicit {@code s-maxage} directive was given
+	 */
+	boolean hasSharedMaxAge() {
+		return sharedMaxAge >= 0;
+	}
+
+	/**
+	 * @return the freshness lifetime in seconds for a shared cache, or {@code -1} if
+	 * none was given
+	 */
+	long getSharedMaxAge() {
+		return sharedMaxAge >= 0 ? sharedMaxAge : maxAge;
+	}
+
+	long getStaleWhileRevalidate() {
+		return staleWhileRevalidate;
+	}
+
+}
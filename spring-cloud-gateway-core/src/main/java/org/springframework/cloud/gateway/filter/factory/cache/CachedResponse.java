@@ -0,0 +1,167 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.filter.factory.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+/**
+ * An immutable response stored in the {@link ResponseCache}. The body is either a heap
+ * or a direct buffer depending on the tier the response lives in.
+ */
+final class CachedResponse {
+
+	private final HttpStatus status;
+
+	private final HttpHeaders headers;
+
+	private final ByteBuffer body;
+
+	private final Map<String, List<String>> varyValues;
+
+	private final long createdAt;
+
+	private final long freshFor;
+
+	private final long staleFor;
+
+	private final AtomicBoolean revalidating = new AtomicBoolean();
+
+	CachedResponse(HttpStatus status, HttpHeaders headers, ByteBuffer body,
+			Map<String, List<String>> varyValues, long createdAt, long freshFor,
+			long staleFor) {
+		this.status = status;
+		this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+		this.body = body;
+		this.varyValues = varyValues;
+		this.createdAt = createdAt;
+		this.freshFor = freshFor;
+		this.staleFor = staleFor;
+	}
+
+	/**
+	 * Captures the values of the request headers the response varies on.
+	 * @param responseHeaders the response headers holding {@code Vary}
+	 * @param requestHeaders the headers of the request the response answers
+	 * @return the request header values keyed by header name
+	 */
+	static Map<String, List<String>> varyValues(HttpHeaders responseHeaders,
+			HttpHeaders requestHeaders) {
+		Map<String, List<String>> values = new HashMap<>();
+		for (String name : responseHeaders.getVary()) {
+			List<String> requestValues = requestHeaders.get(name);
+			values.put(name,
+					requestValues == null ? null : new ArrayList<>(requestValues));
+		}
+		return values;
+	}
+
+	HttpStatus getStatus() {
+		return status;
+	}
+
+	HttpHeaders getHeaders() {
+		return headers;
+	}
+
+	String getETag() {
+		return headers.getETag();
+	}
+
+	/**
+	 * @return a view of the body that can be handed to a single response
+	 */
+	ByteBuffer getBody() {
+		return body.duplicate();
+	}
+
+	int size() {
+		return body.remaining();
+	}
+
+	boolean isDirect() {
+		return body.isDirect();
+	}
+
+	boolean isFresh(long now) {
+		return now - createdAt < freshFor;
+	}
+
+	boolean isUsableWhileRevalidating(long now) {
+		return now - createdAt < freshFor + staleFor;
+	}
+
+	long getAgeSeconds(long now) {
+		return Math.max(0, now - createdAt) / 1000;
+	}
+
+	boolean matches(HttpHeaders requestHeaders) {
+		for (Map.Entry<String, List<String>> entry : varyValues.entrySet()) {
+			if (!Objects.equals(entry.getValue(), requestHeaders.get(entry.getKey()))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	boolean startRevalidation() {
+		return revalidating.compareAndSet(false, true);
+	}
+
+	void endRevalidation() {
+		revalidating.set(false);
+	}
+
+	CachedResponse revalidated(HttpHeaders headers, long now, long freshFor,
+			long staleFor) {
+		return new CachedResponse(status, headers, body, varyValues, now, freshFor,
+				staleFor);
+	}
+
+	CachedResponse toHeap() {
+		if (!body.isDirect()) {
+			return this;
+		}
+		byte[] bytes = new byte[size()];
+		getBody().get(bytes);
+		return withBody(ByteBuffer.wrap(bytes));
+	}
+
+	CachedResponse toDirect() {
+		if (body.isDirect()) {
+			return this;
+		}
+		ByteBuffer copy = ByteBuffer.allocateDirect(size());
+		// write through a duplicate so the copy keeps position 0
+		copy.duplicate().put(getBody());
+		return withBody(copy);
+	}
+
+	private CachedResponse withBody(ByteBuffer newBody) {
+		return new CachedResponse(status, headers, newBody, varyValues, createdAt,
+				freshFor, staleFor);
+	}
+
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.filter.factory.cache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded store for cached responses. Responses live in an on-heap tier ordered by
+ * recency; when it is full a TinyLFU sketch decides whether a new response is popular
+ * enough to evict the least recently used ones. Responses that do not make it onto the
+ * heap are demoted to an optional off-heap tier backed by direct buffers, from where
+ * they are promoted back on their next hit.
+ *
+ * To keep concurrent requests from contending on a single lock, keys are spread over
+ * independently locked segments, each holding an equal share of both tiers and its own
+ * sketch. The number of segments is chosen so that every segment can still hold an
+ * entry of the maximum entry size.
+ */
+public class ResponseCache {
+
+	private static final int MAX_SEGMENTS = 16;
+
+	private static final int SKETCH_WIDTH = 1 << 14;
+
+	private final long maxEntrySize;
+
+	private final Segment[] segments;
+
+	private final int segmentMask;
+
+	public ResponseCache(ResponseCacheProperties properties) {
+		this(properties.getMaxHeapSize().toBytes(),
+				properties.getMaxOffHeapSize().toBytes(),
+				properties.getMaxEntrySize().toBytes());
+	}
+
+	public ResponseCache(long maxHeapSize, long maxOffHeapSize, long maxEntrySize) {
+		this.maxEntrySize = maxEntrySize;
+		int count = 1;
+		while (count < MAX_SEGMENTS
+				&& maxHeapSize / (count * 2) >= Math.max(maxEntrySize, 1)) {
+			count *= 2;
+		}
+		this.segments = new Segment[count];
+		for (int i = 0; i < count; i++) {
+			segments[i] = new Segment(maxHeapSize / count, maxOffHeapSize / count,
+					SKETCH_WIDTH / count);
+		}
+		this.segmentMask = count - 1;
+	}
+
+	public long getMaxEntrySize() {
+		return maxEntrySize;
+	}
+
+	CachedResponse get(String key) {
+		return segmentFor(key).get(key);
+	}
+
+	void put(String key, CachedResponse response) {
+		if (response.size() > maxEntrySize) {
+			return;
+		}
+		segmentFor(key).put(key, response);
+	}
+
+	public void invalidate(String key) {
+		segmentFor(key).invalidate(key);
+	}
+
+	public void invalidateAll() {
+		for (Segment segment : segments) {
+			segment.invalidateAll();
+		}
+	}
+
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	public long getHeapSize() {
+		long size = 0;
+		for (Segment segment : segments) {
+			size += segment.heapSize;
+		}
+		return size;
+	}
+
+	public long getOffHeapSize() {
+		long size = 0;
+		for (Segment segment : segments) {
+			size += segment.offHeapSize;
+		}
+		return size;
+	}
+
+	/* for testing */ int getSegmentCount() {
+		return segments.length;
+	}
+
+	private Segment segmentFor(String key) {
+		int h = key.hashCode() * 0x9e3779b9;
+		return segments[(h ^ (h >>> 16)) & segmentMask];
+	}
+
+	/**
+	 * One independently locked share of the cache.
+	 */
+	private static final class Segment {
+
+		private final long maxHeapSize;
+
+		private final long maxOffHeapSize;
+
+		private final FrequencySketch sketch;
+
+		private final LinkedHashMap<String, CachedResponse> heap = new LinkedHashMap<>(
+				16, 0.75f, true);
+
+		private final LinkedHashMap<String, CachedResponse> offHeap = new LinkedHashMap<>(
+				16, 0.75f, true);
+
+		private volatile long heapSize;
+
+		private volatile long offHeapSize;
+
+		Segment(long maxHeapSize, long maxOffHeapSize, int sketchWidth) {
+			this.maxHeapSize = maxHeapSize;
+			this.maxOffHeapSize = maxOffHeapSize;
+			this.sketch = new FrequencySketch(sketchWidth);
+		}
+
+		synchronized CachedResponse get(String key) {
+			sketch.increment(key);
+			CachedResponse response = heap.get(key);
+			if (response == null) {
+				response = offHeap.remove(key);
+				if (response != null) {
+					offHeapSize -= response.size();
+					response = response.toHeap();
+					admit(key, response);
+				}
+			}
+			return response;
+		}
+
+		synchronized void put(String key, CachedResponse response) {
+			sketch.increment(key);
+			remove(key);
+			admit(key, response.toHeap());
+		}
+
+		synchronized void invalidate(String key) {
+			remove(key);
+		}
+
+		synchronized void invalidateAll() {
+			heap.clear();
+			offHeap.clear();
+			heapSize = 0;
+			offHeapSize = 0;
+		}
+
+		synchronized int size() {
+			return heap.size() + offHeap.size();
+		}
+
+		private void remove(String key) {
+			CachedResponse removed = heap.remove(key);
+			if (removed != null) {
+				heapSize -= removed.size();
+			}
+			removed = offHeap.remove(key);
+			if (removed != null) {
+				offHeapSize -= removed.size();
+			}
+		}
+
+		private void admit(String key, CachedResponse candidate) {
+			int size = candidate.size();
+			if (size > maxHeapSize) {
+				demote(key, candidate);
+				return;
+			}
+			// pick the victims first, so nothing is evicted for a rejected candidate
+			int candidateFrequency = sketch.frequency(key);
+			List<Map.Entry<String, CachedResponse>> victims = new ArrayList<>();
+			long freed = 0;
+			Iterator<Map.Entry<String, CachedResponse>> entries = heap.entrySet()
+					.iterator();
+			while (heapSize - freed + size > maxHeapSize && entries.hasNext()) {
+				Map.Entry<String, CachedResponse> victim = entries.next();
+				// ties favour the candidate, so recently seen keys can enter a full
+				// cache
+				if (sketch.frequency(victim.getKey()) > candidateFrequency) {
+					demote(key, candidate);
+					return;
+				}
+				victims.add(victim);
+				freed += victim.getValue().size();
+			}
+			for (Map.Entry<String, CachedResponse> victim : victims) {
+				heap.remove(victim.getKey());
+				demote(victim.getKey(), victim.getValue());
+			}
+			heap.put(key, candidate);
+			heapSize += size - freed;
+		}
+
+		private void demote(String key, CachedResponse response) {
+			int size = response.size();
+			if (size > maxOffHeapSize) {
+				return;
+			}
+			Iterator<CachedResponse> victims = offHeap.values().iterator();
+			while (offHeapSize + size > maxOffHeapSize && victims.hasNext()) {
+				offHeapSize -= victims.next().size();
+				victims.remove();
+			}
+			offHeap.put(key, response.toDirect());
+			offHeapSize += size;
+		}
+
+	}
+
+}
@@ -0,0 +1,519 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.filter.factory.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Caches cacheable {@code GET} responses in a {@link ResponseCache} and serves them
+ * without routing the request. Freshness comes from the {@code Cache-Control}
+ * ({@code s-maxage}, {@code max-age}) or {@code Expires} response headers, responses
+ * are stored per {@code Vary} request header values and conditional requests are
+ * answered with {@code 304 Not Modified} when the {@code ETag} or
+ * {@code Last-Modified} validators match. A stale response is still served during its
+ * {@code stale-while-revalidate} window while a conditional request refreshes it in
+ * the background.
+ */
+public class ResponseCacheGatewayFilterFactory extends
+		AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+	private static final Log log = LogFactory
+			.getLog(ResponseCacheGatewayFilterFactory.class);
+
+	private final ResponseCache cache;
+
+	private final Clock clock;
+
+	public ResponseCacheGatewayFilterFactory(ResponseCache cache) {
+		this(cache, Clock.systemUTC());
+	}
+
+	public ResponseCacheGatewayFilterFactory(ResponseCache cache, Clock clock) {
+		super(Config.class);
+		this.cache = cache;
+		this.clock = clock;
+	}
+
+	@Override
+	public GatewayFilter apply(Config config) {
+		return new ResponseCacheGatewayFilter(config);
+	}
+
+	public static class Config {
+
+		private Duration timeToLive;
+
+		private Duration staleWhileRevalidate = Duration.ZERO;
+
+		public Duration getTimeToLive() {
+			return timeToLive;
+		}
+
+		/**
+		 * @param timeToLive how long responses without explicit freshness information
+		 * are considered fresh, by default they are not cached
+		 * @return the config
+		 */
+		public Config setTimeToLive(Duration timeToLive) {
+			this.timeToLive = timeToLive;
+			return this;
+		}
+
+		public Duration getStaleWhileRevalidate() {
+			return staleWhileRevalidate;
+		}
+
+		/**
+		 * @param staleWhileRevalidate how long a stale response may be served while it
+		 * is revalidated, unless the response says otherwise
+		 * @return the config
+		 */
+		public Config setStaleWhileRevalidate(Duration staleWhileRevalidate) {
+			this.staleWhileRevalidate = staleWhileRevalidate;
+			return this;
+		}
+
+	}
+
+	public class ResponseCacheGatewayFilter implements GatewayFilter, Ordered {
+
+		private final Config config;
+
+		public ResponseCacheGatewayFilter(Config config) {
+			this.config = config;
+		}
+
+		@Override
+		public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+			ServerHttpRequest request = exchange.getRequest();
+			if (request.getMethod() != HttpMethod.GET) {
+				return chain.filter(exchange);
+			}
+			CacheControlDirectives directives = CacheControlDirectives
+					.parse(request.getHeaders().getCacheControl());
+			if (directives.isNoStore()) {
+				return chain.filter(exchange);
+			}
+
+			String key = key(exchange);
+			CachedResponse cached = directives.isNoCache() ? null : cache.get(key);
+			if (cached != null && cached.matches(request.getHeaders())) {
+				long now = clock.millis();
+				if (cached.isFresh(now)) {
+					return serve(exchange, cached, now);
+				}
+				if (cached.isUsableWhileRevalidating(now)) {
+					if (cached.startRevalidation()) {
+						revalidate(exchange, chain, key, cached);
+					}
+					return serve(exchange, cached, now);
+				}
+			}
+
+			return chain.filter(exchange.mutate()
+					.response(new CachingServerHttpResponse(exchange, key, config))
+					.build());
+		}
+
+		private void revalidate(ServerWebExchange exchange, GatewayFilterChain chain,
+				String key, CachedResponse cached) {
+			long lastModified = cached.getHeaders().getLastModified();
+			ServerHttpRequest request = exchange.getRequest().mutate()
+					.headers(headers -> {
+						headers.remove(HttpHeaders.IF_NONE_MATCH);
+						headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+						if (cached.getETag() != null) {
+							headers.setIfNoneMatch(cached.getETag());
+						}
+						else if (lastModified >= 0) {
+							headers.setIfModifiedSince(lastModified);
+						}
+					}).build();
+			DetachedServerHttpResponse response = new DetachedServerHttpResponse(
+					exchange.getResponse(), detached -> {
+						long now = clock.millis();
+						if (detached.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+							refresh(key, cached, detached.getHeaders(),
+									exchange.getRequest().getHeaders(), now);
+						}
+						else {
+							store(key, detached.getStatusCode(), detached.getHeaders(),
+									detached.body, exchange.getRequest().getHeaders(),
+									now, config);
+						}
+					});
+			chain.filter(exchange.mutate().request(request).response(response).build())
+					.doFinally(signalType -> cached.endRevalidation())
+					.subscribe(null, t -> {
+						if (log.isDebugEnabled()) {
+							log.debug("Unable to revalidate cached response " + key, t);
+						}
+					});
+		}
+
+		private void refresh(String key, CachedResponse cached,
+				HttpHeaders notModifiedHeaders, HttpHeaders requestHeaders, long now) {
+			HttpHeaders headers = copy(cached.getHeaders());
+			notModifiedHeaders.forEach((name, values) -> {
+				if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)
+						&& !HttpHeaders.TRANSFER_ENCODING.equalsIgnoreCase(name)) {
+					headers.put(name, new ArrayList<>(values));
+				}
+			});
+			long[] lifetime = lifetime(HttpStatus.OK, headers, requestHeaders, now,
+					config);
+			if (lifetime == null) {
+				cache.invalidate(key);
+			}
+			else {
+				cache.put(key, cached.revalidated(headers, now, lifetime[0],
+						lifetime[1]));
+			}
+		}
+
+		@Override
+		public int getOrder() {
+			return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+		}
+
+	}
+
+	String key(ServerWebExchange exchange) {
+		Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+		String routeId = route != null ? route.getId() : "";
+		return routeId + " " + exchange.getRequest().getURI();
+	}
+
+	Mono<Void> serve(ServerWebExchange exchange, CachedResponse cached, long now) {
+		ServerHttpResponse response = exchange.getResponse();
+		HttpHeaders headers = response.getHeaders();
+		cached.getHeaders()
+				.forEach((name, values) -> headers.put(name, new ArrayList<>(values)));
+		headers.set(HttpHeaders.AGE, Long.toString(cached.getAgeSeconds(now)));
+
+		if (isNotModified(exchange.getRequest().getHeaders(), cached)) {
+			response.setStatusCode(HttpStatus.NOT_MODIFIED);
+			headers.remove(HttpHeaders.CONTENT_LENGTH);
+			return response.setComplete();
+		}
+
+		response.setStatusCode(cached.getStatus());
+		return response.writeWith(
+				Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.getBody())));
+	}
+
+	private boolean isNotModified(HttpHeaders requestHeaders, CachedResponse cached) {
+		List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+		if (!ifNoneMatch.isEmpty()) {
+			String etag = cached.getETag();
+			if (etag == null) {
+				return false;
+			}
+			for (String candidate : ifNoneMatch) {
+				if ("*".equals(candidate) || weak(candidate).equals(weak(etag))) {
+					return true;
+				}
+			}
+			return false;
+		}
+		long ifModifiedSince = requestHeaders.getIfModifiedSince();
+		long lastModified = cached.getHeaders().getLastModified();
+		return ifModifiedSince >= 0 && lastModified >= 0
+				&& lastModified / 1000 <= ifModifiedSince / 1000;
+	}
+
+	private static String weak(String etag) {
+		return etag.startsWith("W/") ? etag.substring(2) : etag;
+	}
+
+	/**
+	 * Computes how long a response stays fresh and how long it may then be served
+	 * while being revalidated. Responses to requests with an {@code Authorization}
+	 * header are only cached when the response explicitly allows it (RFC 7234, section
+	 * 3.2), and responses to requests with a {@code Cookie} header only when they vary
+	 * on it.
+	 * @return the two lifetimes in milliseconds, or {@code null} if the response must
+	 * not be cached
+	 */
+	long[] lifetime(HttpStatus status, HttpHeaders headers, HttpHeaders requestHeaders,
+			long now, Config config) {
+		List<String> vary = headers.getVary();
+		if (status != HttpStatus.OK || headers.containsKey(HttpHeaders.SET_COOKIE)
+				|| vary.contains("*")) {
+			return null;
+		}
+		CacheControlDirectives directives = CacheControlDirectives
+				.parse(headers.getCacheControl());
+		if (directives.isNoStore() || directives.isNoCache() || directives.isPrivate()) {
+			return null;
+		}
+		if (requestHeaders.containsKey(HttpHeaders.AUTHORIZATION)
+				&& !directives.isPublic() && !directives.hasSharedMaxAge()
+				&& !directives.isMustRevalidate()) {
+			return null;
+		}
+		if (requestHeaders.containsKey(HttpHeaders.COOKIE) && vary.stream()
+				.noneMatch(name -> HttpHeaders.COOKIE.equalsIgnoreCase(name))) {
+			return null;
+		}
+		long freshFor;
+		long expires = headers.getExpires();
+		if (directives.getSharedMaxAge() >= 0) {
+			freshFor = directives.getSharedMaxAge() * 1000;
+		}
+		else if (expires >= 0) {
+			freshFor = expires - now;
+		}
+		else if (config.getTimeToLive() != null) {
+			freshFor = config.getTimeToLive().toMillis();
+		}
+		else {
+			return null;
+		}
+		long staleFor = directives.getStaleWhileRevalidate() >= 0
+				? directives.getStaleWhileRevalidate() * 1000
+				: config.getStaleWhileRevalidate().toMillis();
+		if (freshFor <= 0 && staleFor <= 0) {
+			return null;
+		}
+		return new long[] { freshFor, staleFor };
+	}
+
+	void store(String key, HttpStatus status, HttpHeaders responseHeaders, byte[] body,
+			HttpHeaders requestHeaders, long now, Config config) {
+		long[] lifetime = lifetime(status, responseHeaders, requestHeaders, now,
+				config);
+		if (lifetime == null || body == null) {
+			cache.invalidate(key);
+			return;
+		}
+		HttpHeaders headers = copy(responseHeaders);
+		headers.remove(HttpHeaders.TRANSFER_ENCODING);
+		headers.remove(HttpHeaders.CONNECTION);
+		headers.remove(HttpHeaders.AGE);
+		headers.setContentLength(body.length);
+		cache.put(key,
+				new CachedResponse(status, headers, ByteBuffer.wrap(body),
+						CachedResponse.varyValues(responseHeaders, requestHeaders), now,
+						lifetime[0], lifetime[1]));
+	}
+
+	private static HttpHeaders copy(HttpHeaders source) {
+		HttpHeaders copy = new HttpHeaders();
+		source.forEach((name, values) -> copy.put(name, new ArrayList<>(values)));
+		return copy;
+	}
+
+	/**
+	 * Copies the body into memory while it is written to the client, and stores it once
+	 * it completes, if the response is cacheable and not larger than the maximum entry
+	 * size.
+	 */
+	class CachingServerHttpResponse extends ServerHttpResponseDecorator {
+
+		private final ServerWebExchange exchange;
+
+		private final String key;
+
+		private final Config config;
+
+		CachingServerHttpResponse(ServerWebExchange exchange, String key,
+				Config config) {
+			super(exchange.getResponse());
+			this.exchange = exchange;
+			this.key = key;
+			this.config = config;
+		}
+
+		@Override
+		public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+			long now = clock.millis();
+			HttpHeaders requestHeaders = exchange.getRequest().getHeaders();
+			if (lifetime(getStatusCode(), getHeaders(), requestHeaders, now,
+					config) == null
+					|| getHeaders().getContentLength() > cache.getMaxEntrySize()) {
+				return getDelegate().writeWith(body);
+			}
+			BodyCapture capture = new BodyCapture(cache.getMaxEntrySize());
+			HttpStatus status = getStatusCode();
+			return getDelegate().writeWith(Flux.from(body).doOnNext(capture::append)
+					.doOnComplete(() -> store(key, status, getHeaders(),
+							capture.toByteArray(), requestHeaders, now, config)));
+		}
+
+	}
+
+	/**
+	 * A response used to revalidate a cached response in the background. Status,
+	 * headers and body are kept to itself and handed to a callback once complete,
+	 * nothing reaches the client.
+	 */
+	static class DetachedServerHttpResponse extends ServerHttpResponseDecorator {
+
+		private final HttpHeaders headers = new HttpHeaders();
+
+		private final MultiValueMap<String, ResponseCookie> cookies;
+
+		private final Consumer<DetachedServerHttpResponse> onComplete;
+
+		private HttpStatus status;
+
+		private byte[] body;
+
+		private volatile boolean committed;
+
+		DetachedServerHttpResponse(ServerHttpResponse delegate,
+				Consumer<DetachedServerHttpResponse> onComplete) {
+			super(delegate);
+			this.cookies = new LinkedMultiValueMap<>();
+			this.onComplete = onComplete;
+		}
+
+		@Override
+		public boolean setStatusCode(HttpStatus status) {
+			this.status = status;
+			return true;
+		}
+
+		@Override
+		public HttpStatus getStatusCode() {
+			return status;
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return headers;
+		}
+
+		@Override
+		public MultiValueMap<String, ResponseCookie> getCookies() {
+			return cookies;
+		}
+
+		@Override
+		public void addCookie(ResponseCookie cookie) {
+			cookies.add(cookie.getName(), cookie);
+		}
+
+		@Override
+		public void beforeCommit(Supplier<? extends Mono<Void>> action) {
+		}
+
+		@Override
+		public boolean isCommitted() {
+			return committed;
+		}
+
+		@Override
+		public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+			committed = true;
+			return DataBufferUtils.join(body).map(joined -> {
+				byte[] bytes = new byte[joined.readableByteCount()];
+				joined.read(bytes);
+				DataBufferUtils.release(joined);
+				return bytes;
+			}).defaultIfEmpty(new byte[0]).doOnNext(bytes -> {
+				this.body = bytes;
+				onComplete.accept(this);
+			}).then();
+		}
+
+		@Override
+		public Mono<Void> writeAndFlushWith(
+				Publisher<? extends Publisher<? extends DataBuffer>> body) {
+			return writeWith(Flux.from(body).flatMapSequential(p -> p));
+		}
+
+		@Override
+		public Mono<Void> setComplete() {
+			if (committed) {
+				return Mono.empty();
+			}
+			committed = true;
+			return Mono.fromRunnable(() -> onComplete.accept(this));
+		}
+
+	}
+
+	/**
+	 * Accumulates a copy of the body, giving up once it grows past the limit.
+	 */
+	static class BodyCapture {
+
+		private final long limit;
+
+		private ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		BodyCapture(long limit) {
+			this.limit = limit;
+		}
+
+		void append(DataBuffer buffer) {
+			if (out == null) {
+				return;
+			}
+			if (out.size() + buffer.readableByteCount() > limit) {
+				out = null;
+				return;
+			}
+			ByteBuffer readable = buffer.asByteBuffer();
+			byte[] bytes = new byte[readable.remaining()];
+			readable.get(bytes);
+			out.write(bytes, 0, bytes.length);
+		}
+
+		byte[] toByteArray() {
+			return out != null ? out.toByteArray() : null;
+		}
+
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.filter.factory.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.style.ToStringCreator;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties("spring.cloud.gateway.filter.response-cache")
+public class ResponseCacheProperties {
+
+	/**
+	 * Maximum total size of the response bodies kept on the heap.
+	 */
+	private DataSize maxHeapSize = DataSize.ofMegabytes(64);
+
+	/**
+	 * Maximum total size of the response bodies kept in direct memory once evicted
+	 * from the heap. Zero disables the off-heap tier.
+	 */
+	private DataSize maxOffHeapSize = DataSize.ofBytes(0);
+
+	/**
+	 * Maximum size of a single response body, larger responses are not cached.
+	 */
+	private DataSize maxEntrySize = DataSize.ofMegabytes(1);
+
+	public DataSize getMaxHeapSize() {
+		return maxHeapSize;
+	}
+
+	public void setMaxHeapSize(DataSize maxHeapSize) {
+		this.maxHeapSize = maxHeapSize;
+	}
+
+	public DataSize getMaxOffHeapSize() {
+		return maxOffHeapSize;
+	}
+
+	public void setMaxOffHeapSize(DataSize maxOffHeapSize) {
+		this.maxOffHeapSize = maxOffHeapSize;
+	}
+
+	public DataSize getMaxEntrySize() {
+		return maxEntrySize;
+	}
+
+	public void setMaxEntrySize(DataSize maxEntrySize) {
+		this.maxEntrySize = maxEntrySize;
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringCreator(this).append("maxHeapSize", maxHeapSize)
+				.append("maxOffHeapSize", maxOffHeapSize)
+				.append("maxEntrySize", maxEntrySize).toString();
+	}
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.filter.factory.compression;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Pool of reusable {@link Deflater} instances. Creating a deflater allocates native
+ * memory and its internal window, so compressing every response with a new one is
+ * costly. Deflaters are reset when released; those exceeding the number of idle
+ * instances kept are ended right away instead of waiting for finalization.
+ */
+final class DeflaterPool {
+
+	private final int level;
+
+	private final BlockingQueue<Deflater> raw;
+
+	private final BlockingQueue<Deflater> zlib;
+
+	DeflaterPool(int level, int maxIdle) {
+		this.level = level;
+		this.raw = new ArrayBlockingQueue<>(maxIdle);
+		this.zlib = new ArrayBlockingQueue<>(maxIdle);
+	}
+
+	/**
+	 * @param nowrap {@code true} for raw deflate output, as framed by gzip, or
+	 * {@code false} for zlib framed output, as used by the deflate encoding
+	 * @return an idle deflater or a new one
+	 */
+	Deflater borrow(boolean nowrap) {
+		Deflater deflater = queue(nowrap).poll();
+		return deflater != null ? deflater : new Deflater(level, nowrap);
+	}
+
+	void release(Deflater deflater, boolean nowrap) {
+		deflater.reset();
+		if (!queue(nowrap).offer(deflater)) {
+			deflater.end();
+		}
+	}
+
+	int idle() {
+		return raw.size() + zlib.size();
+	}
+
+	private BlockingQueue<Deflater> queue(boolean nowrap) {
+		return nowrap ? raw : zlib;
+	}
+
+}
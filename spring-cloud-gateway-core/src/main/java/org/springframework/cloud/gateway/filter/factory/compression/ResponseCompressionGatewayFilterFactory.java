@@ -0,0 +1,335 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.filter.factory.compression;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.Deflater;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.SynchronousSink;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * Compresses response bodies with the gzip or deflate encoding negotiated from the
+ * {@code Accept-Encoding} request header. Bodies are compressed chunk by chunk as they
+ * are received from the downstream service, using deflaters pooled per compression
+ * level. Responses that are small, already encoded or of a media type that is not
+ * configured, which excludes media types that are compressed already, are written
+ * unchanged. Each chunk written with
+ * {@link ServerHttpResponse#writeAndFlushWith(Publisher)}, as done for streaming media
+ * types, is flushed through the compressor so clients receive it right away.
+ */
+public class ResponseCompressionGatewayFilterFactory extends
+		AbstractGatewayFilterFactory<ResponseCompressionGatewayFilterFactory.Config> {
+
+	/**
+	 * Min response size key.
+	 */
+	public static final String MIN_RESPONSE_SIZE_KEY = "minResponseSize";
+
+	/**
+	 * Gzip content coding.
+	 */
+	public static final String GZIP = "gzip";
+
+	/**
+	 * Deflate content coding.
+	 */
+	public static final String DEFLATE = "deflate";
+
+	private static final int MAX_IDLE_DEFLATERS = Runtime.getRuntime()
+			.availableProcessors() * 4;
+
+	private final ConcurrentMap<Integer, DeflaterPool> pools = new ConcurrentHashMap<>();
+
+	public ResponseCompressionGatewayFilterFactory() {
+		super(Config.class);
+	}
+
+	/**
+	 * Selects the content coding to use for a request.
+	 * @param acceptEncoding the values of the {@code Accept-Encoding} request header
+	 * @return {@link #GZIP}, {@link #DEFLATE} or {@code null} if the client accepts
+	 * neither
+	 */
+	public static String negotiate(List<String> acceptEncoding) {
+		double gzip = -1;
+		double deflate = -1;
+		double any = -1;
+		for (String header : acceptEncoding) {
+			for (String coding : StringUtils.tokenizeToStringArray(header, ",")) {
+				String[] parts = StringUtils.tokenizeToStringArray(coding, ";");
+				if (parts.length == 0) {
+					continue;
+				}
+				double quality = quality(parts);
+				String name = parts[0].toLowerCase(Locale.ROOT);
+				if (name.equals(GZIP) || name.equals("x-gzip")) {
+					gzip = quality;
+				}
+				else if (name.equals(DEFLATE)) {
+					deflate = quality;
+				}
+				else if (name.equals("*")) {
+					any = quality;
+				}
+			}
+		}
+		gzip = gzip < 0 ? any : gzip;
+		deflate = deflate < 0 ? any : deflate;
+		if (gzip > 0 && gzip >= deflate) {
+			return GZIP;
+		}
+		return deflate > 0 ? DEFLATE : null;
+	}
+
+	private static double quality(String[] parts) {
+		for (int i = 1; i < parts.length; i++) {
+			if (parts[i].startsWith("q=")) {
+				try {
+					return Double.parseDouble(parts[i].substring(2));
+				}
+				catch (NumberFormatException e) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+
+	@Override
+	public List<String> shortcutFieldOrder() {
+		return Collections.singletonList(MIN_RESPONSE_SIZE_KEY);
+	}
+
+	@Override
+	public GatewayFilter apply(Config config) {
+		DeflaterPool pool = pools.computeIfAbsent(config.getCompressionLevel(),
+				level -> new DeflaterPool(level, MAX_IDLE_DEFLATERS));
+		return new ResponseCompressionGatewayFilter(config, pool);
+	}
+
+	public static class Config {
+
+		private int minResponseSize = 2048;
+
+		private List<String> mimeTypes = Arrays.asList("text/html", "text/xml",
+				"text/plain", "text/css", "text/javascript", "application/javascript",
+				"application/json", "application/xml");
+
+		private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+		public int getMinResponseSize() {
+			return minResponseSize;
+		}
+
+		public Config setMinResponseSize(int minResponseSize) {
+			this.minResponseSize = minResponseSize;
+			return this;
+		}
+
+		public List<String> getMimeTypes() {
+			return mimeTypes;
+		}
+
+		public Config setMimeTypes(List<String> mimeTypes) {
+			this.mimeTypes = mimeTypes;
+			return this;
+		}
+
+		public int getCompressionLevel() {
+			return compressionLevel;
+		}
+
+		public Config setCompressionLevel(int compressionLevel) {
+			this.compressionLevel = compressionLevel;
+			return this;
+		}
+
+	}
+
+	public static class ResponseCompressionGatewayFilter
+			implements GatewayFilter, Ordered {
+
+		private final Config config;
+
+		private final DeflaterPool pool;
+
+		private final List<MediaType> mimeTypes;
+
+		ResponseCompressionGatewayFilter(Config config, DeflaterPool pool) {
+			this.config = config;
+			this.pool = pool;
+			this.mimeTypes = MediaType.parseMediaTypes(config.getMimeTypes());
+		}
+
+		@Override
+		public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+			if (exchange.getRequest().getMethod() == HttpMethod.HEAD) {
+				return chain.filter(exchange);
+			}
+			List<String> acceptEncoding = exchange.getRequest().getHeaders()
+					.get(HttpHeaders.ACCEPT_ENCODING);
+			String encoding = acceptEncoding == null ? null : negotiate(acceptEncoding);
+			if (encoding == null) {
+				return chain.filter(exchange);
+			}
+			return chain.filter(exchange.mutate()
+					.response(decorate(exchange.getResponse(), encoding)).build());
+		}
+
+		ServerHttpResponse decorate(ServerHttpResponse response, String encoding) {
+			return new ServerHttpResponseDecorator(response) {
+
+				@Override
+				public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+					if (!shouldCompress(getDelegate())) {
+						return super.writeWith(body);
+					}
+					prepareHeaders();
+					Flux<DataBuffer> compressed = Flux.defer(() -> {
+						ResponseCompressor compressor = new ResponseCompressor(pool,
+								encoding);
+						return Flux.from(body)
+								.<DataBuffer>handle((buffer, sink) -> emit(
+										compressor.compress(read(buffer), false), sink))
+								.concatWith(Mono.fromSupplier(
+										() -> bufferFactory().wrap(compressor.finish())))
+								.doFinally(signalType -> compressor.release());
+					});
+					return super.writeWith(compressed);
+				}
+
+				@Override
+				public Mono<Void> writeAndFlushWith(
+						Publisher<? extends Publisher<? extends DataBuffer>> body) {
+					if (!shouldCompress(getDelegate())) {
+						return super.writeAndFlushWith(body);
+					}
+					prepareHeaders();
+					Flux<Flux<DataBuffer>> compressed = Flux.defer(() -> {
+						ResponseCompressor compressor = new ResponseCompressor(pool,
+								encoding);
+						// chunks are compressed in order before their group is emitted,
+						// whenever the groups themselves are subscribed, and the body
+						// is only finished by a last group following all of them
+						Flux<DataBuffer> finish = Mono
+								.fromSupplier(() -> bufferFactory()
+										.wrap(compressor.finish()))
+								.flux().doFinally(signalType -> compressor.release());
+						return Flux.from(body)
+								.concatMap(chunk -> Flux.from(chunk)
+										.map(buffer -> compressor.compress(read(buffer),
+												true))
+										.filter(bytes -> bytes.length > 0).collectList())
+								.map(chunk -> Flux.fromIterable(chunk)
+										.map(bytes -> bufferFactory().wrap(bytes)))
+								.concatWith(Mono.just(finish))
+								.doFinally(signalType -> {
+									if (signalType != SignalType.ON_COMPLETE) {
+										compressor.release();
+									}
+								});
+					});
+					return super.writeAndFlushWith(compressed);
+				}
+
+				private void prepareHeaders() {
+					HttpHeaders headers = getHeaders();
+					headers.remove(HttpHeaders.CONTENT_LENGTH);
+					headers.set(HttpHeaders.CONTENT_ENCODING, encoding);
+					headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+				}
+
+				private void emit(byte[] bytes, SynchronousSink<DataBuffer> sink) {
+					if (bytes.length > 0) {
+						sink.next(bufferFactory().wrap(bytes));
+					}
+				}
+			};
+		}
+
+		boolean shouldCompress(ServerHttpResponse response) {
+			HttpStatus status = response.getStatusCode();
+			if (status == HttpStatus.NO_CONTENT || status == HttpStatus.NOT_MODIFIED
+					|| status == HttpStatus.PARTIAL_CONTENT) {
+				return false;
+			}
+			HttpHeaders headers = response.getHeaders();
+			String cacheControl = headers.getCacheControl();
+			if (headers.containsKey(HttpHeaders.CONTENT_ENCODING)
+					|| headers.containsKey(HttpHeaders.CONTENT_RANGE)
+					|| (cacheControl != null && cacheControl.contains("no-transform"))) {
+				return false;
+			}
+			long contentLength = headers.getContentLength();
+			if (contentLength >= 0 && contentLength < config.getMinResponseSize()) {
+				return false;
+			}
+			MediaType contentType = contentType(headers);
+			return contentType != null && mimeTypes.stream()
+					.anyMatch(mimeType -> mimeType.isCompatibleWith(contentType));
+		}
+
+		private static MediaType contentType(HttpHeaders headers) {
+			try {
+				return headers.getContentType();
+			}
+			catch (InvalidMediaTypeException e) {
+				return null;
+			}
+		}
+
+		private static byte[] read(DataBuffer buffer) {
+			byte[] bytes = new byte[buffer.readableByteCount()];
+			buffer.read(bytes);
+			DataBufferUtils.release(buffer);
+			return bytes;
+		}
+
+		@Override
+		public int getOrder() {
+			return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+		}
+
+	}
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.filter.factory.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses the body of a single response chunk by chunk with a pooled
+ * {@link Deflater}, writing the gzip header and trailer itself when the gzip encoding
+ * is used. The deflater is returned to the pool once the body is finished or the
+ * compressor is released, after which further chunks are dropped.
+ */
+final class ResponseCompressor {
+
+	private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0,
+			0, 0, 0, 0, 0, 0 };
+
+	private static final byte[] EMPTY = new byte[0];
+
+	private final DeflaterPool pool;
+
+	private final boolean gzip;
+
+	private final byte[] buffer = new byte[8192];
+
+	private final CRC32 crc;
+
+	private Deflater deflater;
+
+	private boolean headerWritten;
+
+	ResponseCompressor(DeflaterPool pool, String encoding) {
+		this.pool = pool;
+		this.gzip = ResponseCompressionGatewayFilterFactory.GZIP.equals(encoding);
+		this.crc = gzip ? new CRC32() : null;
+		this.deflater = pool.borrow(gzip);
+	}
+
+	/**
+	 * @param input the uncompressed chunk
+	 * @param flush whether all input so far must be decodable from the returned bytes,
+	 * needed for streaming responses at the expense of compression ratio
+	 * @return the compressed bytes available so far, possibly empty
+	 */
+	synchronized byte[] compress(byte[] input, boolean flush) {
+		if (deflater == null) {
+			return EMPTY;
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream(
+				flush ? input.length + 64 : input.length / 4 + 16);
+		writeHeader(out);
+		if (gzip) {
+			crc.update(input, 0, input.length);
+		}
+		deflater.setInput(input);
+		while (!deflater.needsInput()) {
+			drain(out, Deflater.NO_FLUSH);
+		}
+		if (flush) {
+			int count;
+			do {
+				count = drain(out, Deflater.SYNC_FLUSH);
+			}
+			while (count == buffer.length);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Finishes the compressed body and returns the deflater to the pool.
+	 * @return the remaining compressed bytes and trailer
+	 */
+	synchronized byte[] finish() {
+		if (deflater == null) {
+			return EMPTY;
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+		writeHeader(out);
+		deflater.finish();
+		while (!deflater.finished()) {
+			drain(out, Deflater.NO_FLUSH);
+		}
+		if (gzip) {
+			writeInt(out, (int) crc.getValue());
+			writeInt(out, (int) deflater.getBytesRead());
+		}
+		release();
+		return out.toByteArray();
+	}
+
+	/**
+	 * Returns the deflater to the pool, if not done already.
+	 */
+	synchronized void release() {
+		if (deflater != null) {
+			pool.release(deflater, gzip);
+			deflater = null;
+		}
+	}
+
+	private int drain(ByteArrayOutputStream out, int flush) {
+		int count = deflater.deflate(buffer, 0, buffer.length, flush);
+		out.write(buffer, 0, count);
+		return count;
+	}
+
+	private void writeHeader(ByteArrayOutputStream out) {
+		if (gzip && !headerWritten) {
+			out.write(GZIP_HEADER, 0, GZIP_HEADER.length);
+			headerWritten = true;
+		}
+	}
+
+	private static void writeInt(ByteArrayOutputStream out, int value) {
+		// gzip trailer fields are little endian
+		out.write(value & 0xff);
+		out.write((value >> 8) & 0xff);
+		out.write((value >> 16) & 0xff);
+		out.write((value >> 24) & 0xff);
+	}
+
+}
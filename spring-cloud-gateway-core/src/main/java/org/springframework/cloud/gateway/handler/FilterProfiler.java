@@ -0,0 +1,173 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.handler;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the time spent in each gateway filter for a sample of the requests handled
+ * by the {@link FilteringWebHandler}. The pre time of a filter runs from its invocation
+ * until it invokes the rest of the chain, its post time from the completion of the
+ * rest of the chain until its own completion. When the JVM supports it, the bytes
+ * allocated by the thread running the pre phase are recorded as well.
+ */
+public class FilterProfiler {
+
+	private final double sampleRate;
+
+	private final ConcurrentMap<String, FilterStatistics> statistics;
+
+	private final com.sun.management.ThreadMXBean threadMXBean;
+
+	public FilterProfiler(double sampleRate) {
+		this.sampleRate = sampleRate;
+		this.statistics = new ConcurrentHashMap<>();
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean
+				&& ((com.sun.management.ThreadMXBean) bean)
+						.isThreadAllocatedMemorySupported()
+				&& ((com.sun.management.ThreadMXBean) bean)
+						.isThreadAllocatedMemoryEnabled()) {
+			this.threadMXBean = (com.sun.management.ThreadMXBean) bean;
+		}
+		else {
+			this.threadMXBean = null;
+		}
+	}
+
+	/**
+	 * @return whether the current request should be profiled
+	 */
+	public boolean sample() {
+		return sampleRate >= 1 || (sampleRate > 0
+				&& ThreadLocalRandom.current().nextDouble() < sampleRate);
+	}
+
+	/**
+	 * @return the bytes allocated so far by the current thread, or -1 if unsupported
+	 */
+	long allocatedBytes() {
+		return threadMXBean != null
+				? threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId())
+				: -1;
+	}
+
+	void recordPre(String name, int order, long nanos, long allocatedBytes) {
+		FilterStatistics filterStatistics = statistics(name, order);
+		filterStatistics.count.increment();
+		filterStatistics.preNanos.add(nanos);
+		filterStatistics.maxPreNanos.accumulate(nanos);
+		if (allocatedBytes >= 0) {
+			filterStatistics.preAllocatedBytes.add(allocatedBytes);
+		}
+	}
+
+	void recordPost(String name, int order, long nanos) {
+		FilterStatistics filterStatistics = statistics(name, order);
+		filterStatistics.postNanos.add(nanos);
+		filterStatistics.maxPostNanos.accumulate(nanos);
+	}
+
+	private FilterStatistics statistics(String name, int order) {
+		String key = name + "@" + order;
+		FilterStatistics filterStatistics = statistics.get(key);
+		if (filterStatistics == null) {
+			filterStatistics = statistics.computeIfAbsent(key,
+					k -> new FilterStatistics(name, order));
+		}
+		return filterStatistics;
+	}
+
+	/**
+	 * @return the statistics of each profiled filter, the most costly first
+	 */
+	public List<Map<String, Object>> getStatistics() {
+		List<FilterStatistics> values = new ArrayList<>(statistics.values());
+		values.sort(Comparator.comparingLong(FilterStatistics::totalNanos).reversed());
+		List<Map<String, Object>> result = new ArrayList<>();
+		for (FilterStatistics value : values) {
+			result.add(value.toMap(threadMXBean != null));
+		}
+		return result;
+	}
+
+	public void reset() {
+		statistics.clear();
+	}
+
+	private static final class FilterStatistics {
+
+		private final String name;
+
+		private final int order;
+
+		private final LongAdder count = new LongAdder();
+
+		private final LongAdder preNanos = new LongAdder();
+
+		private final LongAdder postNanos = new LongAdder();
+
+		private final LongAccumulator maxPreNanos = new LongAccumulator(Math::max, 0);
+
+		private final LongAccumulator maxPostNanos = new LongAccumulator(Math::max, 0);
+
+		private final LongAdder preAllocatedBytes = new LongAdder();
+
+		FilterStatistics(String name, int order) {
+			this.name = name;
+			this.order = order;
+		}
+
+		long totalNanos() {
+			return preNanos.sum() + postNanos.sum();
+		}
+
+		Map<String, Object> toMap(boolean allocations) {
+			long invocations = count.sum();
+			Map<String, Object> map = new LinkedHashMap<>();
+			map.put("filter", name);
+			map.put("order", order);
+			map.put("samples", invocations);
+			map.put("meanPreMicros", mean(preNanos.sum(), invocations) / 1000);
+			map.put("meanPostMicros", mean(postNanos.sum(), invocations) / 1000);
+			map.put("maxPreMicros", maxPreNanos.get() / 1000.0);
+			map.put("maxPostMicros", maxPostNanos.get() / 1000.0);
+			if (allocations) {
+				map.put("meanPreAllocatedBytes",
+						mean(preAllocatedBytes.sum(), invocations));
+			}
+			return map;
+		}
+
+		private static double mean(long total, long count) {
+			return count == 0 ? 0 : (double) total / count;
+		}
+
+	}
+
+}
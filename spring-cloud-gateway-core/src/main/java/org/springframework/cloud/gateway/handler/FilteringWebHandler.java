@@ -30,8 +30,12 @@ import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.GatewayFilterFactory;
 import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.PhaseTimings;
+import org.springframework.cloud.gateway.support.PhaseTimings.Mark;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebHandler;
 
@@ -49,10 +53,20 @@ public class FilteringWebHandler implements WebHandler {
 
 	protected static final Log logger = LogFactory.getLog(FilteringWebHandler.class);
 
+	private static final String LAMBDA_SUFFIX = "$$Lambda";
+
 	private final List<GatewayFilter> globalFilters;
 
+	private final FilterProfiler profiler;
+
 	public FilteringWebHandler(List<GlobalFilter> globalFilters) {
+		this(globalFilters, null);
+	}
+
+	public FilteringWebHandler(List<GlobalFilter> globalFilters,
+			@Nullable FilterProfiler profiler) {
 		this.globalFilters = loadFilters(globalFilters);
+		this.profiler = profiler;
 	}
 
 	private static List<GatewayFilter> loadFilters(List<GlobalFilter> filters) {
@@ -73,6 +87,7 @@ public class FilteringWebHandler implements WebHandler {
 
 	@Override
 	public Mono<Void> handle(ServerWebExchange exchange) {
+		PhaseTimings.mark(exchange, Mark.FILTERS_START);
 		Route route = exchange.getRequiredAttribute(GATEWAY_ROUTE_ATTR);
 		List<GatewayFilter> gatewayFilters = route.getFilters();
 
@@ -85,9 +100,35 @@ public class FilteringWebHandler implements WebHandler {
 			logger.debug("Sorted gatewayFilterFactories: " + combined);
 		}
 
+		if (profiler != null && profiler.sample()) {
+			return new ProfilingGatewayFilterChain(combined, profiler).filter(exchange);
+		}
 		return new DefaultGatewayFilterChain(combined).filter(exchange);
 	}
 
+	/* for testing */ static String nameOf(GatewayFilter filter) {
+		Object target = filter;
+		if (target instanceof OrderedGatewayFilter) {
+			target = ((OrderedGatewayFilter) target).getDelegate();
+		}
+		if (target instanceof GatewayFilterAdapter) {
+			target = ((GatewayFilterAdapter) target).delegate;
+		}
+		// filters created by factories are often lambdas, named after the factory once
+		// the generated and run specific lambda suffix is removed
+		String className = target.getClass().getName();
+		int lambda = className.indexOf(LAMBDA_SUFFIX);
+		if (lambda > 0) {
+			className = className.substring(0, lambda);
+		}
+		return ClassUtils.getShortName(className);
+	}
+
+	private static int orderOf(GatewayFilter filter) {
+		return filter instanceof Ordered ? ((Ordered) filter).getOrder()
+				: Ordered.LOWEST_PRECEDENCE;
+	}
+
 	private static class DefaultGatewayFilterChain implements GatewayFilterChain {
 
 		private final int index;
@@ -125,6 +166,94 @@ public class FilteringWebHandler implements WebHandler {
 
 	}
 
+	/**
+	 * Chain recording the pre and post time of each filter in a {@link FilterProfiler}.
+	 */
+	private static class ProfilingGatewayFilterChain implements GatewayFilterChain {
+
+		private final int index;
+
+		private final List<GatewayFilter> filters;
+
+		private final FilterProfiler profiler;
+
+		private final ProfilingGatewayFilterChain parent;
+
+		private long startedAt;
+
+		private long allocatedBytesAtStart;
+
+		private long startThread;
+
+		private boolean preRecorded;
+
+		private long completedAt;
+
+		ProfilingGatewayFilterChain(List<GatewayFilter> filters,
+				FilterProfiler profiler) {
+			this.filters = filters;
+			this.profiler = profiler;
+			this.parent = null;
+			this.index = 0;
+		}
+
+		private ProfilingGatewayFilterChain(ProfilingGatewayFilterChain parent,
+				int index) {
+			this.filters = parent.filters;
+			this.profiler = parent.profiler;
+			this.parent = parent;
+			this.index = index;
+		}
+
+		@Override
+		public Mono<Void> filter(ServerWebExchange exchange) {
+			return Mono.defer(() -> {
+				long now = System.nanoTime();
+				if (parent != null) {
+					parent.recordPre(now);
+				}
+				if (this.index < filters.size()) {
+					GatewayFilter filter = filters.get(this.index);
+					ProfilingGatewayFilterChain chain = new ProfilingGatewayFilterChain(
+							this, this.index + 1);
+					startedAt = now;
+					startThread = Thread.currentThread().getId();
+					allocatedBytesAtStart = profiler.allocatedBytes();
+					return filter.filter(exchange, chain)
+							.doOnTerminate(() -> recordPost(chain));
+				}
+				else {
+					return Mono.empty(); // complete
+				}
+			}).doOnTerminate(() -> completedAt = System.nanoTime());
+		}
+
+		private void recordPre(long now) {
+			preRecorded = true;
+			GatewayFilter filter = filters.get(index);
+			long allocatedBytes = -1;
+			if (allocatedBytesAtStart >= 0
+					&& startThread == Thread.currentThread().getId()) {
+				allocatedBytes = profiler.allocatedBytes() - allocatedBytesAtStart;
+			}
+			profiler.recordPre(nameOf(filter), orderOf(filter), now - startedAt,
+					allocatedBytes);
+		}
+
+		private void recordPost(ProfilingGatewayFilterChain chain) {
+			if (!preRecorded) {
+				// the filter did not invoke the chain, its whole time is pre time
+				recordPre(System.nanoTime());
+			}
+			else if (chain.completedAt != 0) {
+				GatewayFilter filter = filters.get(index);
+				profiler.recordPost(nameOf(filter), orderOf(filter),
+						System.nanoTime() - chain.completedAt);
+			}
+		}
+
+	}
+
 	private static class GatewayFilterAdapter implements GatewayFilter {
 
 		private final GlobalFilter delegate;
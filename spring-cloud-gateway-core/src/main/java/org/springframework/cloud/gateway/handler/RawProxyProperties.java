@@ -0,0 +1,127 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.handler;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.style.ToStringCreator;
+
+/**
+ * Configuration properties for the {@link RawProxyRouteProvider}.
+ */
+@ConfigurationProperties("spring.cloud.gateway.raw-proxy")
+public class RawProxyProperties {
+
+	/**
+	 * Enables proxying the raw routes directly from the HTTP server, bypassing WebFlux
+	 * and the gateway filters.
+	 */
+	private boolean enabled;
+
+	/**
+	 * Routes proxied without any filter, matched in order before all other routes.
+	 */
+	private List<Route> routes = new ArrayList<>();
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public List<Route> getRoutes() {
+		return routes;
+	}
+
+	public void setRoutes(List<Route> routes) {
+		this.routes = routes;
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringCreator(this).append("enabled", enabled)
+				.append("routes", routes).toString();
+	}
+
+	public static class Route {
+
+		/**
+		 * Id of the route.
+		 */
+		private String id;
+
+		/**
+		 * Base URI requests are forwarded to, their path and query are appended.
+		 */
+		private URI uri;
+
+		/**
+		 * Host header requests must carry to match, ignoring the port.
+		 */
+		private String host;
+
+		/**
+		 * Prefix the request path must start with to match.
+		 */
+		private String pathPrefix;
+
+		public String getId() {
+			return id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		public URI getUri() {
+			return uri;
+		}
+
+		public void setUri(URI uri) {
+			this.uri = uri;
+		}
+
+		public String getHost() {
+			return host;
+		}
+
+		public void setHost(String host) {
+			this.host = host;
+		}
+
+		public String getPathPrefix() {
+			return pathPrefix;
+		}
+
+		public void setPathPrefix(String pathPrefix) {
+			this.pathPrefix = pathPrefix;
+		}
+
+		@Override
+		public String toString() {
+			return new ToStringCreator(this).append("id", id).append("uri", uri)
+					.append("host", host).append("pathPrefix", pathPrefix).toString();
+		}
+
+	}
+
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.handler;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.http.server.HttpServerRoutes;
+
+import org.springframework.boot.web.embedded.netty.NettyRouteProvider;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Proxies requests matching a {@link RawProxyProperties.Route raw route} straight from
+ * the Reactor Netty HTTP server, relaying the request and response buffers between the
+ * client and the proxied service. Raw routes bypass WebFlux, the route predicates and
+ * all filters, including web filters such as Spring Security: only the {@code Host}
+ * header is rewritten, hop-by-hop headers are dropped and no forwarded headers are
+ * added.
+ */
+public class RawProxyRouteProvider implements NettyRouteProvider {
+
+	private static final Log log = LogFactory.getLog(RawProxyRouteProvider.class);
+
+	private static final Set<String> HOP_BY_HOP_HEADERS = new HashSet<>(Arrays.asList(
+			"connection", "keep-alive", "proxy-authenticate", "proxy-authorization",
+			"proxy-connection", "te", "trailer", "transfer-encoding", "upgrade"));
+
+	private final HttpClient httpClient;
+
+	private final List<RawProxyProperties.Route> routes;
+
+	public RawProxyRouteProvider(HttpClient httpClient,
+			List<RawProxyProperties.Route> routes) {
+		for (RawProxyProperties.Route route : routes) {
+			Assert.notNull(route.getUri(), "uri of raw route " + route.getId());
+			Assert.isTrue(
+					StringUtils.hasText(route.getHost())
+							|| StringUtils.hasText(route.getPathPrefix()),
+					"host or pathPrefix of raw route " + route.getId());
+		}
+		this.httpClient = httpClient;
+		this.routes = routes;
+	}
+
+	@Override
+	public HttpServerRoutes apply(HttpServerRoutes serverRoutes) {
+		for (RawProxyProperties.Route route : this.routes) {
+			serverRoutes = serverRoutes.route(request -> matches(route, request),
+					(request, response) -> proxy(route, request, response));
+		}
+		return serverRoutes;
+	}
+
+	/* for testing */
+	static boolean matches(RawProxyProperties.Route route, HttpServerRequest request) {
+		if (StringUtils.hasText(route.getPathPrefix())
+				&& !matchesPathPrefix(route.getPathPrefix(), request.uri())) {
+			return false;
+		}
+		if (StringUtils.hasText(route.getHost())) {
+			String host = request.requestHeaders().get(HttpHeaderNames.HOST);
+			if (host == null) {
+				return false;
+			}
+			int port = host.lastIndexOf(':');
+			// an IPv6 literal ends with ']'
+			if (port > host.lastIndexOf(']')) {
+				host = host.substring(0, port);
+			}
+			return host.equalsIgnoreCase(route.getHost());
+		}
+		return true;
+	}
+
+	/**
+	 * Matches the decoded path of the request URI against the prefix, up to a segment
+	 * boundary. As the request URI is proxied as is, a path with an encoded slash or
+	 * backslash or a {@code ..} segment is never matched, the proxied service could
+	 * resolve it outside of the prefix.
+	 */
+	/* for testing */
+	static boolean matchesPathPrefix(String pathPrefix, String uri) {
+		String path;
+		try {
+			QueryStringDecoder decoder = new QueryStringDecoder(uri);
+			String rawPath = decoder.rawPath().toLowerCase(Locale.ROOT);
+			if (rawPath.contains("%2f") || rawPath.contains("%5c")) {
+				return false;
+			}
+			path = normalize(decoder.path());
+		}
+		catch (IllegalArgumentException e) {
+			// malformed escapes
+			return false;
+		}
+		String prefix = normalize(pathPrefix);
+		if (path == null || prefix == null) {
+			return false;
+		}
+		if (prefix.endsWith("/")) {
+			prefix = prefix.substring(0, prefix.length() - 1);
+		}
+		return prefix.isEmpty() || path.equals(prefix)
+				|| path.startsWith(prefix + "/");
+	}
+
+	/**
+	 * Removes the {@code .} segments of the path.
+	 * @return the normalized path, or {@code null} if it has a backslash or a
+	 * {@code ..} segment
+	 */
+	private static String normalize(String path) {
+		if (path.indexOf('\\') >= 0) {
+			return null;
+		}
+		StringBuilder normalized = new StringBuilder(path.length());
+		String[] segments = StringUtils.delimitedListToStringArray(path, "/");
+		for (int i = 0; i < segments.length; i++) {
+			String segment = segments[i];
+			if (segment.equals("..")) {
+				return null;
+			}
+			if (segment.equals(".")) {
+				// a trailing dot segment still ends the path with a slash
+				if (i == segments.length - 1) {
+					normalized.append('/');
+				}
+				continue;
+			}
+			if (i > 0) {
+				normalized.append('/');
+			}
+			normalized.append(segment);
+		}
+		return normalized.toString();
+	}
+
+	/* for testing */
+	static void copyHeaders(HttpHeaders from, HttpHeaders to) {
+		Set<String> connectionHeaders = new HashSet<>();
+		for (String value : from.getAll(HttpHeaderNames.CONNECTION)) {
+			for (String name : StringUtils.commaDelimitedListToStringArray(value)) {
+				connectionHeaders.add(name.trim().toLowerCase(Locale.ROOT));
+			}
+		}
+		for (Map.Entry<String, String> header : from) {
+			String name = header.getKey().toLowerCase(Locale.ROOT);
+			if (!HOP_BY_HOP_HEADERS.contains(name)
+					&& !connectionHeaders.contains(name)) {
+				to.add(header.getKey(), header.getValue());
+			}
+		}
+	}
+
+	private Publisher<Void> proxy(RawProxyProperties.Route route,
+			HttpServerRequest request, HttpServerResponse response) {
+		URI uri = route.getUri();
+		String base = uri.toString();
+		if (base.endsWith("/")) {
+			base = base.substring(0, base.length() - 1);
+		}
+		String host = uri.getPort() < 0 ? uri.getHost()
+				: uri.getHost() + ":" + uri.getPort();
+		return this.httpClient.request(request.method()).uri(base + request.uri())
+				.send((clientRequest, outbound) -> {
+					copyHeaders(request.requestHeaders(),
+							clientRequest.requestHeaders());
+					clientRequest.requestHeaders().set(HttpHeaderNames.HOST, host);
+					return outbound.send(request.receive().retain());
+				}).response((clientResponse, body) -> {
+					response.status(clientResponse.status());
+					copyHeaders(clientResponse.responseHeaders(),
+							response.responseHeaders());
+					return response.send(body.retain());
+				}).then().onErrorResume(e -> {
+					log.debug("Unable to proxy raw route " + route.getId(), e);
+					if (response.hasSentHeaders()) {
+						return Mono.error(e);
+					}
+					return Mono.from(
+							response.status(HttpResponseStatus.BAD_GATEWAY).send());
+				});
+	}
+
+}
@@ -23,6 +23,8 @@ import reactor.core.publisher.Mono;
 import org.springframework.cloud.gateway.config.GlobalCorsProperties;
 import org.springframework.cloud.gateway.route.Route;
 import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.support.PhaseTimings;
+import org.springframework.cloud.gateway.support.PhaseTimings.Mark;
 import org.springframework.core.env.Environment;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.reactive.handler.AbstractHandlerMapping;
@@ -84,10 +86,12 @@ public class RoutePredicateHandlerMapping extends AbstractHandlerMapping {
 		}
 		exchange.getAttributes().put(GATEWAY_HANDLER_MAPPER_ATTR, getSimpleName());
 
+		PhaseTimings.mark(exchange, Mark.ROUTE_LOOKUP_START);
 		return lookupRoute(exchange)
 				// .log("route-predicate-handler-mapping", Level.FINER) //name this
 				.flatMap((Function<Route, Mono<?>>) r -> {
 					exchange.getAttributes().remove(GATEWAY_PREDICATE_ROUTE_ATTR);
+					PhaseTimings.mark(exchange, Mark.ROUTE_LOOKUP_END);
 					if (logger.isDebugEnabled()) {
 						logger.debug(
 								"Mapping [" + getExchangeDesc(exchange) + "] to " + r);
@@ -125,7 +129,7 @@ public class RoutePredicateHandlerMapping extends AbstractHandlerMapping {
 	}
 
 	protected Mono<Route> lookupRoute(ServerWebExchange exchange) {
-		return this.routeLocator.getRoutes()
+		return this.routeLocator.getRoutes(exchange)
 				// individually filter routes so that filterWhen error delaying is not a
 				// problem
 				.concatMap(route -> Mono.just(route).filterWhen(r -> {
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.handler.predicate;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.Collection;
+
+import io.netty.util.NetUtil;
+
+/**
+ * Immutable index of CIDR ranges answering whether an address falls into any of them
+ * in time proportional to the address length, whatever the number of ranges. Each
+ * address family has its own binary radix trie over the address bits, stored in
+ * primitive arrays. Lookups never allocate and are safe from any thread once built.
+ */
+final class CidrIndex {
+
+	private final Trie ipv4;
+
+	private final Trie ipv6;
+
+	private final int size;
+
+	private CidrIndex(Trie ipv4, Trie ipv6, int size) {
+		this.ipv4 = ipv4;
+		this.ipv6 = ipv6;
+		this.size = size;
+	}
+
+	/**
+	 * Builds an index of the given sources. A source is an IPv4 or IPv6 address with an
+	 * optional prefix length, an address without one only matches itself. Addresses
+	 * must be literals, host names are rejected rather than resolved.
+	 * @param sources the sources in CIDR notation
+	 * @return the index
+	 * @throws IllegalArgumentException if a source is not a valid CIDR range
+	 */
+	static CidrIndex of(Collection<String> sources) {
+		Trie ipv4 = new Trie();
+		Trie ipv6 = new Trie();
+		for (String source : sources) {
+			String cidr = source.trim();
+			int slash = cidr.indexOf('/');
+			String host = slash < 0 ? cidr : cidr.substring(0, slash);
+			byte[] address = NetUtil.createByteArrayFromIpAddressString(host);
+			if (address == null) {
+				throw new IllegalArgumentException(
+						"Invalid IP address literal in " + source);
+			}
+			int bits = address.length * 8;
+			int prefix = bits;
+			if (slash >= 0) {
+				try {
+					prefix = Integer.parseInt(cidr.substring(slash + 1));
+				}
+				catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Invalid prefix in " + source, e);
+				}
+			}
+			if (prefix < 0 || prefix > bits) {
+				throw new IllegalArgumentException(
+						"Prefix of " + source + " must be between 0 and " + bits);
+			}
+			(address.length == 4 ? ipv4 : ipv6).insert(address, prefix);
+		}
+		return new CidrIndex(ipv4, ipv6, sources.size());
+	}
+
+	boolean matches(InetAddress address) {
+		byte[] bytes = address.getAddress();
+		return (bytes.length == 4 ? ipv4 : ipv6).matches(bytes);
+	}
+
+	int size() {
+		return size;
+	}
+
+	private static int bit(byte[] address, int index) {
+		return (address[index >>> 3] >>> (7 - (index & 7))) & 1;
+	}
+
+	/**
+	 * Node {@code 0} is the root, which is never a child, so a child index of {@code 0}
+	 * means there is no child.
+	 */
+	private static final class Trie {
+
+		private int[] zero = new int[16];
+
+		private int[] one = new int[16];
+
+		private boolean[] terminal = new boolean[16];
+
+		private int nodes = 1;
+
+		void insert(byte[] address, int prefix) {
+			int node = 0;
+			for (int i = 0; i < prefix; i++) {
+				if (terminal[node]) {
+					// already covered by a shorter prefix
+					return;
+				}
+				boolean set = bit(address, i) == 1;
+				int child = set ? one[node] : zero[node];
+				if (child == 0) {
+					child = newNode();
+					if (set) {
+						one[node] = child;
+					}
+					else {
+						zero[node] = child;
+					}
+				}
+				node = child;
+			}
+			terminal[node] = true;
+		}
+
+		boolean matches(byte[] address) {
+			int node = 0;
+			int bits = address.length * 8;
+			for (int i = 0; i < bits; i++) {
+				if (terminal[node]) {
+					return true;
+				}
+				node = bit(address, i) == 0 ? zero[node] : one[node];
+				if (node == 0) {
+					return false;
+				}
+			}
+			return terminal[node];
+		}
+
+		private int newNode() {
+			if (nodes == terminal.length) {
+				int capacity = nodes * 2;
+				zero = Arrays.copyOf(zero, capacity);
+				one = Arrays.copyOf(one, capacity);
+				terminal = Arrays.copyOf(terminal, capacity);
+			}
+			return nodes++;
+		}
+
+	}
+
+}
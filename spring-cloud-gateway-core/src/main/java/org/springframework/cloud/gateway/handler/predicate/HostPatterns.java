@@ -0,0 +1,267 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.handler.predicate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.StringUtils;
+
+/**
+ * The host patterns of a {@link HostRoutePredicateFactory.Config} compiled for matching.
+ * Patterns without wildcards go into a hash map of host names. Patterns made of whole
+ * label wildcards ({@code *}, {@code {var}}, and {@code **} as the leftmost label) go
+ * into a trie of labels walked from the top level domain down, so matching costs the
+ * same however many patterns there are. Any other pattern, such as one with a port or
+ * a partial label wildcard, falls back to the {@link PathMatcher}.
+ * <p>
+ * Compiled patterns match the host case insensitively and without its port. As with
+ * the {@link PathMatcher}, the first pattern in declaration order that matches wins.
+ */
+final class HostPatterns {
+
+	private static final String ANY_LABEL = "*";
+
+	private static final String ANY_LABELS = "**";
+
+	private final Map<String, Terminal> exact = new HashMap<>();
+
+	private final Node root = new Node();
+
+	private final List<String> fallbackPatterns = new ArrayList<>();
+
+	private final List<Integer> fallbackIndexes = new ArrayList<>();
+
+	private final PathMatcher pathMatcher;
+
+	private boolean wildcards;
+
+	HostPatterns(List<String> patterns, PathMatcher pathMatcher, boolean compile) {
+		this.pathMatcher = pathMatcher;
+		for (int i = 0; i < patterns.size(); i++) {
+			String pattern = patterns.get(i);
+			if (!compile || !add(pattern.toLowerCase(Locale.ENGLISH), i)) {
+				fallbackPatterns.add(pattern);
+				fallbackIndexes.add(i);
+			}
+		}
+	}
+
+	/**
+	 * @param host the value of the {@code Host} header
+	 * @return the URI template variables of the first matching pattern, or {@code null}
+	 * if no pattern matches
+	 */
+	@Nullable
+	Map<String, String> match(@Nullable String host) {
+		if (host == null) {
+			return null;
+		}
+		String hostname = hostname(host);
+		Terminal best = exact.get(hostname);
+		String[] labels = null;
+		if (wildcards) {
+			labels = StringUtils.delimitedListToStringArray(hostname, ".");
+			best = first(best, search(root, labels, labels.length));
+		}
+
+		for (int i = 0; i < fallbackPatterns.size(); i++) {
+			if (best != null && best.index < fallbackIndexes.get(i)) {
+				break;
+			}
+			String pattern = fallbackPatterns.get(i);
+			if (pathMatcher.match(pattern, host)) {
+				return pathMatcher.extractUriTemplateVariables(pattern, host);
+			}
+		}
+
+		if (best == null) {
+			return null;
+		}
+		return best.variables(labels);
+	}
+
+	private boolean add(String pattern, int index) {
+		if (pattern.indexOf(':') >= 0) {
+			return false;
+		}
+		String[] labels = StringUtils.delimitedListToStringArray(pattern, ".");
+		List<String> names = new ArrayList<>();
+		List<Integer> positions = new ArrayList<>();
+		boolean literal = true;
+		for (int i = 0; i < labels.length; i++) {
+			String label = labels[i];
+			if (label.isEmpty()) {
+				return false;
+			}
+			if (ANY_LABELS.equals(label)) {
+				if (i != 0) {
+					return false;
+				}
+				literal = false;
+			}
+			else if (ANY_LABEL.equals(label)) {
+				literal = false;
+			}
+			else if (isVariable(label)) {
+				names.add(label.substring(1, label.length() - 1));
+				// counted from the right, as "**" may stand for any number of labels
+				positions.add(labels.length - 1 - i);
+				literal = false;
+			}
+			else if (hasWildcard(label)) {
+				return false;
+			}
+		}
+		if (literal) {
+			exact.putIfAbsent(pattern, new Terminal(index, new String[0], new int[0]));
+			return true;
+		}
+
+		wildcards = true;
+		Node node = root;
+		boolean anyDepth = false;
+		for (int i = labels.length - 1; i >= 0; i--) {
+			String label = labels[i];
+			if (ANY_LABELS.equals(label)) {
+				anyDepth = true;
+			}
+			else if (ANY_LABEL.equals(label) || isVariable(label)) {
+				if (node.any == null) {
+					node.any = new Node();
+				}
+				node = node.any;
+			}
+			else {
+				node = node.children.computeIfAbsent(label, key -> new Node());
+			}
+		}
+		Terminal terminal = new Terminal(index, names.toArray(new String[0]),
+				positions.stream().mapToInt(Integer::intValue).toArray());
+		if (anyDepth) {
+			node.anyDepth = first(node.anyDepth, terminal);
+		}
+		else {
+			node.terminal = first(node.terminal, terminal);
+		}
+		return true;
+	}
+
+	/**
+	 * @param remaining the number of leftmost labels not matched yet
+	 */
+	@Nullable
+	private static Terminal search(Node node, String[] labels, int remaining) {
+		Terminal best = node.anyDepth;
+		if (remaining == 0) {
+			return first(best, node.terminal);
+		}
+		Node literal = node.children.get(labels[remaining - 1]);
+		if (literal != null) {
+			best = first(best, search(literal, labels, remaining - 1));
+		}
+		if (node.any != null) {
+			best = first(best, search(node.any, labels, remaining - 1));
+		}
+		return best;
+	}
+
+	@Nullable
+	private static Terminal first(@Nullable Terminal one, @Nullable Terminal other) {
+		if (one == null) {
+			return other;
+		}
+		if (other == null) {
+			return one;
+		}
+		return one.index <= other.index ? one : other;
+	}
+
+	private static String hostname(String host) {
+		String hostname = host;
+		if (hostname.startsWith("[")) {
+			int end = hostname.indexOf(']');
+			if (end > 0) {
+				hostname = hostname.substring(0, end + 1);
+			}
+		}
+		else {
+			int port = hostname.indexOf(':');
+			if (port >= 0) {
+				hostname = hostname.substring(0, port);
+			}
+		}
+		return hostname.toLowerCase(Locale.ENGLISH);
+	}
+
+	private static boolean isVariable(String label) {
+		return label.length() > 2 && label.charAt(0) == '{'
+				&& label.indexOf('{', 1) < 0 && label.indexOf('}') == label.length() - 1;
+	}
+
+	private static boolean hasWildcard(String label) {
+		return label.indexOf('*') >= 0 || label.indexOf('?') >= 0
+				|| label.indexOf('{') >= 0 || label.indexOf('}') >= 0;
+	}
+
+	private static final class Node {
+
+		private final Map<String, Node> children = new HashMap<>(4);
+
+		private Node any;
+
+		private Terminal terminal;
+
+		private Terminal anyDepth;
+
+	}
+
+	private static final class Terminal {
+
+		private final int index;
+
+		private final String[] names;
+
+		private final int[] positions;
+
+		private Terminal(int index, String[] names, int[] positions) {
+			this.index = index;
+			this.names = names;
+			this.positions = positions;
+		}
+
+		private Map<String, String> variables(@Nullable String[] labels) {
+			if (names.length == 0) {
+				return Collections.emptyMap();
+			}
+			Map<String, String> variables = new LinkedHashMap<>(names.length * 2);
+			for (int i = 0; i < names.length; i++) {
+				variables.put(names[i], labels[labels.length - 1 - positions[i]]);
+			}
+			return variables;
+		}
+
+	}
+
+}
@@ -20,7 +20,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.function.Predicate;
 
 import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
@@ -39,12 +38,20 @@ public class HostRoutePredicateFactory
 
 	private PathMatcher pathMatcher = new AntPathMatcher(".");
 
+	private boolean compilePatterns = true;
+
 	public HostRoutePredicateFactory() {
 		super(Config.class);
 	}
 
+	/**
+	 * Sets a custom matcher, all patterns are then matched through it rather than
+	 * compiled.
+	 * @param pathMatcher the matcher for the host patterns
+	 */
 	public void setPathMatcher(PathMatcher pathMatcher) {
 		this.pathMatcher = pathMatcher;
+		this.compilePatterns = false;
 	}
 
 	@Override
@@ -59,19 +66,18 @@ public class HostRoutePredicateFactory
 
 	@Override
 	public Predicate<ServerWebExchange> apply(Config config) {
+		HostPatterns hostPatterns = new HostPatterns(config.getPatterns(),
+				this.pathMatcher, this.compilePatterns);
 		return exchange -> {
 			String host = exchange.getRequest().getHeaders().getFirst("Host");
-			Optional<String> optionalPattern = config.getPatterns().stream()
-					.filter(pattern -> this.pathMatcher.match(pattern, host)).findFirst();
-
-			if (optionalPattern.isPresent()) {
-				Map<String, String> variables = this.pathMatcher
-						.extractUriTemplateVariables(optionalPattern.get(), host);
+			Map<String, String> variables = hostPatterns.match(host);
+			if (variables == null) {
+				return false;
+			}
+			if (!variables.isEmpty()) {
 				ServerWebExchangeUtils.putUriTemplateVariables(exchange, variables);
-				return true;
 			}
-
-			return false;
+			return true;
 		};
 	}
 
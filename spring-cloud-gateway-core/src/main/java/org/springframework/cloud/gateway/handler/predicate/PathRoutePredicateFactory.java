@@ -19,7 +19,7 @@ package org.springframework.cloud.gateway.handler.predicate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.function.Predicate;
 
 import org.apache.commons.logging.Log;
@@ -35,7 +35,6 @@ import org.springframework.web.util.pattern.PathPattern.PathMatchInfo;
 import org.springframework.web.util.pattern.PathPatternParser;
 
 import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.putUriTemplateVariables;
-import static org.springframework.http.server.PathContainer.parsePath;
 
 /**
  * @author Spencer Gibb
@@ -49,10 +48,27 @@ public class PathRoutePredicateFactory
 
 	private PathPatternParser pathPatternParser = new PathPatternParser();
 
+	private PathPatternParser invertedPathPatternParser = invertTrailingSeparator(
+			pathPatternParser);
+
 	public PathRoutePredicateFactory() {
 		super(Config.class);
 	}
 
+	/**
+	 * Parsers are not thread safe while their settings change, so rather than toggling
+	 * the trailing separator option on the shared parser, patterns needing the opposite
+	 * option go through a copy of it.
+	 */
+	private static PathPatternParser invertTrailingSeparator(PathPatternParser parser) {
+		PathPatternParser inverted = new PathPatternParser();
+		inverted.setCaseSensitive(parser.isCaseSensitive());
+		inverted.setPathOptions(parser.getPathOptions());
+		inverted.setMatchOptionalTrailingSeparator(
+				!parser.isMatchOptionalTrailingSeparator());
+		return inverted;
+	}
+
 	private static void traceMatch(String prefix, Object desired, Object actual,
 			boolean match) {
 		if (log.isTraceEnabled()) {
@@ -64,6 +80,7 @@ public class PathRoutePredicateFactory
 
 	public void setPathPatternParser(PathPatternParser pathPatternParser) {
 		this.pathPatternParser = pathPatternParser;
+		this.invertedPathPatternParser = invertTrailingSeparator(pathPatternParser);
 	}
 
 	@Override
@@ -78,32 +95,43 @@ public class PathRoutePredicateFactory
 
 	@Override
 	public Predicate<ServerWebExchange> apply(Config config) {
-		final ArrayList<PathPattern> pathPatterns = new ArrayList<>();
-		synchronized (this.pathPatternParser) {
-			pathPatternParser.setMatchOptionalTrailingSeparator(
-					config.isMatchOptionalTrailingSeparator());
-			config.getPatterns().forEach(pattern -> {
-				PathPattern pathPattern = this.pathPatternParser.parse(pattern);
-				pathPatterns.add(pathPattern);
-			});
+		PathPatternParser parser = pathPatternParser;
+		if (parser.isMatchOptionalTrailingSeparator() != config
+				.isMatchOptionalTrailingSeparator()) {
+			parser = invertedPathPatternParser;
+		}
+		final PathPattern[] pathPatterns = new PathPattern[config.getPatterns().size()];
+		// patterns without variables are matched without extracting an empty map
+		final boolean[] extract = new boolean[pathPatterns.length];
+		for (int i = 0; i < pathPatterns.length; i++) {
+			String pattern = config.getPatterns().get(i);
+			pathPatterns[i] = parser.parse(pattern);
+			extract[i] = pattern.indexOf('{') >= 0;
 		}
 		return exchange -> {
-			PathContainer path = parsePath(exchange.getRequest().getURI().getRawPath());
-
-			Optional<PathPattern> optionalPathPattern = pathPatterns.stream()
-					.filter(pattern -> pattern.matches(path)).findFirst();
-
-			if (optionalPathPattern.isPresent()) {
-				PathPattern pathPattern = optionalPathPattern.get();
+			// parsed once per request and shared by the Path predicates of all routes
+			PathContainer path = exchange.getRequest().getPath();
+
+			for (int i = 0; i < pathPatterns.length; i++) {
+				PathPattern pathPattern = pathPatterns[i];
+				if (extract[i]) {
+					PathMatchInfo pathMatchInfo = pathPattern.matchAndExtract(path);
+					if (pathMatchInfo == null) {
+						continue;
+					}
+					Map<String, String> uriVariables = pathMatchInfo.getUriVariables();
+					if (!uriVariables.isEmpty()) {
+						putUriTemplateVariables(exchange, uriVariables);
+					}
+				}
+				else if (!pathPattern.matches(path)) {
+					continue;
+				}
 				traceMatch("Pattern", pathPattern.getPatternString(), path, true);
-				PathMatchInfo pathMatchInfo = pathPattern.matchAndExtract(path);
-				putUriTemplateVariables(exchange, pathMatchInfo.getUriVariables());
 				return true;
 			}
-			else {
-				traceMatch("Pattern", config.getPatterns(), path, false);
-				return false;
-			}
+			traceMatch("Pattern", config.getPatterns(), path, false);
+			return false;
 		};
 	}
 
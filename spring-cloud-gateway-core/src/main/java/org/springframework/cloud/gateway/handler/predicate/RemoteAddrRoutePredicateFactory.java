@@ -16,22 +16,30 @@
 
 package org.springframework.cloud.gateway.handler.predicate;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
 
-import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 
-import io.netty.handler.ipfilter.IpFilterRuleType;
-import io.netty.handler.ipfilter.IpSubnetFilterRule;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import reactor.core.scheduler.Schedulers;
 
 import org.springframework.cloud.gateway.support.ipresolver.RemoteAddressResolver;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.util.Assert;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.server.ServerWebExchange;
 
@@ -60,61 +68,135 @@ public class RemoteAddrRoutePredicateFactory
 		return Collections.singletonList("sources");
 	}
 
-	@NotNull
-	private List<IpSubnetFilterRule> convert(List<String> values) {
-		List<IpSubnetFilterRule> sources = new ArrayList<>();
-		for (String arg : values) {
-			addSource(sources, arg);
-		}
-		return sources;
-	}
-
 	@Override
 	public Predicate<ServerWebExchange> apply(Config config) {
-		List<IpSubnetFilterRule> sources = convert(config.sources);
+		Assert.isTrue(!config.sources.isEmpty() || config.sourcesLocation != null,
+				"sources or sourcesLocation must be set");
+		Sources sources = new Sources(config);
 
 		return exchange -> {
 			InetSocketAddress remoteAddress = config.remoteAddressResolver
 					.resolve(exchange);
 			if (remoteAddress != null && remoteAddress.getAddress() != null) {
-				String hostAddress = remoteAddress.getAddress().getHostAddress();
-				String host = exchange.getRequest().getURI().getHost();
-
-				if (log.isDebugEnabled() && !hostAddress.equals(host)) {
-					log.debug("Remote addresses didn't match " + hostAddress + " != "
-							+ host);
-				}
-
-				for (IpSubnetFilterRule source : sources) {
-					if (source.matches(remoteAddress)) {
-						return true;
+				if (log.isDebugEnabled()) {
+					String hostAddress = remoteAddress.getAddress().getHostAddress();
+					String host = exchange.getRequest().getURI().getHost();
+					if (!hostAddress.equals(host)) {
+						log.debug("Remote addresses didn't match " + hostAddress
+								+ " != " + host);
 					}
 				}
+
+				return sources.get().matches(remoteAddress.getAddress());
 			}
 
 			return false;
 		};
 	}
 
-	private void addSource(List<IpSubnetFilterRule> sources, String source) {
-		if (!source.contains("/")) { // no netmask, add default
-			source = source + "/32";
+	/**
+	 * The CIDR index of a route. Sources read from a location are loaded in the
+	 * background, so creating the route never waits for them, and until they are loaded
+	 * only the inline sources match. They are then reloaded in the background once the
+	 * reload interval has elapsed, on the first request after it, and the new index
+	 * replaces the current one atomically. The current index is kept if a reload fails.
+	 */
+	private static final class Sources {
+
+		private static final ResourceLoader RESOURCE_LOADER = new DefaultResourceLoader();
+
+		private final List<String> inline;
+
+		private final Resource location;
+
+		private final long reloadIntervalNanos;
+
+		private final AtomicBoolean reloading = new AtomicBoolean();
+
+		private volatile CidrIndex index;
+
+		private volatile long nextReload;
+
+		Sources(Config config) {
+			this.inline = config.sources;
+			this.location = config.sourcesLocation == null ? null
+					: RESOURCE_LOADER.getResource(config.sourcesLocation);
+			this.reloadIntervalNanos = location == null
+					|| config.sourcesReloadInterval == null ? -1
+							: config.sourcesReloadInterval.toNanos();
+			this.index = CidrIndex.of(inline);
+			if (location != null) {
+				scheduleReload();
+			}
+		}
+
+		CidrIndex get() {
+			if (reloadIntervalNanos > 0 && System.nanoTime() - nextReload > 0) {
+				scheduleReload();
+			}
+			return index;
 		}
 
-		String[] ipAddressCidrPrefix = source.split("/", 2);
-		String ipAddress = ipAddressCidrPrefix[0];
-		int cidrPrefix = Integer.parseInt(ipAddressCidrPrefix[1]);
+		private void scheduleReload() {
+			if (reloading.compareAndSet(false, true)) {
+				Schedulers.elastic().schedule(() -> {
+					try {
+						reload();
+					}
+					finally {
+						reloading.set(false);
+					}
+				});
+			}
+		}
+
+		private void reload() {
+			try {
+				List<String> sources = new ArrayList<>(inline);
+				sources.addAll(read(location));
+				CidrIndex loaded = CidrIndex.of(sources);
+				index = loaded;
+				if (log.isDebugEnabled()) {
+					log.debug("Loaded " + loaded.size() + " sources from " + location);
+				}
+			}
+			catch (IOException | IllegalArgumentException e) {
+				log.warn("Unable to load sources from " + location
+						+ ", keeping the current ones", e);
+			}
+			finally {
+				nextReload = System.nanoTime() + reloadIntervalNanos;
+			}
+		}
+
+		private static List<String> read(Resource resource) throws IOException {
+			List<String> sources = new ArrayList<>();
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+					resource.getInputStream(), StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					int comment = line.indexOf('#');
+					String source = (comment < 0 ? line : line.substring(0, comment))
+							.trim();
+					if (!source.isEmpty()) {
+						sources.add(source);
+					}
+				}
+			}
+			return sources;
+		}
 
-		sources.add(
-				new IpSubnetFilterRule(ipAddress, cidrPrefix, IpFilterRuleType.ACCEPT));
 	}
 
 	@Validated
 	public static class Config {
 
-		@NotEmpty
 		private List<String> sources = new ArrayList<>();
 
+		private String sourcesLocation;
+
+		private Duration sourcesReloadInterval;
+
 		@NotNull
 		private RemoteAddressResolver remoteAddressResolver = new RemoteAddressResolver() {
 		};
@@ -133,6 +215,36 @@ public class RemoteAddrRoutePredicateFactory
 			return this;
 		}
 
+		public String getSourcesLocation() {
+			return sourcesLocation;
+		}
+
+		/**
+		 * Sets a resource, such as a file or an URL, listing further sources one per
+		 * line. Blank lines and text after {@code #} are ignored.
+		 * @param sourcesLocation the location of the sources
+		 * @return this config
+		 */
+		public Config setSourcesLocation(String sourcesLocation) {
+			this.sourcesLocation = sourcesLocation;
+			return this;
+		}
+
+		public Duration getSourcesReloadInterval() {
+			return sourcesReloadInterval;
+		}
+
+		/**
+		 * Sets how often the sources location is read again, by default it is only read
+		 * when the route is created.
+		 * @param sourcesReloadInterval the reload interval
+		 * @return this config
+		 */
+		public Config setSourcesReloadInterval(Duration sourcesReloadInterval) {
+			this.sourcesReloadInterval = sourcesReloadInterval;
+			return this;
+		}
+
 		public Config setRemoteAddressResolver(
 				RemoteAddressResolver remoteAddressResolver) {
 			this.remoteAddressResolver = remoteAddressResolver;
@@ -16,16 +16,24 @@
 
 package org.springframework.cloud.gateway.route;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 import reactor.cache.CacheFlux;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Signal;
 
 import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
 import org.springframework.context.ApplicationListener;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.web.server.ServerWebExchange;
 
 /**
  * @author Spencer Gibb
@@ -37,11 +45,22 @@ public class CachingRouteLocator
 
 	private final Flux<Route> routes;
 
-	private final Map<String, List> cache = new HashMap<>();
+	private static final String CACHE_KEY = "routes";
+
+	private final Map<String, List> cache = new ConcurrentHashMap<>();
+
+	private final AtomicLong candidateVersions = new AtomicLong();
+
+	private volatile Candidate candidate;
+
+	private List previous;
+
+	// guarded by this
+	private long refreshes;
 
 	public CachingRouteLocator(RouteLocator delegate) {
 		this.delegate = delegate;
-		routes = CacheFlux.lookup(cache, "routes", Route.class)
+		routes = CacheFlux.lookup(cache, CACHE_KEY, Route.class)
 				.onCacheMissResume(() -> this.delegate.getRoutes()
 						.sort(AnnotationAwareOrderComparator.INSTANCE));
 	}
@@ -51,15 +70,167 @@ public class CachingRouteLocator
 		return this.routes;
 	}
 
+	@Override
+	@SuppressWarnings("unchecked")
+	public Flux<Route> getRoutes(ServerWebExchange exchange) {
+		Candidate candidate = this.candidate;
+		if (candidate != null && candidate.isSelectedFor(exchange)) {
+			List<Signal<Route>> active = this.cache.get(CACHE_KEY);
+			// until the routes are loaded again after a refresh, the active ones serve
+			if (active != null) {
+				return candidate.routesOver(active);
+			}
+		}
+		return this.routes;
+	}
+
+	/**
+	 * Stages the given route changes as a candidate route table, which replaces any
+	 * previous candidate. The candidate is the active route table with the changes
+	 * applied, it serves the requests carrying the given header and the given
+	 * percentage of the other requests, until it is promoted or discarded. The changes
+	 * are not applied to the active route table before promotion.
+	 * @param changes the changed routes by id, {@code null} values remove the route
+	 * @param header the request header selecting the candidate, or {@code null}
+	 * @param percentage the percentage of requests served by the candidate
+	 * @return the version of the candidate
+	 */
+	public synchronized long stageCandidate(Map<String, Route> changes, String header,
+			int percentage) {
+		long version = this.candidateVersions.incrementAndGet();
+		this.candidate = new Candidate(version, this.refreshes,
+				new LinkedHashMap<>(changes), header, percentage);
+		return version;
+	}
+
+	/**
+	 * Applies the changes of the candidate route table with the given version to the
+	 * active route table, for all requests. The replaced route table is kept for
+	 * {@link #rollback()}. The routes must be loaded.
+	 * @param version the version of the staged candidate
+	 * @return whether the candidate was promoted, {@code false} if it is not the staged
+	 * candidate anymore
+	 * @throws IllegalStateException if the routes were refreshed since the candidate
+	 * was staged
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized boolean promoteCandidate(long version) {
+		Candidate candidate = this.candidate;
+		if (candidate == null || candidate.version != version) {
+			return false;
+		}
+		List<Signal<Route>> active = this.cache.get(CACHE_KEY);
+		if (candidate.refreshes != this.refreshes || active == null) {
+			throw new IllegalStateException("Candidate " + version
+					+ " was staged before the routes were last refreshed");
+		}
+		this.previous = active;
+		this.cache.put(CACHE_KEY, apply(active, candidate.changes));
+		this.candidate = null;
+		return true;
+	}
+
+	/**
+	 * Restores the route table replaced by the last promotion, unless the routes were
+	 * refreshed since.
+	 * @return whether there was a route table to restore
+	 */
+	public synchronized boolean rollback() {
+		if (this.previous == null) {
+			return false;
+		}
+		this.cache.put(CACHE_KEY, this.previous);
+		this.previous = null;
+		return true;
+	}
+
 	/**
-	 * Clears the routes cache.
+	 * Stops serving requests from the candidate route table.
+	 */
+	public synchronized void discardCandidate() {
+		this.candidate = null;
+	}
+
+	/**
+	 * @return the staged candidate as a map of its version, number of saved and deleted
+	 * routes, header and percentage, or an empty map if there is none
+	 */
+	public Map<String, Object> getCandidate() {
+		Candidate candidate = this.candidate;
+		if (candidate == null) {
+			return Collections.emptyMap();
+		}
+		long deleted = candidate.changes.values().stream().filter(Objects::isNull)
+				.count();
+		Map<String, Object> description = new LinkedHashMap<>();
+		description.put("version", candidate.version);
+		description.put("saved", candidate.changes.size() - deleted);
+		description.put("deleted", deleted);
+		description.put("header", candidate.header);
+		description.put("percentage", candidate.percentage);
+		return description;
+	}
+
+	/**
+	 * Clears the routes cache. The route table replaced by the last promotion cannot be
+	 * restored anymore, and the staged candidate cannot be promoted.
 	 * @return routes flux
 	 */
 	public Flux<Route> refresh() {
-		this.cache.clear();
+		synchronized (this) {
+			this.refreshes++;
+			this.previous = null;
+			this.cache.clear();
+		}
 		return this.routes;
 	}
 
+	/**
+	 * Replaces the cached routes with the given id by the given route, leaving the
+	 * other routes in place. Does nothing while no routes are cached, as the next lookup
+	 * loads them all.
+	 * @param routeId the id of the changed route
+	 * @param route the new route, or {@code null} to remove the route
+	 */
+	public void updateRoute(String routeId, Route route) {
+		updateRoutes(Collections.singletonMap(routeId, route));
+	}
+
+	/**
+	 * Replaces the cached routes with the given ids in a single pass, like
+	 * {@link #updateRoute(String, Route)} does for one route.
+	 * @param routes the new routes by id, {@code null} values remove the route
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized void updateRoutes(Map<String, Route> routes) {
+		List<Signal<Route>> cached = this.cache.get(CACHE_KEY);
+		if (cached == null) {
+			return;
+		}
+		// a refresh clearing the cache in the meantime wins
+		this.cache.replace(CACHE_KEY, cached, apply(cached, routes));
+	}
+
+	private static List<Signal<Route>> apply(List<Signal<Route>> cached,
+			Map<String, Route> routes) {
+		List<Route> updated = new ArrayList<>(cached.size() + routes.size());
+		for (Signal<Route> signal : cached) {
+			if (signal.isOnNext() && !routes.containsKey(signal.get().getId())) {
+				updated.add(signal.get());
+			}
+		}
+		for (Route route : routes.values()) {
+			if (route != null) {
+				updated.add(route);
+			}
+		}
+		updated.sort(AnnotationAwareOrderComparator.INSTANCE);
+		List<Signal<Route>> signals = new ArrayList<>(updated.size() + 1);
+		updated.forEach(r -> signals.add(Signal.next(r)));
+		signals.add(Signal.complete());
+		return signals;
+	}
+
 	@Override
 	public void onApplicationEvent(RefreshRoutesEvent event) {
 		refresh();
@@ -70,4 +241,64 @@ public class CachingRouteLocator
 		refresh();
 	}
 
+	/**
+	 * Route changes staged next to the active route table. The table they make with the
+	 * active routes is kept until the active routes change.
+	 */
+	private static final class Candidate {
+
+		private final long version;
+
+		private final long refreshes;
+
+		private final Map<String, Route> changes;
+
+		private final String header;
+
+		private final int percentage;
+
+		private volatile Table table;
+
+		Candidate(long version, long refreshes, Map<String, Route> changes,
+				String header, int percentage) {
+			this.version = version;
+			this.refreshes = refreshes;
+			this.changes = changes;
+			this.header = header;
+			this.percentage = percentage;
+		}
+
+		boolean isSelectedFor(ServerWebExchange exchange) {
+			if (this.header != null
+					&& exchange.getRequest().getHeaders().containsKey(this.header)) {
+				return true;
+			}
+			return this.percentage > 0
+					&& ThreadLocalRandom.current().nextInt(100) < this.percentage;
+		}
+
+		Flux<Route> routesOver(List<Signal<Route>> active) {
+			Table table = this.table;
+			if (table == null || table.active != active) {
+				table = new Table(active, apply(active, this.changes));
+				this.table = table;
+			}
+			return table.routes;
+		}
+
+	}
+
+	private static final class Table {
+
+		private final List<Signal<Route>> active;
+
+		private final Flux<Route> routes;
+
+		Table(List<Signal<Route>> active, List<Signal<Route>> signals) {
+			this.active = active;
+			this.routes = Flux.fromIterable(signals).dematerialize();
+		}
+
+	}
+
 }
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.route;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import reactor.core.publisher.DirectProcessor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.gateway.support.NotFoundException;
+
+/**
+ * {@link RouteDefinitionRepository} persisting route definitions to an append-only log
+ * file, so that routes saved at runtime survive restarts. Every save or delete appends a
+ * record to the log, which is compacted to the current route definitions once it holds
+ * more than {@code compactionThreshold} obsolete records. Reads never lock, they see an
+ * immutable copy of the route definitions that writes replace. Changes are published
+ * through {@link #changes()}.
+ */
+public class FileRouteDefinitionRepository
+		implements RouteDefinitionRepository, DisposableBean {
+
+	private static final Log log = LogFactory.getLog(FileRouteDefinitionRepository.class);
+
+	private static final int MAGIC = 0x5343474c;
+
+	private static final int VERSION = 1;
+
+	private static final byte SAVE = 1;
+
+	private static final byte DELETE = 2;
+
+	private final Path location;
+
+	private final int compactionThreshold;
+
+	private final Object writeLock = new Object();
+
+	private final DirectProcessor<RouteDefinitionChange> changes = DirectProcessor
+			.create();
+
+	private final FluxSink<RouteDefinitionChange> changeSink = changes.sink();
+
+	private volatile Map<String, RouteDefinition> routes;
+
+	private FileChannel channel;
+
+	private int records;
+
+	// number of records before compaction is attempted again after it failed
+	private int compactAfter;
+
+	public FileRouteDefinitionRepository(Path location, int compactionThreshold) {
+		this.location = location;
+		this.compactionThreshold = compactionThreshold;
+		try {
+			open();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Unable to open route log " + location, e);
+		}
+	}
+
+	@Override
+	public Flux<RouteDefinition> getRouteDefinitions() {
+		return Flux.fromIterable(this.routes.values());
+	}
+
+	@Override
+	public Mono<Void> save(Mono<RouteDefinition> route) {
+		return route.flatMap(r -> Mono.fromCallable(() -> {
+			write(r.getId(), r);
+			return r;
+		}).subscribeOn(Schedulers.elastic())).then();
+	}
+
+	@Override
+	public Mono<Void> delete(Mono<String> routeId) {
+		return routeId.flatMap(id -> Mono.fromCallable(() -> {
+			if (!write(id, null)) {
+				throw new NotFoundException("RouteDefinition not found: " + id);
+			}
+			return id;
+		}).subscribeOn(Schedulers.elastic())).then();
+	}
+
+	/**
+	 * Returns the route definitions saved or deleted from now on, in the order they were
+	 * written. Each subscriber buffers the changes it has not consumed yet.
+	 * @return the changes
+	 */
+	public Flux<RouteDefinitionChange> changes() {
+		return this.changes.onBackpressureBuffer();
+	}
+
+	@Override
+	public void destroy() throws IOException {
+		synchronized (this.writeLock) {
+			this.changeSink.complete();
+			this.channel.close();
+		}
+	}
+
+	private boolean write(String id, RouteDefinition definition) throws IOException {
+		synchronized (this.writeLock) {
+			if (definition == null && !this.routes.containsKey(id)) {
+				return false;
+			}
+			long position = this.channel.position();
+			try {
+				append(this.channel, definition == null ? DELETE : SAVE, id, definition);
+			}
+			catch (IOException | RuntimeException e) {
+				// never leave a torn record behind, replay would stop there
+				try {
+					this.channel.truncate(position);
+					this.channel.position(position);
+				}
+				catch (IOException ex) {
+					e.addSuppressed(ex);
+				}
+				throw e;
+			}
+			this.records++;
+			Map<String, RouteDefinition> updated = new LinkedHashMap<>(this.routes);
+			if (definition == null) {
+				updated.remove(id);
+			}
+			else {
+				updated.put(id, definition);
+			}
+			this.routes = Collections.unmodifiableMap(updated);
+			if (this.records - updated.size() > this.compactionThreshold
+					&& this.records >= this.compactAfter) {
+				compact();
+			}
+			this.changeSink.next(definition == null ? RouteDefinitionChange.deleted(id)
+					: RouteDefinitionChange.saved(definition));
+			return true;
+		}
+	}
+
+	private void open() throws IOException {
+		Path parent = this.location.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		this.channel = FileChannel.open(this.location, StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		Map<String, RouteDefinition> loaded = new LinkedHashMap<>();
+		long size = this.channel.size();
+		if (size == 0) {
+			writeHeader(this.channel);
+		}
+		else {
+			ByteBuffer log = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			if (size < 8 || log.getInt() != MAGIC || log.getInt() != VERSION) {
+				this.channel.close();
+				throw new IOException("Not a route log");
+			}
+			long end = replay(log, loaded);
+			if (end < size) {
+				FileRouteDefinitionRepository.log.warn("Discarding " + (size - end)
+						+ " bytes of incomplete records at the end of " + this.location);
+				this.channel.truncate(end);
+			}
+		}
+		this.channel.position(this.channel.size());
+		this.routes = Collections.unmodifiableMap(loaded);
+	}
+
+	private long replay(ByteBuffer log, Map<String, RouteDefinition> loaded) {
+		long end = log.position();
+		while (log.remaining() > 4) {
+			int length = log.getInt();
+			if (length < 1 || length > log.remaining()) {
+				break;
+			}
+			ByteBuffer record = log.slice();
+			record.limit(length);
+			log.position(log.position() + length);
+			try {
+				byte type = record.get();
+				if (type == SAVE) {
+					RouteDefinition definition = RouteDefinitionSnapshot
+							.readRoute(record);
+					loaded.put(definition.getId(), definition);
+				}
+				else if (type == DELETE) {
+					loaded.remove(RouteDefinitionSnapshot.readString(record));
+				}
+				else {
+					break;
+				}
+			}
+			catch (BufferUnderflowException | IllegalArgumentException e) {
+				break;
+			}
+			this.records++;
+			end = log.position();
+		}
+		return end;
+	}
+
+	/**
+	 * Rewrites the log with a single record per route, replacing the old log only once
+	 * the new one is complete. After a failure, the next attempt waits for
+	 * {@code compactionThreshold} more records.
+	 */
+	private void compact() {
+		Path compacted = this.location
+				.resolveSibling(this.location.getFileName() + ".compact");
+		try {
+			try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				writeHeader(out);
+				for (RouteDefinition definition : this.routes.values()) {
+					append(out, SAVE, definition.getId(), definition);
+				}
+				out.force(true);
+			}
+			try {
+				Files.move(compacted, this.location, StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException e) {
+				Files.move(compacted, this.location,
+						StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		catch (IOException e) {
+			// retried once as many records as the threshold have been appended
+			this.compactAfter = this.records + this.compactionThreshold;
+			log.warn("Unable to compact route log " + this.location + ", retrying after "
+					+ this.compactionThreshold + " more records", e);
+			return;
+		}
+		try {
+			this.channel.close();
+			this.channel = FileChannel.open(this.location, StandardOpenOption.READ,
+					StandardOpenOption.WRITE);
+			this.channel.position(this.channel.size());
+			this.records = this.routes.size();
+			this.compactAfter = 0;
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Unable to reopen route log " + this.location,
+					e);
+		}
+	}
+
+	private static void writeHeader(FileChannel channel) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(8);
+		header.putInt(MAGIC).putInt(VERSION).flip();
+		writeFully(channel, header);
+	}
+
+	private static void append(FileChannel channel, byte type, String id,
+			RouteDefinition definition) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			// length placeholder
+			out.writeInt(0);
+			out.writeByte(type);
+			if (definition != null) {
+				RouteDefinitionSnapshot.writeRoute(out, definition);
+			}
+			else {
+				RouteDefinitionSnapshot.writeString(out, id);
+			}
+		}
+		ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+		record.putInt(0, record.remaining() - 4);
+		writeFully(channel, record);
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer)
+			throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.route;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.style.ToStringCreator;
+
+/**
+ * Configuration properties for the {@link FileRouteDefinitionRepository}.
+ */
+@ConfigurationProperties("spring.cloud.gateway.route-repository.file")
+public class FileRouteDefinitionRepositoryProperties {
+
+	/**
+	 * Enables persisting the route definitions saved at runtime to a log file, instead
+	 * of keeping them in memory only.
+	 */
+	private boolean enabled;
+
+	/**
+	 * Path of the log file.
+	 */
+	private String location = "gateway-routes.log";
+
+	/**
+	 * Number of obsolete records, that is saves and deletes that were overwritten later,
+	 * the log holds before it is compacted.
+	 */
+	private int compactionThreshold = 1000;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public String getLocation() {
+		return location;
+	}
+
+	public void setLocation(String location) {
+		this.location = location;
+	}
+
+	public int getCompactionThreshold() {
+		return compactionThreshold;
+	}
+
+	public void setCompactionThreshold(int compactionThreshold) {
+		this.compactionThreshold = compactionThreshold;
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringCreator(this).append("enabled", enabled)
+				.append("location", location)
+				.append("compactionThreshold", compactionThreshold).toString();
+	}
+
+}
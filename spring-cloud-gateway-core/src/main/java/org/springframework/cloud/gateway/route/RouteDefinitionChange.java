@@ -0,0 +1,86 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.route;
+
+import org.springframework.core.style.ToStringCreator;
+
+/**
+ * A route definition saved to or deleted from a {@link RouteDefinitionRepository}.
+ */
+public final class RouteDefinitionChange {
+
+	private final Type type;
+
+	private final String routeId;
+
+	private final RouteDefinition routeDefinition;
+
+	private RouteDefinitionChange(Type type, String routeId,
+			RouteDefinition routeDefinition) {
+		this.type = type;
+		this.routeId = routeId;
+		this.routeDefinition = routeDefinition;
+	}
+
+	public static RouteDefinitionChange saved(RouteDefinition routeDefinition) {
+		return new RouteDefinitionChange(Type.SAVED, routeDefinition.getId(),
+				routeDefinition);
+	}
+
+	public static RouteDefinitionChange deleted(String routeId) {
+		return new RouteDefinitionChange(Type.DELETED, routeId, null);
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public String getRouteId() {
+		return routeId;
+	}
+
+	/**
+	 * @return the saved route definition, or {@code null} if it was deleted
+	 */
+	public RouteDefinition getRouteDefinition() {
+		return routeDefinition;
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringCreator(this).append("type", type)
+				.append("routeId", routeId).toString();
+	}
+
+	/**
+	 * Kinds of changes.
+	 */
+	public enum Type {
+
+		/**
+		 * A route definition was added or replaced.
+		 */
+		SAVED,
+
+		/**
+		 * A route definition was deleted.
+		 */
+		DELETED
+
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.route;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * Applies {@link RouteDefinitionChange route definition changes} to the cached routes
+ * one route at a time, instead of converting all route definitions again as a
+ * {@link org.springframework.cloud.gateway.event.RefreshRoutesEvent} does.
+ */
+public class RouteDefinitionChangeRefresher implements DisposableBean {
+
+	private static final Log log = LogFactory
+			.getLog(RouteDefinitionChangeRefresher.class);
+
+	private final RouteDefinitionRouteLocator converter;
+
+	private final CachingRouteLocator routes;
+
+	private final Disposable subscription;
+
+	public RouteDefinitionChangeRefresher(Flux<RouteDefinitionChange> changes,
+			RouteDefinitionRouteLocator converter, CachingRouteLocator routes) {
+		this.converter = converter;
+		this.routes = routes;
+		this.subscription = changes.concatMap(this::apply).subscribe();
+	}
+
+	private Mono<Void> apply(RouteDefinitionChange change) {
+		String routeId = change.getRouteId();
+		if (change.getType() == RouteDefinitionChange.Type.DELETED) {
+			return Mono.fromRunnable(() -> this.routes.updateRoute(routeId, null));
+		}
+		return this.converter.getRoutes(Flux.just(change.getRouteDefinition())).next()
+				// a definition that fails to convert removes the previous route
+				.map(route -> {
+					this.routes.updateRoute(routeId, route);
+					return route;
+				}).switchIfEmpty(Mono.fromRunnable(
+						() -> this.routes.updateRoute(routeId, null)))
+				.then().onErrorResume(e -> {
+					log.warn("Unable to apply " + change, e);
+					return Mono.empty();
+				});
+	}
+
+	@Override
+	public void destroy() {
+		this.subscription.dispose();
+	}
+
+}
@@ -17,19 +17,25 @@
 package org.springframework.cloud.gateway.route;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.config.GatewayProperties;
 import org.springframework.cloud.gateway.event.FilterArgsEvent;
@@ -42,6 +48,7 @@ import org.springframework.cloud.gateway.handler.AsyncPredicate;
 import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
 import org.springframework.cloud.gateway.handler.predicate.RoutePredicateFactory;
 import org.springframework.cloud.gateway.support.ConfigurationUtils;
+import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.core.Ordered;
@@ -52,18 +59,27 @@ import org.springframework.validation.Validator;
 import org.springframework.web.server.ServerWebExchange;
 
 /**
- * {@link RouteLocator} that loads routes from a {@link RouteDefinitionLocator}.
+ * {@link RouteLocator} that loads routes from a {@link RouteDefinitionLocator}. Large
+ * sets of route definitions are converted in parallel on a dedicated scheduler; routes
+ * keep the order of their definitions either way. A definition that fails to convert is
+ * logged and skipped.
  *
  * @author Spencer Gibb
  */
-public class RouteDefinitionRouteLocator
-		implements RouteLocator, BeanFactoryAware, ApplicationEventPublisherAware {
+public class RouteDefinitionRouteLocator implements RouteLocator, BeanFactoryAware,
+		ApplicationEventPublisherAware, DisposableBean {
 
 	/**
 	 * Default filters name.
 	 */
 	public static final String DEFAULT_FILTERS = "defaultFilters";
 
+	/**
+	 * Below this number of route definitions, converting them on the calling thread is
+	 * cheaper than handing them over to the conversion scheduler.
+	 */
+	static final int PARALLEL_CONVERSION_THRESHOLD = 64;
+
 	protected final Log logger = LogFactory.getLog(getClass());
 
 	private final RouteDefinitionLocator routeDefinitionLocator;
@@ -82,6 +98,17 @@ public class RouteDefinitionRouteLocator
 
 	private ApplicationEventPublisher publisher;
 
+	private final int conversionParallelism = Runtime.getRuntime()
+			.availableProcessors();
+
+	private Scheduler conversionScheduler;
+
+	// filters of stateless factories by name and properties, shared by the routes of
+	// the current and the previous conversion
+	private volatile Map<List<Object>, GatewayFilter> sharedFilters = new ConcurrentHashMap<>();
+
+	private volatile Map<List<Object>, GatewayFilter> previousSharedFilters = new ConcurrentHashMap<>();
+
 	@Autowired
 	private Validator validator;
 
@@ -107,6 +134,22 @@ public class RouteDefinitionRouteLocator
 		this.publisher = publisher;
 	}
 
+	@Override
+	public synchronized void destroy() {
+		if (this.conversionScheduler != null) {
+			this.conversionScheduler.dispose();
+			this.conversionScheduler = null;
+		}
+	}
+
+	private synchronized Scheduler conversionScheduler() {
+		if (this.conversionScheduler == null) {
+			this.conversionScheduler = Schedulers.newParallel("route-conversion",
+					this.conversionParallelism, true);
+		}
+		return this.conversionScheduler;
+	}
+
 	private void initFactories(List<RoutePredicateFactory> predicates) {
 		predicates.forEach(factory -> {
 			String key = factory.name();
@@ -124,13 +167,13 @@ public class RouteDefinitionRouteLocator
 
 	@Override
 	public Flux<Route> getRoutes() {
-		return this.routeDefinitionLocator.getRouteDefinitions().map(this::convertToRoute)
-				// TODO: error handling
-				.map(route -> {
-					if (logger.isDebugEnabled()) {
-						logger.debug("RouteDefinition matched: " + route.getId());
-					}
-					return route;
+		return this.routeDefinitionLocator.getRouteDefinitions().collectList()
+				.flatMapMany(routeDefinitions -> {
+					// filters no route uses anymore are dropped after one more
+					// conversion of all routes
+					this.previousSharedFilters = this.sharedFilters;
+					this.sharedFilters = new ConcurrentHashMap<>();
+					return convertToRoutes(routeDefinitions);
 				});
 
 		/*
@@ -139,9 +182,72 @@ public class RouteDefinitionRouteLocator
 		 */
 	}
 
-	private Route convertToRoute(RouteDefinition routeDefinition) {
-		AsyncPredicate<ServerWebExchange> predicate = combinePredicates(routeDefinition);
-		List<GatewayFilter> gatewayFilters = getFilters(routeDefinition);
+	/**
+	 * Converts the given route definitions the way {@link #getRoutes()} converts the
+	 * definitions of the {@link RouteDefinitionLocator}, for example to rebuild the
+	 * routes of changed definitions only.
+	 * @param routeDefinitions the route definitions to convert
+	 * @return the routes, without the definitions that failed to convert
+	 */
+	public Flux<Route> getRoutes(Flux<RouteDefinition> routeDefinitions) {
+		return routeDefinitions.collectList().flatMapMany(this::convertToRoutes);
+	}
+
+	private Flux<Route> convertToRoutes(List<RouteDefinition> routeDefinitions) {
+		return convertInOrder(routeDefinitions)
+				// events are published in definition order, whichever thread
+				// converted the route
+				.filter(this::publishConversion).map(conversion -> {
+					Route route = conversion.route;
+					if (logger.isDebugEnabled()) {
+						logger.debug("RouteDefinition matched: " + route.getId());
+					}
+					return route;
+				});
+	}
+
+	private Flux<Conversion> convertInOrder(List<RouteDefinition> routeDefinitions) {
+		if (this.conversionParallelism < 2
+				|| routeDefinitions.size() < PARALLEL_CONVERSION_THRESHOLD) {
+			return Flux.range(0, routeDefinitions.size())
+					.map(index -> convert(index, routeDefinitions.get(index)));
+		}
+		// each rail converts its definitions in order, so merging the rails by index
+		// restores the order of the definitions
+		return Flux.range(0, routeDefinitions.size())
+				.parallel(this.conversionParallelism).runOn(conversionScheduler())
+				.map(index -> convert(index, routeDefinitions.get(index)))
+				.ordered(Comparator.comparingInt(conversion -> conversion.index));
+	}
+
+	private Conversion convert(int index, RouteDefinition routeDefinition) {
+		List<ApplicationEvent> events = new ArrayList<>();
+		try {
+			return new Conversion(index, routeDefinition,
+					convertToRoute(routeDefinition, events), events, null);
+		}
+		catch (RuntimeException e) {
+			return new Conversion(index, routeDefinition, null, events, e);
+		}
+	}
+
+	private boolean publishConversion(Conversion conversion) {
+		if (conversion.error != null) {
+			logger.error("Skipping RouteDefinition " + conversion.definition.getId()
+					+ ", unable to convert it to a route", conversion.error);
+			return false;
+		}
+		if (this.publisher != null) {
+			conversion.events.forEach(this.publisher::publishEvent);
+		}
+		return true;
+	}
+
+	private Route convertToRoute(RouteDefinition routeDefinition,
+			List<ApplicationEvent> events) {
+		AsyncPredicate<ServerWebExchange> predicate = combinePredicates(routeDefinition,
+				events);
+		List<GatewayFilter> gatewayFilters = getFilters(routeDefinition, events);
 
 		return Route.async(routeDefinition).asyncPredicate(predicate)
 				.replaceFilters(gatewayFilters).build();
@@ -149,7 +255,7 @@ public class RouteDefinitionRouteLocator
 
 	@SuppressWarnings("unchecked")
 	private List<GatewayFilter> loadGatewayFilters(String id,
-			List<FilterDefinition> filterDefinitions) {
+			List<FilterDefinition> filterDefinitions, List<ApplicationEvent> events) {
 		List<GatewayFilter> filters = filterDefinitions.stream().map(definition -> {
 			GatewayFilterFactory factory = this.gatewayFilterFactories
 					.get(definition.getName());
@@ -167,16 +273,10 @@ public class RouteDefinitionRouteLocator
 			Map<String, Object> properties = factory.shortcutType().normalize(args,
 					factory, this.parser, this.beanFactory);
 
-			Object configuration = factory.newConfig();
-
-			ConfigurationUtils.bind(configuration, properties,
-					factory.shortcutFieldPrefix(), definition.getName(), validator,
-					conversionService);
-
-			GatewayFilter gatewayFilter = factory.apply(configuration);
-			if (this.publisher != null) {
-				this.publisher.publishEvent(new FilterArgsEvent(this, id, properties));
-			}
+			GatewayFilter gatewayFilter = factory.isStateless()
+					? sharedFilter(factory, definition.getName(), properties)
+					: newFilter(factory, definition.getName(), properties);
+			events.add(new FilterArgsEvent(this, id, properties));
 			return gatewayFilter;
 		}).collect(Collectors.toList());
 
@@ -194,18 +294,48 @@ public class RouteDefinitionRouteLocator
 		return ordered;
 	}
 
-	private List<GatewayFilter> getFilters(RouteDefinition routeDefinition) {
+	private GatewayFilter sharedFilter(GatewayFilterFactory factory, String name,
+			Map<String, Object> properties) {
+		List<Object> key = Arrays.asList(name, properties);
+		Map<List<Object>, GatewayFilter> filters = this.sharedFilters;
+		GatewayFilter filter = filters.get(key);
+		if (filter == null) {
+			filter = this.previousSharedFilters.get(key);
+			if (filter == null) {
+				filter = newFilter(factory, name, properties);
+			}
+			GatewayFilter existing = filters.putIfAbsent(key, filter);
+			if (existing != null) {
+				filter = existing;
+			}
+		}
+		return filter;
+	}
+
+	@SuppressWarnings("unchecked")
+	private GatewayFilter newFilter(GatewayFilterFactory factory, String name,
+			Map<String, Object> properties) {
+		Object configuration = factory.newConfig();
+
+		ConfigurationUtils.bind(configuration, properties, factory.shortcutFieldPrefix(),
+				name, validator, conversionService);
+
+		return factory.apply(configuration);
+	}
+
+	private List<GatewayFilter> getFilters(RouteDefinition routeDefinition,
+			List<ApplicationEvent> events) {
 		List<GatewayFilter> filters = new ArrayList<>();
 
 		// TODO: support option to apply defaults after route specific filters?
 		if (!this.gatewayProperties.getDefaultFilters().isEmpty()) {
 			filters.addAll(loadGatewayFilters(DEFAULT_FILTERS,
-					this.gatewayProperties.getDefaultFilters()));
+					this.gatewayProperties.getDefaultFilters(), events));
 		}
 
 		if (!routeDefinition.getFilters().isEmpty()) {
 			filters.addAll(loadGatewayFilters(routeDefinition.getId(),
-					routeDefinition.getFilters()));
+					routeDefinition.getFilters(), events));
 		}
 
 		AnnotationAwareOrderComparator.sort(filters);
@@ -213,15 +343,15 @@ public class RouteDefinitionRouteLocator
 	}
 
 	private AsyncPredicate<ServerWebExchange> combinePredicates(
-			RouteDefinition routeDefinition) {
+			RouteDefinition routeDefinition, List<ApplicationEvent> events) {
 		List<PredicateDefinition> predicates = routeDefinition.getPredicates();
 		AsyncPredicate<ServerWebExchange> predicate = lookup(routeDefinition,
-				predicates.get(0));
+				predicates.get(0), events);
 
 		for (PredicateDefinition andPredicate : predicates.subList(1,
 				predicates.size())) {
 			AsyncPredicate<ServerWebExchange> found = lookup(routeDefinition,
-					andPredicate);
+					andPredicate, events);
 			predicate = predicate.and(found);
 		}
 
@@ -230,7 +360,7 @@ public class RouteDefinitionRouteLocator
 
 	@SuppressWarnings("unchecked")
 	private AsyncPredicate<ServerWebExchange> lookup(RouteDefinition route,
-			PredicateDefinition predicate) {
+			PredicateDefinition predicate, List<ApplicationEvent> events) {
 		RoutePredicateFactory<Object> factory = this.predicates.get(predicate.getName());
 		if (factory == null) {
 			throw new IllegalArgumentException(
@@ -248,11 +378,35 @@ public class RouteDefinitionRouteLocator
 		Object config = factory.newConfig();
 		ConfigurationUtils.bind(config, properties, factory.shortcutFieldPrefix(),
 				predicate.getName(), validator, conversionService);
-		if (this.publisher != null) {
-			this.publisher.publishEvent(
-					new PredicateArgsEvent(this, route.getId(), properties));
-		}
+		events.add(new PredicateArgsEvent(this, route.getId(), properties));
 		return factory.applyAsync(config);
 	}
 
+	/**
+	 * Outcome of converting a single route definition, along with the events to publish
+	 * once the route is accepted.
+	 */
+	private static final class Conversion {
+
+		private final int index;
+
+		private final RouteDefinition definition;
+
+		private final Route route;
+
+		private final List<ApplicationEvent> events;
+
+		private final RuntimeException error;
+
+		private Conversion(int index, RouteDefinition definition, Route route,
+				List<ApplicationEvent> events, RuntimeException error) {
+			this.index = index;
+			this.definition = definition;
+			this.route = route;
+			this.events = events;
+			this.error = error;
+		}
+
+	}
+
 }
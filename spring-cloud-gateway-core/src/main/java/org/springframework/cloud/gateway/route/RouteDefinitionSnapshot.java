@@ -0,0 +1,225 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.route;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+
+/**
+ * Compact binary encoding of a list of {@link RouteDefinition RouteDefinitions}, as
+ * persisted by the {@link SnapshotRouteDefinitionLocator}. The log of the
+ * {@link FileRouteDefinitionRepository} encodes single route definitions the same way.
+ * Strings are written as a length followed by their UTF-8 bytes, a length of -1 standing
+ * for {@code null}.
+ */
+final class RouteDefinitionSnapshot {
+
+	private static final int MAGIC = 0x53434752;
+
+	private static final int VERSION = 1;
+
+	private RouteDefinitionSnapshot() {
+		throw new AssertionError("Must not instantiate utility class.");
+	}
+
+	static byte[] encode(List<RouteDefinition> definitions) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+				128 * (definitions.size() + 1));
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(definitions.size());
+			for (RouteDefinition definition : definitions) {
+				writeRoute(out, definition);
+			}
+		}
+		catch (IOException e) {
+			// not thrown when writing to memory
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	static List<RouteDefinition> decode(ByteBuffer buffer) throws IOException {
+		try {
+			if (buffer.getInt() != MAGIC) {
+				throw new IOException("Not a route snapshot");
+			}
+			int version = buffer.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported route snapshot version " + version);
+			}
+			int count = buffer.getInt();
+			// a corrupt count must not size the list beyond the bytes left
+			List<RouteDefinition> definitions = new ArrayList<>(
+					Math.min(count, buffer.remaining()));
+			for (int i = 0; i < count; i++) {
+				definitions.add(readRoute(buffer));
+			}
+			return definitions;
+		}
+		catch (BufferUnderflowException | IllegalArgumentException e) {
+			throw new IOException("Corrupt route snapshot", e);
+		}
+	}
+
+	static void writeRoute(DataOutputStream out, RouteDefinition definition)
+			throws IOException {
+		writeString(out, definition.getId());
+		writeString(out,
+				definition.getUri() == null ? null : definition.getUri().toString());
+		out.writeInt(definition.getOrder());
+		out.writeInt(definition.getPredicates().size());
+		for (PredicateDefinition predicate : definition.getPredicates()) {
+			writeString(out, predicate.getName());
+			writeArgs(out, predicate.getArgs());
+		}
+		out.writeInt(definition.getFilters().size());
+		for (FilterDefinition filter : definition.getFilters()) {
+			writeString(out, filter.getName());
+			writeArgs(out, filter.getArgs());
+		}
+	}
+
+	/**
+	 * @param buffer the buffer positioned at an encoded route definition
+	 * @return the decoded route definition
+	 * @throws BufferUnderflowException if the buffer ends within the route definition
+	 */
+	static RouteDefinition readRoute(ByteBuffer buffer) {
+		RouteDefinition definition = new RouteDefinition();
+		definition.setId(readString(buffer));
+		String uri = readString(buffer);
+		definition.setUri(uri == null ? null : URI.create(uri));
+		definition.setOrder(buffer.getInt());
+		int predicates = buffer.getInt();
+		for (int p = 0; p < predicates; p++) {
+			PredicateDefinition predicate = new PredicateDefinition();
+			predicate.setName(readString(buffer));
+			predicate.setArgs(readArgs(buffer));
+			definition.getPredicates().add(predicate);
+		}
+		int filters = buffer.getInt();
+		for (int f = 0; f < filters; f++) {
+			FilterDefinition filter = new FilterDefinition();
+			filter.setName(readString(buffer));
+			filter.setArgs(readArgs(buffer));
+			definition.getFilters().add(filter);
+		}
+		return definition;
+	}
+
+	/**
+	 * Reads a snapshot by mapping the file into memory.
+	 * @param location the snapshot file
+	 * @return the route definitions, or {@code null} if there is no snapshot yet
+	 * @throws IOException if the snapshot cannot be read or is corrupt
+	 */
+	static List<RouteDefinition> read(Path location) throws IOException {
+		if (!Files.isRegularFile(location)) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(location,
+				StandardOpenOption.READ)) {
+			return decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * Replaces the snapshot file, writing a temporary sibling first so a crash never
+	 * leaves a partially written snapshot behind.
+	 * @param location the snapshot file
+	 * @param snapshot the encoded snapshot
+	 * @throws IOException if the snapshot cannot be written
+	 */
+	static void write(Path location, byte[] snapshot) throws IOException {
+		Path parent = location.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		Path temp = location.resolveSibling(location.getFileName() + ".tmp");
+		Files.write(temp, snapshot);
+		try {
+			Files.move(temp, location, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp, location, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static void writeArgs(DataOutputStream out, Map<String, String> args)
+			throws IOException {
+		out.writeInt(args.size());
+		for (Map.Entry<String, String> arg : args.entrySet()) {
+			writeString(out, arg.getKey());
+			writeString(out, arg.getValue());
+		}
+	}
+
+	private static Map<String, String> readArgs(ByteBuffer buffer) {
+		int size = buffer.getInt();
+		Map<String, String> args = new LinkedHashMap<>();
+		for (int i = 0; i < size; i++) {
+			args.put(readString(buffer), readString(buffer));
+		}
+		return args;
+	}
+
+	static void writeString(DataOutputStream out, String value)
+			throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0) {
+			return null;
+		}
+		if (length > buffer.remaining()) {
+			throw new BufferUnderflowException();
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
@@ -18,6 +18,8 @@ package org.springframework.cloud.gateway.route;
 
 import reactor.core.publisher.Flux;
 
+import org.springframework.web.server.ServerWebExchange;
+
 /**
  * @author Spencer Gibb
  */
@@ -26,4 +28,13 @@ public interface RouteLocator {
 
 	Flux<Route> getRoutes();
 
+	/**
+	 * Returns the routes the given exchange is matched against, all routes by default.
+	 * @param exchange the exchange to route
+	 * @return the routes for the exchange
+	 */
+	default Flux<Route> getRoutes(ServerWebExchange exchange) {
+		return getRoutes();
+	}
+
 }
@@ -34,11 +34,24 @@ public class RouteRefreshListener implements ApplicationListener<ApplicationEven
 
 	private final ApplicationEventPublisher publisher;
 
+	private final boolean refreshOnHeartbeat;
+
 	private HeartbeatMonitor monitor = new HeartbeatMonitor();
 
 	public RouteRefreshListener(ApplicationEventPublisher publisher) {
+		this(publisher, true);
+	}
+
+	/**
+	 * @param publisher the publisher of the {@link RefreshRoutesEvent RefreshRoutesEvents}
+	 * @param refreshOnHeartbeat whether a changed heartbeat refreshes the routes, turned
+	 * off when a route locator tracks the heartbeats itself
+	 */
+	public RouteRefreshListener(ApplicationEventPublisher publisher,
+			boolean refreshOnHeartbeat) {
 		Assert.notNull(publisher, "publisher may not be null");
 		this.publisher = publisher;
+		this.refreshOnHeartbeat = refreshOnHeartbeat;
 	}
 
 	@Override
@@ -59,7 +72,7 @@ public class RouteRefreshListener implements ApplicationListener<ApplicationEven
 	}
 
 	private void resetIfNeeded(Object value) {
-		if (this.monitor.update(value)) {
+		if (this.refreshOnHeartbeat && this.monitor.update(value)) {
 			reset();
 		}
 	}
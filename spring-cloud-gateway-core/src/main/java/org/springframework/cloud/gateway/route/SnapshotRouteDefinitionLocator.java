@@ -0,0 +1,191 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.route;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+
+/**
+ * {@link RouteDefinitionLocator} keeping the last known good route definitions of its
+ * delegate in a snapshot file. On startup the snapshot is served right away while the
+ * delegate is queried in the background; once it answers, a {@link RefreshRoutesEvent}
+ * swaps in the live routes. Whenever the delegate fails afterwards, for example because
+ * a service registry is unavailable, the last known good routes are served instead.
+ * The snapshot is written in the background, never on the thread loading the routes,
+ * and an empty result never replaces routes known before.
+ */
+public class SnapshotRouteDefinitionLocator
+		implements RouteDefinitionLocator, ApplicationEventPublisherAware {
+
+	private static final Log log = LogFactory
+			.getLog(SnapshotRouteDefinitionLocator.class);
+
+	private final RouteDefinitionLocator delegate;
+
+	private final Path location;
+
+	private final AtomicBoolean reconciling = new AtomicBoolean();
+
+	private final AtomicBoolean writing = new AtomicBoolean();
+
+	private final AtomicReference<List<RouteDefinition>> pendingWrite;
+
+	private volatile List<RouteDefinition> lastKnownGood;
+
+	private volatile byte[] lastWritten;
+
+	private volatile boolean reconciled;
+
+	private ApplicationEventPublisher publisher;
+
+	public SnapshotRouteDefinitionLocator(RouteDefinitionLocator delegate,
+			Path location) {
+		this.delegate = delegate;
+		this.location = location;
+		this.pendingWrite = new AtomicReference<>();
+		try {
+			this.lastKnownGood = RouteDefinitionSnapshot.read(location);
+			if (this.lastKnownGood != null) {
+				this.lastWritten = RouteDefinitionSnapshot.encode(this.lastKnownGood);
+				if (log.isDebugEnabled()) {
+					log.debug("Loaded " + this.lastKnownGood.size()
+							+ " route definitions from snapshot " + location);
+				}
+			}
+		}
+		catch (IOException e) {
+			log.warn("Ignoring unreadable route snapshot " + location, e);
+		}
+		// without a snapshot there is nothing to serve before the delegate answers
+		this.reconciled = this.lastKnownGood == null;
+	}
+
+	@Override
+	public void setApplicationEventPublisher(ApplicationEventPublisher publisher) {
+		this.publisher = publisher;
+	}
+
+	@Override
+	public Flux<RouteDefinition> getRouteDefinitions() {
+		List<RouteDefinition> snapshot = this.lastKnownGood;
+		if (!this.reconciled && snapshot != null) {
+			reconcile();
+			return Flux.fromIterable(snapshot);
+		}
+		return this.delegate.getRouteDefinitions().collectList().doOnNext(this::save)
+				.onErrorResume(this::lastKnownGood).flatMapIterable(Function.identity());
+	}
+
+	private void reconcile() {
+		if (!this.reconciling.compareAndSet(false, true)) {
+			return;
+		}
+		this.delegate.getRouteDefinitions().collectList()
+				.subscribeOn(Schedulers.elastic()).subscribe(definitions -> {
+					save(definitions);
+					this.reconciled = true;
+					if (this.publisher != null) {
+						this.publisher.publishEvent(new RefreshRoutesEvent(this));
+					}
+				}, error -> {
+					log.warn("Unable to load route definitions, serving snapshot "
+							+ this.location, error);
+					// retried on the next refresh
+					this.reconciling.set(false);
+				});
+	}
+
+	private Mono<List<RouteDefinition>> lastKnownGood(Throwable error) {
+		List<RouteDefinition> definitions = this.lastKnownGood;
+		if (definitions == null) {
+			return Mono.error(error);
+		}
+		log.warn("Unable to load route definitions, serving last known good routes",
+				error);
+		return Mono.just(definitions);
+	}
+
+	private void save(List<RouteDefinition> definitions) {
+		List<RouteDefinition> current = this.lastKnownGood;
+		if (definitions.isEmpty() && current != null && !current.isEmpty()) {
+			if (log.isDebugEnabled()) {
+				log.debug("Keeping the last known good routes instead of none");
+			}
+			return;
+		}
+		this.lastKnownGood = definitions;
+		this.pendingWrite.set(definitions);
+		scheduleWrite();
+	}
+
+	private void scheduleWrite() {
+		if (this.writing.compareAndSet(false, true)) {
+			Schedulers.elastic().schedule(this::writePending);
+		}
+	}
+
+	private void writePending() {
+		try {
+			List<RouteDefinition> definitions;
+			while ((definitions = this.pendingWrite.getAndSet(null)) != null) {
+				write(definitions);
+			}
+		}
+		finally {
+			this.writing.set(false);
+		}
+		// definitions saved after the loop ended but before the flag was cleared
+		if (this.pendingWrite.get() != null) {
+			scheduleWrite();
+		}
+	}
+
+	/* for testing */ boolean isWriting() {
+		return this.writing.get() || this.pendingWrite.get() != null;
+	}
+
+	private void write(List<RouteDefinition> definitions) {
+		byte[] snapshot = RouteDefinitionSnapshot.encode(definitions);
+		// RouteDefinition.equals ignores filters, so compare the encoded form
+		if (Arrays.equals(snapshot, this.lastWritten)) {
+			return;
+		}
+		try {
+			RouteDefinitionSnapshot.write(this.location, snapshot);
+			this.lastWritten = snapshot;
+		}
+		catch (IOException e) {
+			log.warn("Unable to write route snapshot " + this.location, e);
+		}
+	}
+
+}
@@ -19,6 +19,7 @@ package org.springframework.cloud.gateway.route.builder;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -48,6 +49,7 @@ import org.springframework.cloud.gateway.filter.factory.PreserveHostHeaderGatewa
 import org.springframework.cloud.gateway.filter.factory.RedirectToGatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.factory.RemoveRequestHeaderGatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.factory.RemoveResponseHeaderGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.RequestCoalescingGatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.factory.RequestHeaderToRequestUriGatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.factory.RequestRateLimiterGatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.factory.RequestSizeGatewayFilterFactory;
@@ -61,6 +63,8 @@ import org.springframework.cloud.gateway.filter.factory.SetRequestHeaderGatewayF
 import org.springframework.cloud.gateway.filter.factory.SetResponseHeaderGatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.factory.SetStatusGatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.factory.StripPrefixGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.cache.ResponseCacheGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.compression.ResponseCompressionGatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.factory.rewrite.ModifyRequestBodyGatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.factory.rewrite.ModifyResponseBodyGatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.factory.rewrite.RewriteFunction;
@@ -614,6 +618,44 @@ public class GatewayFilterSpec extends UriSpec {
 				.apply(c -> c.setMaxSize(size)));
 	}
 
+	/**
+	 * A filter that coalesces identical concurrent {@code GET} requests, so that only
+	 * one of them is routed and its response is replayed to the others.
+	 * @param headers the names of the request headers that, in addition to the method
+	 * and URI, identify identical requests
+	 * @return a {@link GatewayFilterSpec} that can be used to apply additional filters
+	 */
+	public GatewayFilterSpec coalesceRequests(String... headers) {
+		return filter(getBean(RequestCoalescingGatewayFilterFactory.class)
+				.apply(c -> c.setHeaders(Arrays.asList(headers))));
+	}
+
+	/**
+	 * A filter that caches cacheable {@code GET} responses and serves them without
+	 * routing the request.
+	 * @param configConsumer a {@link Consumer} which provides configuration for the
+	 * response cache
+	 * @return a {@link GatewayFilterSpec} that can be used to apply additional filters
+	 */
+	public GatewayFilterSpec cacheResponse(
+			Consumer<ResponseCacheGatewayFilterFactory.Config> configConsumer) {
+		return filter(getBean(ResponseCacheGatewayFilterFactory.class)
+				.apply(configConsumer));
+	}
+
+	/**
+	 * A filter that compresses response bodies with the encoding accepted by the
+	 * client.
+	 * @param configConsumer a {@link Consumer} which provides configuration for the
+	 * response compression
+	 * @return a {@link GatewayFilterSpec} that can be used to apply additional filters
+	 */
+	public GatewayFilterSpec compressResponse(
+			Consumer<ResponseCompressionGatewayFilterFactory.Config> configConsumer) {
+		return filter(getBean(ResponseCompressionGatewayFilterFactory.class)
+				.apply(configConsumer));
+	}
+
 	/**
 	 * Adds hystrix execution exception headers to fallback request. Depends on @{code
 	 * org.springframework.cloud::spring-cloud-starter-netflix-hystrix} being on the
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.support;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.context.expression.BeanFactoryResolver;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.ParserContext;
+import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * Bounded cache of parsed SpEL {@link Expression Expressions}, keyed by parser and
+ * expression text, so that route definitions converted again on every refresh do not
+ * parse the same expressions over and over. Parsed expressions are thread safe and can
+ * be shared by all routes using them.
+ */
+public final class ExpressionCache {
+
+	private static final int DEFAULT_MAX_SIZE = 4096;
+
+	private static final ExpressionCache SHARED = new ExpressionCache(DEFAULT_MAX_SIZE);
+
+	private static final ParserContext TEMPLATE = new TemplateParserContext();
+
+	private final Map<Key, Expression> expressions;
+
+	private final Map<BeanFactory, StandardEvaluationContext> contexts = new ConcurrentReferenceHashMap<>();
+
+	public ExpressionCache(int maxSize) {
+		this.expressions = new LinkedHashMap<Key, Expression>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Expression> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * @return the cache shared by the route locators and the shortcut configuration
+	 */
+	public static ExpressionCache shared() {
+		return SHARED;
+	}
+
+	public Expression parseExpression(ExpressionParser parser, String text) {
+		return parse(parser, text, null);
+	}
+
+	/**
+	 * Parses a template such as {@code #{@myBean}}, where the expressions are delimited
+	 * by {@code #{} and {@code }}.
+	 * @param parser the parser to use on a cache miss
+	 * @param text the template
+	 * @return the parsed template
+	 */
+	public Expression parseTemplate(ExpressionParser parser, String text) {
+		return parse(parser, text, TEMPLATE);
+	}
+
+	/**
+	 * Returns an evaluation context resolving bean references against the given bean
+	 * factory. The context is created once per bean factory and reused afterwards.
+	 * @param beanFactory the bean factory to resolve {@code @bean} references against
+	 * @return the evaluation context
+	 */
+	public StandardEvaluationContext getEvaluationContext(BeanFactory beanFactory) {
+		return this.contexts.computeIfAbsent(beanFactory, factory -> {
+			StandardEvaluationContext context = new StandardEvaluationContext();
+			context.setBeanResolver(new BeanFactoryResolver(factory));
+			return context;
+		});
+	}
+
+	public int size() {
+		synchronized (this.expressions) {
+			return this.expressions.size();
+		}
+	}
+
+	private Expression parse(ExpressionParser parser, String text,
+			ParserContext context) {
+		Key key = new Key(parser, text, context);
+		synchronized (this.expressions) {
+			Expression expression = this.expressions.get(key);
+			if (expression != null) {
+				return expression;
+			}
+		}
+		// parse outside of the lock, racing threads at worst parse the same text twice
+		Expression expression = context == null ? parser.parseExpression(text)
+				: parser.parseExpression(text, context);
+		synchronized (this.expressions) {
+			this.expressions.put(key, expression);
+		}
+		return expression;
+	}
+
+	private static final class Key {
+
+		private final ExpressionParser parser;
+
+		private final String text;
+
+		private final ParserContext context;
+
+		private Key(ExpressionParser parser, String text, ParserContext context) {
+			this.parser = parser;
+			this.text = text;
+			this.context = context;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			Key that = (Key) o;
+			return this.parser == that.parser && this.context == that.context
+					&& Objects.equals(this.text, that.text);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(this.parser) + Objects.hashCode(this.text);
+		}
+
+	}
+
+}
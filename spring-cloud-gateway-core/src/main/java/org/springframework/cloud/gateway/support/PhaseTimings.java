@@ -0,0 +1,183 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.support;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.springframework.web.server.ServerWebExchange;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_PHASE_TIMINGS_ATTR;
+
+/**
+ * Timestamps of the phases an exchange goes through in the gateway. Components mark
+ * the start and end of phases with {@link #mark(ServerWebExchange, Mark)}, which does
+ * nothing unless phase timing is enabled and an instance is stored in the
+ * {@link ServerWebExchangeUtils#GATEWAY_PHASE_TIMINGS_ATTR} attribute. Marks are
+ * recorded sequentially by the reactive pipeline, a mark recorded again, as happens
+ * when a request is retried, replaces the previous one.
+ */
+public final class PhaseTimings {
+
+	private static final long UNSET = Long.MIN_VALUE;
+
+	private final long[] marks = new long[Mark.values().length];
+
+	public PhaseTimings() {
+		Arrays.fill(marks, UNSET);
+	}
+
+	/**
+	 * Marks the given point in time for the exchange, if phase timing is enabled.
+	 * @param exchange the current exchange
+	 * @param mark the point in time reached
+	 */
+	public static void mark(ServerWebExchange exchange, Mark mark) {
+		PhaseTimings timings = exchange.getAttribute(GATEWAY_PHASE_TIMINGS_ATTR);
+		if (timings != null) {
+			timings.mark(mark);
+		}
+	}
+
+	public void mark(Mark mark) {
+		marks[mark.ordinal()] = System.nanoTime();
+	}
+
+	/**
+	 * @param phase a phase
+	 * @return the duration of the phase in nanoseconds, or -1 if the exchange did not
+	 * go through it
+	 */
+	public long getDuration(Phase phase) {
+		long start = marks[phase.start.ordinal()];
+		long end = marks[phase.end.ordinal()];
+		if (start == UNSET || end == UNSET || end < start) {
+			return -1;
+		}
+		return end - start;
+	}
+
+	/**
+	 * @return the durations of the completed phases as a {@code Server-Timing} header
+	 * value, empty if no phase completed
+	 */
+	public String toServerTiming() {
+		StringBuilder value = new StringBuilder();
+		for (Phase phase : Phase.values()) {
+			long duration = getDuration(phase);
+			if (duration >= 0) {
+				if (value.length() > 0) {
+					value.append(", ");
+				}
+				value.append(phase.getName()).append(";dur=").append(
+						String.format(Locale.ROOT, "%.3f", duration / 1_000_000.0));
+			}
+		}
+		return value.toString();
+	}
+
+	/**
+	 * Points in time marked while an exchange is processed.
+	 */
+	public enum Mark {
+
+		/**
+		 * The route lookup started.
+		 */
+		ROUTE_LOOKUP_START,
+
+		/**
+		 * A route matched the exchange.
+		 */
+		ROUTE_LOOKUP_END,
+
+		/**
+		 * The filter chain of the route started.
+		 */
+		FILTERS_START,
+
+		/**
+		 * The routing filter started sending the request downstream.
+		 */
+		ROUTING_START,
+
+		/**
+		 * A connection to the downstream service was acquired.
+		 */
+		CONNECTED,
+
+		/**
+		 * The response headers of the downstream service were received.
+		 */
+		RESPONSE_HEADERS,
+
+		/**
+		 * The response body was written to the client.
+		 */
+		RESPONSE_COMPLETE
+
+	}
+
+	/**
+	 * Phases of an exchange, each delimited by two {@link Mark marks}.
+	 */
+	public enum Phase {
+
+		/**
+		 * Matching the route predicates.
+		 */
+		ROUTE_LOOKUP("route", Mark.ROUTE_LOOKUP_START, Mark.ROUTE_LOOKUP_END),
+
+		/**
+		 * Running the filters ordered before the routing filter.
+		 */
+		FILTERS("filters", Mark.FILTERS_START, Mark.ROUTING_START),
+
+		/**
+		 * Acquiring a connection from the pool, or opening one.
+		 */
+		CONNECT("connect", Mark.ROUTING_START, Mark.CONNECTED),
+
+		/**
+		 * Waiting for the response headers of the downstream service.
+		 */
+		UPSTREAM("upstream", Mark.CONNECTED, Mark.RESPONSE_HEADERS),
+
+		/**
+		 * Streaming the response body to the client.
+		 */
+		BODY("body", Mark.RESPONSE_HEADERS, Mark.RESPONSE_COMPLETE);
+
+		private final String name;
+
+		private final Mark start;
+
+		private final Mark end;
+
+		Phase(String name, Mark start, Mark end) {
+			this.name = name;
+			this.start = start;
+			this.end = end;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+	}
+
+}
@@ -130,6 +130,12 @@ public final class ServerWebExchangeUtils {
 	public static final String GATEWAY_ALREADY_PREFIXED_ATTR = qualify(
 			"gatewayAlreadyPrefixed");
 
+	/**
+	 * Gateway phase timings attribute name.
+	 */
+	public static final String GATEWAY_PHASE_TIMINGS_ATTR = qualify(
+			"gatewayPhaseTimings");
+
 	private static final Log logger = LogFactory.getLog(ServerWebExchangeUtils.class);
 
 	private ServerWebExchangeUtils() {
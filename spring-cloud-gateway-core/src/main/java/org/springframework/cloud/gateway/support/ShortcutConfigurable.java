@@ -24,11 +24,8 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.BeanFactory;
-import org.springframework.context.expression.BeanFactoryResolver;
 import org.springframework.expression.Expression;
-import org.springframework.expression.common.TemplateParserContext;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.util.Assert;
 
 /**
@@ -57,11 +54,9 @@ public interface ShortcutConfigurable {
 		}
 		if (rawValue != null && rawValue.startsWith("#{") && entryValue.endsWith("}")) {
 			// assume it's spel
-			StandardEvaluationContext context = new StandardEvaluationContext();
-			context.setBeanResolver(new BeanFactoryResolver(beanFactory));
-			Expression expression = parser.parseExpression(entryValue,
-					new TemplateParserContext());
-			value = expression.getValue(context);
+			ExpressionCache cache = ExpressionCache.shared();
+			Expression expression = cache.parseTemplate(parser, entryValue);
+			value = expression.getValue(cache.getEvaluationContext(beanFactory));
 		}
 		else {
 			value = entryValue;
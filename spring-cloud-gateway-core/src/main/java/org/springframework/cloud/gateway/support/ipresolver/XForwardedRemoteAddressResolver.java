@@ -16,12 +16,12 @@
 
 package org.springframework.cloud.gateway.support.ipresolver;
 
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
-import java.util.Arrays;
-import java.util.Collections;
+import java.net.UnknownHostException;
 import java.util.List;
 
-import org.apache.logging.log4j.util.Strings;
+import io.netty.util.NetUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,8 +55,12 @@ public class XForwardedRemoteAddressResolver implements RemoteAddressResolver {
 
 	private final int maxTrustedIndex;
 
+	private final String resolvedAttribute;
+
 	private XForwardedRemoteAddressResolver(int maxTrustedIndex) {
 		this.maxTrustedIndex = maxTrustedIndex;
+		this.resolvedAttribute = XForwardedRemoteAddressResolver.class.getName()
+				+ ".resolved." + maxTrustedIndex;
 	}
 
 	/**
@@ -102,37 +106,115 @@ public class XForwardedRemoteAddressResolver implements RemoteAddressResolver {
 
 	/**
 	 * The X-Forwarded-For header contains a comma separated list of IP addresses. This
-	 * method parses those IP addresses into a list. If no X-Forwarded-For header is
-	 * found, an empty list is returned. If multiple X-Forwarded-For headers are found, an
-	 * empty list is returned out of caution.
-	 * @return The parsed values of the X-Forwarded-Header.
+	 * method scans the list backwards for the address at the trusted index, without
+	 * splitting it. If no X-Forwarded-For header is found, or if it is blank, or if
+	 * multiple X-Forwarded-For headers are found out of caution, the address is resolved
+	 * by the default {@link RemoteAddressResolver}. The address parsed from a header is
+	 * kept as an exchange attribute, so resolving it again for the same request is
+	 * cheap.
+	 * @return The parsed value of the X-Forwarded-Header at the trusted index.
 	 */
 	@Override
 	public InetSocketAddress resolve(ServerWebExchange exchange) {
-		List<String> xForwardedValues = extractXForwardedValues(exchange);
-		Collections.reverse(xForwardedValues);
-		if (!xForwardedValues.isEmpty()) {
-			int index = Math.min(xForwardedValues.size(), maxTrustedIndex) - 1;
-			return new InetSocketAddress(xForwardedValues.get(index), 0);
-		}
-		return defaultRemoteIpResolver.resolve(exchange);
-	}
-
-	private List<String> extractXForwardedValues(ServerWebExchange exchange) {
 		List<String> xForwardedValues = exchange.getRequest().getHeaders()
 				.get(X_FORWARDED_FOR);
 		if (xForwardedValues == null || xForwardedValues.isEmpty()) {
-			return Collections.emptyList();
+			return defaultRemoteIpResolver.resolve(exchange);
 		}
 		if (xForwardedValues.size() > 1) {
 			log.warn("Multiple X-Forwarded-For headers found, discarding all");
-			return Collections.emptyList();
+			return defaultRemoteIpResolver.resolve(exchange);
+		}
+		String xForwardedFor = xForwardedValues.get(0);
+		Resolved resolved = exchange.getAttribute(resolvedAttribute);
+		if (resolved != null && resolved.xForwardedFor.equals(xForwardedFor)) {
+			return resolved.address;
+		}
+		InetSocketAddress address = parse(xForwardedFor);
+		if (address == null) {
+			return defaultRemoteIpResolver.resolve(exchange);
 		}
-		List<String> values = Arrays.asList(xForwardedValues.get(0).split(", "));
-		if (values.size() == 1 && Strings.isBlank(values.get(0))) {
-			return Collections.emptyList();
+		exchange.getAttributes().put(resolvedAttribute,
+				new Resolved(xForwardedFor, address));
+		return address;
+	}
+
+	private InetSocketAddress parse(String xForwardedFor) {
+		int remaining = maxTrustedIndex;
+		int valueStart = -1;
+		int valueEnd = -1;
+		int end = xForwardedFor.length();
+		while (true) {
+			int comma = xForwardedFor.lastIndexOf(',', end - 1);
+			int start = comma + 1;
+			while (start < end
+					&& Character.isWhitespace(xForwardedFor.charAt(start))) {
+				start++;
+			}
+			while (end > start
+					&& Character.isWhitespace(xForwardedFor.charAt(end - 1))) {
+				end--;
+			}
+			// empty values, as in "a,,b", are skipped
+			if (start < end) {
+				valueStart = start;
+				valueEnd = end;
+				if (--remaining == 0) {
+					break;
+				}
+			}
+			if (comma < 0) {
+				break;
+			}
+			end = comma;
+		}
+		if (valueStart < 0) {
+			return null;
 		}
-		return values;
+		return toAddress(xForwardedFor.substring(valueStart, valueEnd));
+	}
+
+	/**
+	 * Builds the address of a value without any name service lookup. IP addresses are
+	 * parsed, anything else such as an obfuscated identifier gives an unresolved
+	 * address.
+	 */
+	private static InetSocketAddress toAddress(String value) {
+		String host = value;
+		int colon = host.indexOf(':');
+		if (host.startsWith("[")) {
+			int close = host.indexOf(']');
+			if (close > 0) {
+				host = host.substring(1, close);
+			}
+		}
+		else if (colon > 0 && colon == host.lastIndexOf(':')) {
+			// IPv4 address or name with a port
+			host = host.substring(0, colon);
+		}
+		byte[] bytes = NetUtil.createByteArrayFromIpAddressString(host);
+		if (bytes != null) {
+			try {
+				return new InetSocketAddress(InetAddress.getByAddress(host, bytes), 0);
+			}
+			catch (UnknownHostException e) {
+				// only thrown for addresses of illegal length
+			}
+		}
+		return InetSocketAddress.createUnresolved(host, 0);
+	}
+
+	private static final class Resolved {
+
+		private final String xForwardedFor;
+
+		private final InetSocketAddress address;
+
+		private Resolved(String xForwardedFor, InetSocketAddress address) {
+			this.xForwardedFor = xForwardedFor;
+			this.address = address;
+		}
+
 	}
 
 }
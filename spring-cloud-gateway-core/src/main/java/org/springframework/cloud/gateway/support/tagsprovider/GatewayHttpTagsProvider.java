@@ -0,0 +1,76 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.support.tagsprovider;
+
+import io.micrometer.core.instrument.Tags;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.AbstractServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * Tags the {@code gateway.requests} timer with the outcome, status, status code and
+ * method of the exchange.
+ */
+public class GatewayHttpTagsProvider implements GatewayTagsProvider {
+
+	/**
+	 * Outcome and status of responses with a non standard status code.
+	 */
+	public static final String CUSTOM = "CUSTOM";
+
+	@Override
+	public Tags apply(ServerWebExchange exchange) {
+		String outcome = CUSTOM;
+		String status = CUSTOM;
+		String httpStatusCodeStr = "NA";
+
+		String httpMethod = exchange.getRequest().getMethodValue();
+
+		Integer statusInt = statusCode(exchange.getResponse());
+		if (statusInt != null) {
+			status = String.valueOf(statusInt);
+			httpStatusCodeStr = status;
+			HttpStatus resolved = HttpStatus.resolve(statusInt);
+			if (resolved != null) {
+				// this is not a CUSTOM status, so use series here.
+				outcome = resolved.series().name();
+				status = resolved.name();
+			}
+		}
+
+		return Tags.of("outcome", outcome, "status", status, "httpStatusCode",
+				httpStatusCodeStr, "httpMethod", httpMethod);
+	}
+
+	/**
+	 * @param response the response of an exchange
+	 * @return the raw status code of the response, or {@code null} if none was set
+	 */
+	public static Integer statusCode(ServerHttpResponse response) {
+		// a non standard HTTPS status could be used. Let's be defensive here
+		// it needs to be checked for first, otherwise the delegate response
+		// who's status DIDN"T change, will be used
+		if (response instanceof AbstractServerHttpResponse) {
+			return ((AbstractServerHttpResponse) response).getStatusCodeValue();
+		}
+		HttpStatus statusCode = response.getStatusCode();
+		return statusCode != null ? statusCode.value() : null;
+	}
+
+}
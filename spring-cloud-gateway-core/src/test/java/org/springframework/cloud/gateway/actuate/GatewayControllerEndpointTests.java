@@ -29,6 +29,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.web.server.LocalServerPort;
 import org.springframework.cloud.gateway.test.PermitAllSecurityConfiguration;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
@@ -62,6 +63,146 @@ public class GatewayControllerEndpointTests {
 				});
 	}
 
+	@Test
+	public void testRoutesPagedSummary() {
+		testClient.get()
+				.uri("http://localhost:" + port
+						+ "/actuator/gateway/routes?summary=true&offset=1&limit=2")
+				.accept(MediaType.APPLICATION_STREAM_JSON).exchange().expectStatus()
+				.isOk().expectBodyList(Map.class).consumeWith(result -> {
+					List<Map> responseBody = result.getResponseBody();
+					assertThat(responseBody).hasSize(2);
+					assertThat(responseBody.get(0)).containsOnlyKeys("route_id",
+							"order", "uri");
+				});
+	}
+
+	@Test
+	public void testRoutesWithPrefix() {
+		testClient.get()
+				.uri("http://localhost:" + port
+						+ "/actuator/gateway/routes?prefix=no_such_route")
+				.exchange().expectStatus().isOk().expectBodyList(Map.class)
+				.hasSize(0);
+	}
+
+	@Test
+	public void testFilterProfileNotEnabled() {
+		testClient.get()
+				.uri("http://localhost:" + port + "/actuator/gateway/filterprofile")
+				.exchange().expectStatus().isNotFound();
+	}
+
+	@Test
+	public void testBulkImportAndExport() {
+		// load the cached routes, so the import updates them in place
+		testClient.get().uri("http://localhost:" + port + "/actuator/gateway/routes")
+				.exchange().expectStatus().isOk();
+
+		testClient.post()
+				.uri("http://localhost:" + port
+						+ "/actuator/gateway/routedefinitions")
+				.contentType(MediaType.APPLICATION_STREAM_JSON)
+				.syncBody(routeJson("bulk_route1") + "\n" + routeJson("bulk_route2"))
+				.exchange().expectStatus().isOk().expectBody()
+				.jsonPath("$.saved").isEqualTo(2);
+
+		testClient.get()
+				.uri("http://localhost:" + port + "/actuator/gateway/routedefinitions")
+				.accept(MediaType.APPLICATION_STREAM_JSON).exchange().expectStatus()
+				.isOk().expectBodyList(Map.class).consumeWith(result -> {
+					assertThat(result.getResponseBody())
+							.extracting(route -> route.get("id"))
+							.contains("bulk_route1", "bulk_route2");
+				});
+		testClient.get().uri("http://localhost:" + port + "/actuator/gateway/routes")
+				.exchange().expectStatus().isOk().expectBodyList(Map.class)
+				.consumeWith(result -> {
+					assertThat(result.getResponseBody())
+							.extracting(route -> route.get("route_id"))
+							.contains("bulk_route1", "bulk_route2");
+				});
+	}
+
+	@Test
+	public void testBulkImportRejectsInvalidBatch() {
+		String invalid = "{\"id\":\"bulk_invalid2\",\"uri\":\"http://localhost\","
+				+ "\"predicates\":[{\"name\":\"DoesNotExist\"}]}";
+		testClient.post()
+				.uri("http://localhost:" + port
+						+ "/actuator/gateway/routedefinitions")
+				.contentType(MediaType.APPLICATION_STREAM_JSON)
+				.syncBody(routeJson("bulk_invalid1") + "\n" + invalid).exchange()
+				.expectStatus().isBadRequest().expectBody()
+				.jsonPath("$.invalid_routes[0]").isEqualTo("bulk_invalid2");
+
+		testClient.get()
+				.uri("http://localhost:" + port
+						+ "/actuator/gateway/routes/bulk_invalid1")
+				.exchange().expectStatus().isNotFound();
+	}
+
+	@Test
+	public void testBulkImportRejectsDefinitionWithoutId() {
+		String withoutId = "{\"uri\":\"http://localhost\",\"predicates\":"
+				+ "[{\"name\":\"Path\",\"args\":{\"_genkey_0\":\"/no_id\"}}]}";
+		testClient.post()
+				.uri("http://localhost:" + port
+						+ "/actuator/gateway/routedefinitions")
+				.contentType(MediaType.APPLICATION_STREAM_JSON)
+				.syncBody(routeJson("bulk_with_id") + "\n" + withoutId).exchange()
+				.expectStatus().isBadRequest().expectBody()
+				.jsonPath("$.invalid_routes.length()").isEqualTo(1);
+
+		testClient.get()
+				.uri("http://localhost:" + port
+						+ "/actuator/gateway/routes/bulk_with_id")
+				.exchange().expectStatus().isNotFound();
+	}
+
+	@Test
+	public void testStagedImportIsWrittenWhenPromoted() {
+		String base = "http://localhost:" + port + "/actuator/gateway";
+		testClient.get().uri(base + "/routes").exchange().expectStatus().isOk();
+
+		Map staged = testClient.post()
+				.uri(base + "/routedefinitions?stage=true&header=X-Canary")
+				.contentType(MediaType.APPLICATION_STREAM_JSON)
+				.syncBody(routeJson("staged_route")).exchange().expectStatus().isOk()
+				.expectBody(Map.class).returnResult().getResponseBody();
+		assertThat(staged).containsEntry("saved", 1);
+		Object version = staged.get("version");
+
+		testClient.get().uri(base + "/routedefinitions")
+				.accept(MediaType.APPLICATION_STREAM_JSON).exchange().expectStatus()
+				.isOk().expectBodyList(Map.class).consumeWith(result -> {
+					assertThat(result.getResponseBody())
+							.extracting(route -> route.get("id"))
+							.doesNotContain("staged_route");
+				});
+		testClient.get().uri(base + "/routetables").exchange().expectStatus().isOk()
+				.expectBody().jsonPath("$.candidate.header").isEqualTo("X-Canary");
+
+		testClient.post().uri(base + "/routetables/candidate/" + version + "/promote")
+				.exchange().expectStatus().isOk();
+
+		testClient.get().uri(base + "/routedefinitions")
+				.accept(MediaType.APPLICATION_STREAM_JSON).exchange().expectStatus()
+				.isOk().expectBodyList(Map.class).consumeWith(result -> {
+					assertThat(result.getResponseBody())
+							.extracting(route -> route.get("id"))
+							.contains("staged_route");
+				});
+		testClient.post().uri(base + "/routetables/candidate/" + version + "/promote")
+				.exchange().expectStatus().isNotFound();
+	}
+
+	private String routeJson(String id) {
+		return "{\"id\":\"" + id + "\",\"uri\":\"http://localhost\","
+				+ "\"predicates\":[{\"name\":\"Path\",\"args\":{\"_genkey_0\":\"/"
+				+ id + "\"}}]}";
+	}
+
 	@SpringBootConfiguration
 	@EnableAutoConfiguration
 	@Import(PermitAllSecurityConfiguration.class)
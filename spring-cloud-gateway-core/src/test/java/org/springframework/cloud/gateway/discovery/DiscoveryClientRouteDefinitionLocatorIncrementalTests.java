@@ -0,0 +1,164 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.discovery;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DiscoveryClientRouteDefinitionLocatorIncrementalTests {
+
+	private final DiscoveryClient discoveryClient = mock(DiscoveryClient.class);
+
+	private final DiscoveryLocatorProperties properties = new DiscoveryLocatorProperties();
+
+	private final BlockingQueue<Object> events = new LinkedBlockingQueue<>();
+
+	private DiscoveryClientRouteDefinitionLocator locator;
+
+	@Before
+	public void setup() {
+		properties.setIncremental(true);
+		properties.setRouteIdPrefix("test_");
+		properties.setPredicates(GatewayDiscoveryClientAutoConfiguration.initPredicates());
+		properties.setFilters(GatewayDiscoveryClientAutoConfiguration.initFilters());
+		whenInstance("service1", "host1");
+		whenInstance("service2", "host2");
+		when(discoveryClient.getServices())
+				.thenReturn(Collections.singletonList("service1"));
+		locator = new DiscoveryClientRouteDefinitionLocator(discoveryClient, properties);
+		locator.setApplicationEventPublisher(events::add);
+	}
+
+	@Test
+	public void servesRoutesFromMemoryAfterFirstLoad() {
+		assertThat(routeIds()).containsExactly("test_service1");
+		assertThat(routeIds()).containsExactly("test_service1");
+
+		verify(discoveryClient, times(1)).getServices();
+		verify(discoveryClient, times(1)).getInstances("service1");
+	}
+
+	@Test
+	public void looksUpNewServicesOnlyOnChangedHeartbeat() throws Exception {
+		routeIds();
+		when(discoveryClient.getServices())
+				.thenReturn(Arrays.asList("service1", "service2"));
+
+		locator.onApplicationEvent(new HeartbeatEvent(this, 1L));
+
+		assertThat(events.poll(5, TimeUnit.SECONDS))
+				.isInstanceOf(RefreshRoutesEvent.class);
+		assertThat(routeIds()).containsExactly("test_service1", "test_service2");
+		verify(discoveryClient, times(1)).getInstances("service1");
+		verify(discoveryClient, times(1)).getInstances("service2");
+	}
+
+	@Test
+	public void dropsRoutesOfRemovedServices() {
+		when(discoveryClient.getServices())
+				.thenReturn(Arrays.asList("service1", "service2"));
+		routeIds();
+		when(discoveryClient.getServices())
+				.thenReturn(Collections.singletonList("service2"));
+
+		assertThat(locator.update()).isTrue();
+		assertThat(routeIds()).containsExactly("test_service2");
+	}
+
+	@Test
+	public void unchangedRoutesAreNotRefreshed() throws Exception {
+		routeIds();
+
+		locator.onApplicationEvent(new HeartbeatEvent(this, 1L));
+		locator.onApplicationEvent(new HeartbeatEvent(this, 1L));
+
+		assertThat(events.poll(200, TimeUnit.MILLISECONDS)).isNull();
+		assertThat(locator.update()).isFalse();
+		verify(discoveryClient, times(1)).getInstances("service1");
+	}
+
+	@Test
+	public void looksUpKnownServicesWhenRoutesDependOnInstances() {
+		properties.setUrlExpression("'http://'+host");
+		routeIds();
+		whenInstance("service1", "host3");
+
+		assertThat(locator.update()).isTrue();
+
+		assertThat(locator.getRouteDefinitions().blockFirst().getUri())
+				.hasHost("host3");
+		verify(discoveryClient, times(2)).getInstances("service1");
+	}
+
+	@Test
+	public void knownServicesWithoutInstancesKeepTheirRoutes() {
+		routeIds();
+		when(discoveryClient.getInstances("service1"))
+				.thenReturn(Collections.emptyList());
+
+		assertThat(locator.update()).isFalse();
+		assertThat(routeIds()).containsExactly("test_service1");
+
+		// a full lookup drops them
+		properties.setIncremental(false);
+		assertThat(routeIds()).isEmpty();
+	}
+
+	@Test
+	public void ignoresHeartbeatsWhenNotIncremental() throws Exception {
+		properties.setIncremental(false);
+
+		locator.onApplicationEvent(new HeartbeatEvent(this, 1L));
+
+		assertThat(events.poll(200, TimeUnit.MILLISECONDS)).isNull();
+		verify(discoveryClient, never()).getServices();
+	}
+
+	private List<String> routeIds() {
+		return locator.getRouteDefinitions().map(RouteDefinition::getId).collectList()
+				.block();
+	}
+
+	private void whenInstance(String serviceId, String host) {
+		ServiceInstance instance = new DefaultServiceInstance(serviceId + "_1",
+				serviceId, host, 8001, false);
+		when(discoveryClient.getInstances(serviceId))
+				.thenReturn(Collections.singletonList(instance));
+	}
+
+}
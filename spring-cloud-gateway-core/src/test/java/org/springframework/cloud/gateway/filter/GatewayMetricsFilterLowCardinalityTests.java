@@ -0,0 +1,69 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.filter;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.tagsprovider.GatewayHttpTagsProvider;
+import org.springframework.cloud.gateway.support.tagsprovider.GatewayRouteTagsProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+public class GatewayMetricsFilterLowCardinalityTests {
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final GatewayMetricsFilter filter = new GatewayMetricsFilter(meterRegistry,
+			Arrays.asList(new GatewayHttpTagsProvider(), new GatewayRouteTagsProvider()),
+			true);
+
+	@Test
+	public void timersAreTaggedWithRouteAndOutcomeOnly() {
+		filter(HttpStatus.OK);
+		filter(HttpStatus.CREATED);
+		filter(HttpStatus.NOT_FOUND);
+
+		assertThat(meterRegistry.get("gateway.requests").tag("routeId", "route1")
+				.tag("outcome", "SUCCESSFUL").timer().count()).isEqualTo(2);
+		assertThat(meterRegistry.get("gateway.requests").tag("routeId", "route1")
+				.tag("outcome", "CLIENT_ERROR").timer().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("gateway.requests").timers()).hasSize(2)
+				.allSatisfy(timer -> assertThat(timer.getId().getTags()).hasSize(2));
+	}
+
+	private void filter(HttpStatus status) {
+		MockServerWebExchange exchange = MockServerWebExchange
+				.from(MockServerHttpRequest.get("http://localhost/get"));
+		exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, Route.async().id("route1")
+				.uri("http://localhost").predicate(e -> true).build());
+		filter.filter(exchange, e -> {
+			e.getResponse().setStatusCode(status);
+			return e.getResponse().setComplete();
+		}).block(Duration.ofSeconds(5));
+	}
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.filter;
+
+import java.time.Duration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import org.springframework.cloud.gateway.support.PhaseTimings;
+import org.springframework.cloud.gateway.support.PhaseTimings.Mark;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.filter.GatewayPhaseTimingWebFilter.SERVER_TIMING_HEADER;
+
+public class GatewayPhaseTimingWebFilterTests {
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	public void completedPhasesAreRecorded() {
+		MockServerWebExchange exchange = filter(
+				new GatewayPhaseTimingWebFilter(meterRegistry, false));
+
+		assertThat(count("route")).isEqualTo(1);
+		assertThat(count("filters")).isEqualTo(1);
+		assertThat(count("connect")).isEqualTo(1);
+		assertThat(count("upstream")).isEqualTo(1);
+		// the body was not written by the routing filter
+		assertThat(count("body")).isZero();
+		assertThat(exchange.getResponse().getHeaders()
+				.containsKey(SERVER_TIMING_HEADER)).isFalse();
+	}
+
+	@Test
+	public void serverTimingHeaderIsAdded() {
+		MockServerWebExchange exchange = filter(
+				new GatewayPhaseTimingWebFilter(meterRegistry, true));
+
+		assertThat(exchange.getResponse().getHeaders().getFirst(SERVER_TIMING_HEADER))
+				.matches("route;dur=\\d+\\.\\d{3}, filters;dur=\\d+\\.\\d{3}, "
+						+ "connect;dur=\\d+\\.\\d{3}, upstream;dur=\\d+\\.\\d{3}");
+	}
+
+	private MockServerWebExchange filter(GatewayPhaseTimingWebFilter filter) {
+		MockServerWebExchange exchange = MockServerWebExchange
+				.from(MockServerHttpRequest.get("http://localhost/get"));
+		filter.filter(exchange, e -> {
+			for (Mark mark : new Mark[] { Mark.ROUTE_LOOKUP_START, Mark.ROUTE_LOOKUP_END,
+					Mark.FILTERS_START, Mark.ROUTING_START, Mark.CONNECTED,
+					Mark.RESPONSE_HEADERS }) {
+				PhaseTimings.mark(e, mark);
+			}
+			return e.getResponse().setComplete();
+		}).block(Duration.ofSeconds(5));
+		return exchange;
+	}
+
+	private long count(String phase) {
+		return meterRegistry.get("gateway.requests.phases").tag("phase", phase).timer()
+				.count();
+	}
+
+}
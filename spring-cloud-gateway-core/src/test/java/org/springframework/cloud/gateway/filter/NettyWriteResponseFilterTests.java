@@ -0,0 +1,133 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.filter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.MediaType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NettyWriteResponseFilterTests {
+
+	private final NettyDataBufferFactory factory = new NettyDataBufferFactory(
+			UnpooledByteBufAllocator.DEFAULT);
+
+	private final List<MediaType> streamingMediaTypes = Arrays.asList(
+			MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_STREAM_JSON,
+			MediaType.parseMediaType("application/*+ndjson"));
+
+	@Test
+	public void matchesStreamingMediaTypes() {
+		NettyWriteResponseFilter filter = new NettyWriteResponseFilter(
+				streamingMediaTypes);
+
+		assertThat(filter.isStreamingMediaType(
+				MediaType.parseMediaType("text/event-stream;charset=UTF-8"))).isTrue();
+		assertThat(filter.isStreamingMediaType(MediaType.APPLICATION_STREAM_JSON))
+				.isTrue();
+		assertThat(filter.isStreamingMediaType(
+				MediaType.parseMediaType("application/vnd.feed+ndjson"))).isTrue();
+		assertThat(filter.isStreamingMediaType(MediaType.APPLICATION_JSON)).isFalse();
+		assertThat(filter.isStreamingMediaType(null)).isFalse();
+	}
+
+	@Test
+	public void flushesEveryBufferByDefault() {
+		NettyWriteResponseFilter filter = new NettyWriteResponseFilter(
+				streamingMediaTypes);
+
+		List<List<String>> batches = batches(filter, "a", "b", "c");
+
+		assertThat(batches).containsExactly(Arrays.asList("a"), Arrays.asList("b"),
+				Arrays.asList("c"));
+	}
+
+	@Test
+	public void batchesBuffersUpToFlushSize() {
+		NettyWriteResponseFilter filter = new NettyWriteResponseFilter(
+				streamingMediaTypes, Duration.ofSeconds(10), 4);
+
+		List<List<String>> batches = batches(filter, "ab", "cde", "f", "g");
+
+		assertThat(batches).containsExactly(Arrays.asList("ab"),
+				Arrays.asList("cde", "f"), Arrays.asList("g"));
+	}
+
+	@Test
+	public void batchesBuffersWithinFlushInterval() {
+		NettyWriteResponseFilter filter = new NettyWriteResponseFilter(
+				streamingMediaTypes, Duration.ofMillis(50), 0);
+		Flux<NettyDataBuffer> body = Flux.concat(buffers("a", "b"),
+				buffers("c").delaySubscription(Duration.ofMillis(500)));
+
+		List<List<String>> batches = filter.flushBatches(body)
+				.concatMap(batch -> batch.map(this::read).collectList()).collectList()
+				.block(Duration.ofSeconds(5));
+
+		assertThat(batches).containsExactly(Arrays.asList("a", "b"),
+				Arrays.asList("c"));
+	}
+
+	@Test
+	public void slowClientIsNotOverrunByFlushInterval() {
+		NettyWriteResponseFilter filter = new NettyWriteResponseFilter(
+				streamingMediaTypes, Duration.ofMillis(10), 0);
+		Flux<NettyDataBuffer> body = Flux.range(0, 20)
+				.map(i -> factory.wrap(String.valueOf(i % 10)
+						.getBytes(StandardCharsets.UTF_8)))
+				.delayElements(Duration.ofMillis(5));
+		StringBuilder read = new StringBuilder();
+
+		StepVerifier.create(filter.flushBatches(body), 1)
+				.consumeNextWith(batch -> batch.map(this::read).toStream()
+						.forEach(read::append))
+				.expectNoEvent(Duration.ofMillis(500)).thenRequest(Long.MAX_VALUE)
+				.consumeNextWith(batch -> batch.map(this::read).toStream()
+						.forEach(read::append))
+				.expectComplete().verify(Duration.ofSeconds(5));
+
+		assertThat(read.toString()).isEqualTo("01234567890123456789");
+	}
+
+	private List<List<String>> batches(NettyWriteResponseFilter filter,
+			String... chunks) {
+		return filter.flushBatches(buffers(chunks))
+				.concatMap(batch -> batch.map(this::read).collectList()).collectList()
+				.block(Duration.ofSeconds(5));
+	}
+
+	private Flux<NettyDataBuffer> buffers(String... chunks) {
+		return Flux.fromArray(chunks).map(chunk -> factory
+				.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private String read(NettyDataBuffer buffer) {
+		return buffer.toString(StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.filter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RequestDecompressionWebFilterTests {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	private static final String BODY = "{\"message\":\"compressed upload\"}";
+
+	private final RequestDecompressionWebFilter filter;
+
+	public RequestDecompressionWebFilterTests() {
+		filter = new RequestDecompressionWebFilter(new RequestDecompressionProperties());
+	}
+
+	@Test
+	public void gzipBodyIsDecompressedInChunks() throws IOException {
+		byte[] compressed = gzip(BODY.getBytes(StandardCharsets.UTF_8));
+		compressed = concat(compressed, gzip(" and more".getBytes()));
+
+		AtomicReference<ServerWebExchange> routed = new AtomicReference<>();
+		String body = filter(exchange("gzip", chunks(compressed, 3)), routed);
+
+		assertThat(body).isEqualTo(BODY + " and more");
+		HttpHeaders headers = routed.get().getRequest().getHeaders();
+		assertThat(headers.containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+		assertThat(headers.containsKey(HttpHeaders.CONTENT_LENGTH)).isFalse();
+	}
+
+	@Test
+	public void deflateBodyIsDecompressed() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (DeflaterOutputStream deflater = new DeflaterOutputStream(out)) {
+			deflater.write(BODY.getBytes(StandardCharsets.UTF_8));
+		}
+
+		String body = filter(exchange("deflate", chunks(out.toByteArray(), 5)),
+				new AtomicReference<>());
+
+		assertThat(body).isEqualTo(BODY);
+	}
+
+	@Test
+	public void uncompressedBodyIsUntouched() {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+				.post("http://localhost/post").body(BODY));
+
+		assertThat(filter(exchange, new AtomicReference<>())).isEqualTo(BODY);
+	}
+
+	@Test
+	public void excessiveRatioIsRejected() throws IOException {
+		byte[] compressed = gzip(new byte[10 * 1024 * 1024]);
+
+		assertThatThrownBy(() -> filter(exchange("gzip", chunks(compressed, 1024)),
+				new AtomicReference<>())).isInstanceOfSatisfying(
+						ResponseStatusException.class, e -> assertThat(e.getStatus())
+								.isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE));
+	}
+
+	@Test
+	public void malformedBodyIsRejected() {
+		byte[] garbage = "not gzip at all".getBytes();
+
+		assertThatThrownBy(() -> filter(exchange("gzip", chunks(garbage, 4)),
+				new AtomicReference<>())).isInstanceOfSatisfying(
+						ResponseStatusException.class, e -> assertThat(e.getStatus())
+								.isEqualTo(HttpStatus.BAD_REQUEST));
+	}
+
+	@Test
+	public void truncatedBodyIsRejected() throws IOException {
+		byte[] compressed = gzip(BODY.getBytes(StandardCharsets.UTF_8));
+		byte[] truncated = Arrays.copyOf(compressed, compressed.length - 4);
+
+		assertThatThrownBy(() -> filter(exchange("gzip", chunks(truncated, 8)),
+				new AtomicReference<>())).isInstanceOfSatisfying(
+						ResponseStatusException.class, e -> assertThat(e.getStatus())
+								.isEqualTo(HttpStatus.BAD_REQUEST));
+	}
+
+	private String filter(MockServerWebExchange exchange,
+			AtomicReference<ServerWebExchange> routed) {
+		AtomicReference<String> body = new AtomicReference<>();
+		filter.filter(exchange, e -> {
+			routed.set(e);
+			return DataBufferUtils.join(e.getRequest().getBody()).doOnNext(joined -> {
+				byte[] bytes = new byte[joined.readableByteCount()];
+				joined.read(bytes);
+				body.set(new String(bytes, StandardCharsets.UTF_8));
+			}).then();
+		}).block(TIMEOUT);
+		return body.get();
+	}
+
+	private static MockServerWebExchange exchange(String encoding,
+			Flux<DataBuffer> body) {
+		return MockServerWebExchange
+				.from(MockServerHttpRequest.post("http://localhost/post")
+						.header(HttpHeaders.CONTENT_ENCODING, encoding).body(body));
+	}
+
+	private static Flux<DataBuffer> chunks(byte[] bytes, int size) {
+		List<DataBuffer> buffers = new ArrayList<>();
+		for (int offset = 0; offset < bytes.length; offset += size) {
+			buffers.add(new DefaultDataBufferFactory().wrap(Arrays.copyOfRange(bytes,
+					offset, Math.min(bytes.length, offset + size))));
+		}
+		return Flux.fromIterable(buffers);
+	}
+
+	private static byte[] gzip(byte[] bytes) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(bytes);
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] concat(byte[] first, byte[] second) {
+		byte[] bytes = Arrays.copyOf(first, first.length + second.length);
+		System.arraycopy(second, 0, bytes, first.length, second.length);
+		return bytes;
+	}
+
+}
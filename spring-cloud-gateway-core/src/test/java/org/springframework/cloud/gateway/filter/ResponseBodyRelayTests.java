@@ -0,0 +1,75 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.filter;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.netty.Connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResponseBodyRelayTests {
+
+	@Test
+	public void pausesUpstreamWhileClientIsSlow() {
+		ResponseBodyRelay relay = new ResponseBodyRelay(4, 8, 16);
+		EmbeddedChannel upstream = new EmbeddedChannel();
+		EmbeddedChannel client = new EmbeddedChannel();
+
+		Disposable relaying = relay.relay(Connection.from(client),
+				Connection.from(upstream), Flux.never()).subscribe();
+		client.write(Unpooled.wrappedBuffer(new byte[16]));
+		client.runPendingTasks();
+
+		assertThat(client.isWritable()).isFalse();
+		assertThat(upstream.config().isAutoRead()).isFalse();
+		assertThat(relay.getPausedUpstreams()).isEqualTo(1);
+		assertThat(relay.getBufferedBytes()).isEqualTo(16);
+
+		client.flush();
+		client.runPendingTasks();
+
+		assertThat(client.isWritable()).isTrue();
+		assertThat(upstream.config().isAutoRead()).isTrue();
+		assertThat(relay.getPausedUpstreams()).isEqualTo(0);
+
+		relaying.dispose();
+		assertThat(relay.getBufferedBytes()).isEqualTo(0);
+		assertThat(client.pipeline().get("gateway.relay")).isNull();
+	}
+
+	@Test
+	public void resumesUpstreamWhenRelayEnds() {
+		ResponseBodyRelay relay = new ResponseBodyRelay(4, 8, 16);
+		EmbeddedChannel upstream = new EmbeddedChannel();
+		EmbeddedChannel client = new EmbeddedChannel();
+
+		Disposable relaying = relay.relay(Connection.from(client),
+				Connection.from(upstream), Flux.never()).subscribe();
+		client.write(Unpooled.wrappedBuffer(new byte[16]));
+		client.runPendingTasks();
+		relaying.dispose();
+
+		assertThat(upstream.config().isAutoRead()).isTrue();
+		assertThat(relay.getPausedUpstreams()).isEqualTo(0);
+		client.releaseOutbound();
+	}
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.filter.factory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RequestCoalescingGatewayFilterFactoryTests {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	private AtomicInteger routed;
+
+	private MonoProcessor<Void> upstream;
+
+	private GatewayFilterChain chain;
+
+	@Before
+	public void setUp() {
+		routed = new AtomicInteger();
+		upstream = MonoProcessor.create();
+		chain = exchange -> {
+			routed.incrementAndGet();
+			return upstream.then(Mono.defer(() -> {
+				ServerHttpResponse response = exchange.getResponse();
+				response.setStatusCode(HttpStatus.OK);
+				response.getHeaders().add("X-Upstream", "true");
+				response.getHeaders().add(HttpHeaders.SET_COOKIE, "session=leader");
+				return response.writeWith(Mono.just(response.bufferFactory()
+						.wrap("hello".getBytes(StandardCharsets.UTF_8))));
+			}));
+		};
+	}
+
+	@Test
+	public void identicalRequestsAreCoalesced() {
+		GatewayFilter filter = new RequestCoalescingGatewayFilterFactory()
+				.apply(c -> c.getHeaders().add("Accept"));
+
+		MockServerWebExchange first = MockServerWebExchange
+				.from(MockServerHttpRequest.get("http://localhost/get")
+						.header("Accept", "application/json"));
+		MockServerWebExchange second = MockServerWebExchange
+				.from(MockServerHttpRequest.get("http://localhost/get")
+						.header("Accept", "application/json"));
+
+		MonoProcessor<Void> firstResult = filter.filter(first, chain).toProcessor();
+		MonoProcessor<Void> secondResult = filter.filter(second, chain).toProcessor();
+		upstream.onComplete();
+		firstResult.block(TIMEOUT);
+		secondResult.block(TIMEOUT);
+
+		assertThat(routed).hasValue(1);
+		assertResponse(first.getResponse());
+		assertResponse(second.getResponse());
+		assertThat(first.getResponse().getHeaders().getFirst(HttpHeaders.SET_COOKIE))
+				.isEqualTo("session=leader");
+		assertThat(second.getResponse().getHeaders())
+				.doesNotContainKey(HttpHeaders.SET_COOKIE);
+	}
+
+	@Test
+	public void requestsWithCredentialsAreNotCoalesced() {
+		GatewayFilter filter = new RequestCoalescingGatewayFilterFactory()
+				.apply(c -> {
+				});
+
+		MockServerWebExchange first = MockServerWebExchange
+				.from(MockServerHttpRequest.get("http://localhost/get")
+						.header(HttpHeaders.AUTHORIZATION, "Bearer first"));
+		MockServerWebExchange second = MockServerWebExchange
+				.from(MockServerHttpRequest.get("http://localhost/get")
+						.header(HttpHeaders.AUTHORIZATION, "Bearer second"));
+		MockServerWebExchange third = MockServerWebExchange
+				.from(MockServerHttpRequest.get("http://localhost/get")
+						.header(HttpHeaders.COOKIE, "session=third"));
+
+		MonoProcessor<Void> firstResult = filter.filter(first, chain).toProcessor();
+		MonoProcessor<Void> secondResult = filter.filter(second, chain).toProcessor();
+		MonoProcessor<Void> thirdResult = filter.filter(third, chain).toProcessor();
+		upstream.onComplete();
+		firstResult.block(TIMEOUT);
+		secondResult.block(TIMEOUT);
+		thirdResult.block(TIMEOUT);
+
+		assertThat(routed).hasValue(3);
+	}
+
+	@Test
+	public void requestsWithDifferentKeyHeadersAreNotCoalesced() {
+		GatewayFilter filter = new RequestCoalescingGatewayFilterFactory()
+				.apply(c -> c.getHeaders().add("Accept"));
+
+		MockServerWebExchange first = MockServerWebExchange
+				.from(MockServerHttpRequest.get("http://localhost/get")
+						.header("Accept", "application/json"));
+		MockServerWebExchange second = MockServerWebExchange
+				.from(MockServerHttpRequest.get("http://localhost/get")
+						.header("Accept", "text/plain"));
+
+		MonoProcessor<Void> firstResult = filter.filter(first, chain).toProcessor();
+		MonoProcessor<Void> secondResult = filter.filter(second, chain).toProcessor();
+		upstream.onComplete();
+		firstResult.block(TIMEOUT);
+		secondResult.block(TIMEOUT);
+
+		assertThat(routed).hasValue(2);
+	}
+
+	@Test
+	public void nonGetRequestsAreNotCoalesced() {
+		GatewayFilter filter = new RequestCoalescingGatewayFilterFactory()
+				.apply(c -> {
+				});
+
+		MockServerWebExchange first = MockServerWebExchange
+				.from(MockServerHttpRequest.post("http://localhost/post"));
+		MockServerWebExchange second = MockServerWebExchange
+				.from(MockServerHttpRequest.post("http://localhost/post"));
+
+		MonoProcessor<Void> firstResult = filter.filter(first, chain).toProcessor();
+		MonoProcessor<Void> secondResult = filter.filter(second, chain).toProcessor();
+		upstream.onComplete();
+		firstResult.block(TIMEOUT);
+		secondResult.block(TIMEOUT);
+
+		assertThat(routed).hasValue(2);
+	}
+
+	@Test
+	public void waitingRequestIsRoutedWhenLeaderFails() {
+		GatewayFilter filter = new RequestCoalescingGatewayFilterFactory()
+				.apply(c -> {
+				});
+		AtomicInteger attempts = new AtomicInteger();
+		GatewayFilterChain failingOnce = exchange -> attempts.incrementAndGet() == 1
+				? upstream.then(Mono.<Void>error(new IllegalStateException("boom")))
+				: chain.filter(exchange);
+
+		MockServerWebExchange first = MockServerWebExchange
+				.from(MockServerHttpRequest.get("http://localhost/get"));
+		MockServerWebExchange second = MockServerWebExchange
+				.from(MockServerHttpRequest.get("http://localhost/get"));
+
+		MonoProcessor<Void> firstResult = filter.filter(first, failingOnce)
+				.toProcessor();
+		MonoProcessor<Void> secondResult = filter.filter(second, failingOnce)
+				.toProcessor();
+		upstream.onComplete();
+		secondResult.block(TIMEOUT);
+
+		assertThat(firstResult.getError()).hasMessage("boom");
+		assertThat(attempts).hasValue(2);
+		assertResponse(second.getResponse());
+	}
+
+	private void assertResponse(MockServerHttpResponse response) {
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getHeaders().getFirst("X-Upstream")).isEqualTo("true");
+		assertThat(response.getBodyAsString().block(TIMEOUT)).isEqualTo("hello");
+	}
+
+}
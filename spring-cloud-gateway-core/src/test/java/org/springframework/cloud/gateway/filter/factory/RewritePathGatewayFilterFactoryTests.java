@@ -18,6 +18,7 @@ package org.springframework.cloud.gateway.filter.factory;
 
 import java.net.URI;
 import java.util.LinkedHashSet;
+import java.util.function.UnaryOperator;
 
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -58,6 +59,66 @@ public class RewritePathGatewayFilterFactoryTests {
 				"/bar/baz/123");
 	}
 
+	@Test
+	public void rewriteLiteralPrefixWorks() {
+		testRewriteFilter("/foo/(?<segment>.*)", "/$\\{segment}", "/foo/bar/baz",
+				"/bar/baz");
+		testRewriteFilter("/foo/(?<segment>.*)", "/baz/$\\{segment}", "/api/foo/bar",
+				"/api/baz/bar");
+		testRewriteFilter("^/foo/(?<segment>.*)", "/$\\{segment}", "/api/foo/bar",
+				"/api/foo/bar");
+	}
+
+	@Test
+	public void literalPrefixRewriteMatchesRegexp() {
+		String[][] rewrites = { { "/foo/(?<segment>.*)", "/${segment}" },
+				{ "^/foo/(?<segment>.*)", "/bar/${segment}" },
+				{ "/foo(?<segment>.*)", "${segment}" } };
+		String[] paths = { "/foo/bar", "/foo/", "/foo", "/x/foo/bar", "/bar",
+				"/foo/foo/bar" };
+		for (String[] rewrite : rewrites) {
+			UnaryOperator<String> literal = RewritePathGatewayFilterFactory
+					.literalPrefixRewrite(rewrite[0], rewrite[1]);
+			assertThat(literal).as(rewrite[0]).isNotNull();
+			for (String path : paths) {
+				assertThat(literal.apply(path)).as(rewrite[0] + " " + path)
+						.isEqualTo(path.replaceAll(rewrite[0], rewrite[1]));
+			}
+		}
+	}
+
+	@Test
+	public void literalPrefixRewriteNotUsedForRegexps() {
+		assertThat(RewritePathGatewayFilterFactory
+				.literalPrefixRewrite("/foo/(?<id>\\d.*)", "/${id}")).isNull();
+		assertThat(RewritePathGatewayFilterFactory
+				.literalPrefixRewrite("/v1.0/(?<segment>.*)", "/${segment}")).isNull();
+		assertThat(RewritePathGatewayFilterFactory
+				.literalPrefixRewrite("/foo/(?<segment>.*)", "/${segment}/x")).isNull();
+		assertThat(RewritePathGatewayFilterFactory.literalPrefixRewrite("/foo", "/bar"))
+				.isNull();
+	}
+
+	@Test
+	public void unchangedPathKeepsRequest() {
+		GatewayFilter filter = new RewritePathGatewayFilterFactory()
+				.apply(c -> c.setRegexp("/foo/(?<segment>.*)")
+						.setReplacement("/$\\{segment}"));
+		MockServerHttpRequest request = MockServerHttpRequest
+				.get("http://localhost/bar").build();
+		ServerWebExchange exchange = MockServerWebExchange.from(request);
+		GatewayFilterChain filterChain = mock(GatewayFilterChain.class);
+		ArgumentCaptor<ServerWebExchange> captor = ArgumentCaptor
+				.forClass(ServerWebExchange.class);
+		when(filterChain.filter(captor.capture())).thenReturn(Mono.empty());
+
+		filter.filter(exchange, filterChain);
+
+		assertThat(captor.getValue().getRequest()).isSameAs(request);
+		URI requestUrl = exchange.getRequiredAttribute(GATEWAY_REQUEST_URL_ATTR);
+		assertThat(requestUrl).isEqualTo(request.getURI());
+	}
+
 	private ServerWebExchange testRewriteFilter(String regex, String replacement,
 			String actualPath, String expectedPath) {
 		GatewayFilter filter = new RewritePathGatewayFilterFactory()
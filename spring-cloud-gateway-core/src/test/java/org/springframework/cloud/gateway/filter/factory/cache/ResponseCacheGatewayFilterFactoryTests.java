@@ -0,0 +1,236 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.filter.factory.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResponseCacheGatewayFilterFactoryTests {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	private MutableClock clock;
+
+	private GatewayFilter filter;
+
+	private List<HttpHeaders> routedRequests;
+
+	private HttpHeaders upstreamHeaders;
+
+	@Before
+	public void setUp() {
+		clock = new MutableClock();
+		filter = new ResponseCacheGatewayFilterFactory(
+				new ResponseCache(1024 * 1024, 0, 1024), clock).apply(c -> {
+				});
+		routedRequests = new ArrayList<>();
+		upstreamHeaders = new HttpHeaders();
+		upstreamHeaders.setCacheControl("max-age=60");
+		upstreamHeaders.setETag("\"v1\"");
+	}
+
+	@Test
+	public void cacheableResponseIsServedFromCache() {
+		MockServerWebExchange first = exchange(MockServerHttpRequest.get("/get"));
+		MockServerWebExchange second = exchange(MockServerHttpRequest.get("/get"));
+
+		assertThat(routedRequests).hasSize(1);
+		assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(second.getResponse().getHeaders().getFirst(HttpHeaders.AGE))
+				.isEqualTo("0");
+		assertThat(second.getResponse().getBodyAsString().block(TIMEOUT))
+				.isEqualTo("hello");
+		assertThat(first.getResponse().getBodyAsString().block(TIMEOUT))
+				.isEqualTo("hello");
+	}
+
+	@Test
+	public void conditionalRequestIsAnsweredWithNotModified() {
+		exchange(MockServerHttpRequest.get("/get"));
+		MockServerWebExchange conditional = exchange(
+				MockServerHttpRequest.get("/get").ifNoneMatch("\"v1\""));
+
+		assertThat(routedRequests).hasSize(1);
+		assertThat(conditional.getResponse().getStatusCode())
+				.isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(conditional.getResponse().getHeaders().getETag()).isEqualTo("\"v1\"");
+	}
+
+	@Test
+	public void noStoreResponseIsNotCached() {
+		upstreamHeaders.setCacheControl("no-store");
+		exchange(MockServerHttpRequest.get("/get"));
+		exchange(MockServerHttpRequest.get("/get"));
+
+		assertThat(routedRequests).hasSize(2);
+	}
+
+	@Test
+	public void noCacheRequestIsRouted() {
+		exchange(MockServerHttpRequest.get("/get"));
+		exchange(MockServerHttpRequest.get("/get").header(HttpHeaders.CACHE_CONTROL,
+				"no-cache"));
+
+		assertThat(routedRequests).hasSize(2);
+	}
+
+	@Test
+	public void responseIsOnlyServedForMatchingVaryHeaders() {
+		upstreamHeaders.setVary(Collections.singletonList("Accept"));
+		exchange(MockServerHttpRequest.get("/get").header("Accept", "text/plain"));
+		exchange(MockServerHttpRequest.get("/get").header("Accept", "text/plain"));
+		exchange(MockServerHttpRequest.get("/get").header("Accept", "text/html"));
+
+		assertThat(routedRequests).hasSize(2);
+	}
+
+	@Test
+	public void responsesToAuthorizedRequestsAreNotShared() {
+		MockServerWebExchange first = exchange(MockServerHttpRequest.get("/get")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer first"));
+		MockServerWebExchange second = exchange(MockServerHttpRequest.get("/get")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer second"));
+
+		assertThat(routedRequests).hasSize(2);
+		assertThat(routedRequests.get(1).getFirst(HttpHeaders.AUTHORIZATION))
+				.isEqualTo("Bearer second");
+		assertThat(first.getResponse().getBodyAsString().block(TIMEOUT))
+				.isEqualTo("hello");
+		assertThat(second.getResponse().getBodyAsString().block(TIMEOUT))
+				.isEqualTo("hello");
+	}
+
+	@Test
+	public void publicResponsesToAuthorizedRequestsAreCached() {
+		upstreamHeaders.setCacheControl("public, max-age=60");
+		exchange(MockServerHttpRequest.get("/get").header(HttpHeaders.AUTHORIZATION,
+				"Bearer first"));
+		exchange(MockServerHttpRequest.get("/get").header(HttpHeaders.AUTHORIZATION,
+				"Bearer second"));
+
+		assertThat(routedRequests).hasSize(1);
+	}
+
+	@Test
+	public void responsesToRequestsWithCookiesAreOnlyCachedWhenVaryingOnThem() {
+		exchange(MockServerHttpRequest.get("/get").header(HttpHeaders.COOKIE,
+				"session=first"));
+		exchange(MockServerHttpRequest.get("/get").header(HttpHeaders.COOKIE,
+				"session=second"));
+		assertThat(routedRequests).hasSize(2);
+
+		upstreamHeaders.setVary(Collections.singletonList(HttpHeaders.COOKIE));
+		exchange(MockServerHttpRequest.get("/other").header(HttpHeaders.COOKIE,
+				"session=first"));
+		exchange(MockServerHttpRequest.get("/other").header(HttpHeaders.COOKIE,
+				"session=first"));
+		exchange(MockServerHttpRequest.get("/other").header(HttpHeaders.COOKIE,
+				"session=second"));
+		assertThat(routedRequests).hasSize(4);
+	}
+
+	@Test
+	public void staleResponseIsServedWhileRevalidating() {
+		upstreamHeaders.setCacheControl("max-age=1, stale-while-revalidate=30");
+		exchange(MockServerHttpRequest.get("/get"));
+		clock.advance(Duration.ofSeconds(5));
+		MockServerWebExchange stale = exchange(MockServerHttpRequest.get("/get"));
+
+		assertThat(stale.getResponse().getHeaders().getFirst(HttpHeaders.AGE))
+				.isEqualTo("5");
+		assertThat(stale.getResponse().getBodyAsString().block(TIMEOUT))
+				.isEqualTo("hello");
+		assertThat(routedRequests).hasSize(2);
+		assertThat(routedRequests.get(1).getIfNoneMatch()).containsExactly("\"v1\"");
+
+		// the revalidated response is fresh again
+		MockServerWebExchange fresh = exchange(MockServerHttpRequest.get("/get"));
+		assertThat(fresh.getResponse().getHeaders().getFirst(HttpHeaders.AGE))
+				.isEqualTo("0");
+		assertThat(routedRequests).hasSize(2);
+	}
+
+	@Test
+	public void expiredResponseIsRouted() {
+		exchange(MockServerHttpRequest.get("/get"));
+		clock.advance(Duration.ofSeconds(61));
+		exchange(MockServerHttpRequest.get("/get"));
+
+		assertThat(routedRequests).hasSize(2);
+	}
+
+	private MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+		MockServerWebExchange exchange = MockServerWebExchange.from(request);
+		GatewayFilterChain chain = routed -> {
+			routedRequests.add(routed.getRequest().getHeaders());
+			ServerHttpResponse response = routed.getResponse();
+			response.setStatusCode(HttpStatus.OK);
+			response.getHeaders().putAll(upstreamHeaders);
+			return response.writeWith(Mono.just(response.bufferFactory()
+					.wrap("hello".getBytes(StandardCharsets.UTF_8))));
+		};
+		filter.filter(exchange, chain).block(TIMEOUT);
+		return exchange;
+	}
+
+	private static class MutableClock extends Clock {
+
+		private Instant instant = Instant.now();
+
+		void advance(Duration duration) {
+			instant = instant.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return instant;
+		}
+
+	}
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.filter.factory.cache;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResponseCacheTests {
+
+	@Test
+	public void newEntryReplacesLeastRecentlyUsedWhenEquallyPopular() {
+		ResponseCache cache = new ResponseCache(100, 0, 100);
+		cache.put("a", response(60));
+		cache.put("b", response(60));
+
+		assertThat(cache.get("b")).isNotNull();
+		assertThat(cache.get("a")).isNull();
+		assertThat(cache.getHeapSize()).isEqualTo(60);
+	}
+
+	@Test
+	public void popularEntryIsNotEvictedByOneOffEntry() {
+		ResponseCache cache = new ResponseCache(100, 0, 100);
+		cache.put("a", response(60));
+		for (int i = 0; i < 5; i++) {
+			cache.get("a");
+		}
+		cache.put("b", response(60));
+
+		assertThat(cache.get("a")).isNotNull();
+		assertThat(cache.get("b")).isNull();
+	}
+
+	@Test
+	public void rejectedEntryDoesNotEvictAnything() {
+		ResponseCache cache = new ResponseCache(100, 0, 100);
+		cache.put("a", response(30));
+		cache.put("b", response(30));
+		for (int i = 0; i < 5; i++) {
+			cache.get("a");
+		}
+		// would need to evict both "b" and the popular "a"
+		cache.put("c", response(80));
+
+		assertThat(cache.getHeapSize()).isEqualTo(60);
+		assertThat(cache.get("b")).isNotNull();
+		assertThat(cache.get("c")).isNull();
+	}
+
+	@Test
+	public void keysAreSpreadOverSegmentsWithinTheTotalSize() {
+		ResponseCache cache = new ResponseCache(1000, 0, 10);
+		for (int i = 0; i < 200; i++) {
+			cache.put("key" + i, response(10));
+		}
+
+		assertThat(cache.getSegmentCount()).isEqualTo(16);
+		assertThat(cache.getHeapSize()).isLessThanOrEqualTo(1000).isGreaterThan(500);
+		assertThat(cache.size()).isEqualTo((int) (cache.getHeapSize() / 10));
+	}
+
+	@Test
+	public void evictedEntryIsDemotedOffHeapAndPromotedBack() {
+		ResponseCache cache = new ResponseCache(100, 1000, 100);
+		cache.put("a", response(60));
+		cache.put("b", response(60));
+
+		assertThat(cache.getOffHeapSize()).isEqualTo(60);
+		assertThat(cache.size()).isEqualTo(2);
+
+		CachedResponse promoted = cache.get("a");
+		assertThat(promoted).isNotNull();
+		assertThat(promoted.isDirect()).isFalse();
+		assertThat(promoted.size()).isEqualTo(60);
+	}
+
+	@Test
+	public void entryLargerThanMaxEntrySizeIsNotStored() {
+		ResponseCache cache = new ResponseCache(1000, 0, 10);
+		cache.put("a", response(60));
+
+		assertThat(cache.size()).isZero();
+	}
+
+	@Test
+	public void invalidateRemovesEntry() {
+		ResponseCache cache = new ResponseCache(1000, 0, 100);
+		cache.put("a", response(60));
+		cache.invalidate("a");
+
+		assertThat(cache.get("a")).isNull();
+		assertThat(cache.getHeapSize()).isZero();
+	}
+
+	private CachedResponse response(int size) {
+		return new CachedResponse(HttpStatus.OK, new HttpHeaders(),
+				ByteBuffer.wrap(new byte[size]), Collections.emptyMap(), 0, 1000, 0);
+	}
+
+}
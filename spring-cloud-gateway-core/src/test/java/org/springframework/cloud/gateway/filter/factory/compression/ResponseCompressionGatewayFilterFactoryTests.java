@@ -0,0 +1,240 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.filter.factory.compression;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.compression.ResponseCompressionGatewayFilterFactory.Config;
+import org.springframework.cloud.gateway.filter.factory.compression.ResponseCompressionGatewayFilterFactory.ResponseCompressionGatewayFilter;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.StreamUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResponseCompressionGatewayFilterFactoryTests {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	private static final String JSON = repeat("{\"name\":\"value\"},", 500);
+
+	@Test
+	public void gzipCompressesResponse() throws IOException {
+		MockServerHttpResponse response = filter(new Config(), "gzip, deflate",
+				MediaType.APPLICATION_JSON, -1, JSON.substring(0, 4000),
+				JSON.substring(4000));
+
+		assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))
+				.isEqualTo("gzip");
+		assertThat(response.getHeaders().getVary())
+				.contains(HttpHeaders.ACCEPT_ENCODING);
+		assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_LENGTH))
+				.isFalse();
+		byte[] body = body(response);
+		assertThat(body.length).isLessThan(JSON.length());
+		assertThat(new String(StreamUtils.copyToByteArray(
+				new GZIPInputStream(new ByteArrayInputStream(body))),
+				StandardCharsets.UTF_8)).isEqualTo(JSON);
+	}
+
+	@Test
+	public void deflateCompressesResponse() throws IOException {
+		MockServerHttpResponse response = filter(new Config(), "deflate",
+				MediaType.APPLICATION_JSON, JSON.length(), JSON);
+
+		assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))
+				.isEqualTo("deflate");
+		byte[] body = body(response);
+		assertThat(new String(StreamUtils.copyToByteArray(
+				new InflaterInputStream(new ByteArrayInputStream(body))),
+				StandardCharsets.UTF_8)).isEqualTo(JSON);
+	}
+
+	@Test
+	public void smallResponseIsNotCompressed() {
+		MockServerHttpResponse response = filter(new Config(), "gzip",
+				MediaType.APPLICATION_JSON, 2, "{}");
+
+		assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING))
+				.isFalse();
+		assertThat(response.getBodyAsString().block(TIMEOUT)).isEqualTo("{}");
+	}
+
+	@Test
+	public void unlistedMediaTypeIsNotCompressed() {
+		MockServerHttpResponse response = filter(new Config(), "gzip",
+				MediaType.IMAGE_PNG, JSON.length(), JSON);
+
+		assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING))
+				.isFalse();
+		assertThat(response.getBodyAsString().block(TIMEOUT)).isEqualTo(JSON);
+	}
+
+	@Test
+	public void unacceptedEncodingIsNotUsed() {
+		MockServerHttpResponse response = filter(new Config(), "br, gzip;q=0",
+				MediaType.APPLICATION_JSON, JSON.length(), JSON);
+
+		assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING))
+				.isFalse();
+		assertThat(response.getBodyAsString().block(TIMEOUT)).isEqualTo(JSON);
+	}
+
+	@Test
+	public void streamingChunksAreFlushed() throws Exception {
+		Config config = new Config()
+				.setMimeTypes(Arrays.asList(MediaType.TEXT_EVENT_STREAM_VALUE));
+		GatewayFilter filter = new ResponseCompressionGatewayFilterFactory()
+				.apply(config);
+		MockServerWebExchange exchange = MockServerWebExchange
+				.from(MockServerHttpRequest.get("http://localhost/events")
+						.header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+		GatewayFilterChain chain = e -> {
+			ServerHttpResponse response = e.getResponse();
+			response.setStatusCode(HttpStatus.OK);
+			response.getHeaders().setContentType(MediaType.TEXT_EVENT_STREAM);
+			return response.writeAndFlushWith(
+					Flux.just("data: one\n\n", "data: two\n\n").map(chunk -> Flux
+							.just(response.bufferFactory().wrap(chunk.getBytes()))));
+		};
+
+		filter.filter(exchange, chain).block(TIMEOUT);
+
+		List<DataBuffer> buffers = exchange.getResponse().getBody().collectList()
+				.block(TIMEOUT);
+		byte[] first = new byte[buffers.get(0).readableByteCount()];
+		buffers.get(0).read(first);
+		// skip the gzip header, the first flushed chunk must be decodable on its own
+		Inflater inflater = new Inflater(true);
+		inflater.setInput(first, 10, first.length - 10);
+		byte[] decoded = new byte[64];
+		int count = inflater.inflate(decoded);
+		inflater.end();
+		assertThat(new String(decoded, 0, count)).isEqualTo("data: one\n\n");
+	}
+
+	@Test
+	public void delayedStreamingChunksAreCompressedBeforeFinishing() throws IOException {
+		Config config = new Config()
+				.setMimeTypes(Arrays.asList(MediaType.TEXT_EVENT_STREAM_VALUE));
+		DeflaterPool pool = new DeflaterPool(config.getCompressionLevel(), 2);
+		GatewayFilter filter = new ResponseCompressionGatewayFilter(config, pool);
+		MockServerWebExchange exchange = MockServerWebExchange
+				.from(MockServerHttpRequest.get("http://localhost/events")
+						.header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+		GatewayFilterChain chain = e -> {
+			ServerHttpResponse response = e.getResponse();
+			response.setStatusCode(HttpStatus.OK);
+			response.getHeaders().setContentType(MediaType.TEXT_EVENT_STREAM);
+			return response.writeAndFlushWith(
+					Flux.just("data: one\n\n", "data: two\n\n", "data: three\n\n")
+							.map(chunk -> Flux
+									.just(response.bufferFactory()
+											.wrap(chunk.getBytes()))
+									.delayElements(Duration.ofMillis(20))));
+		};
+
+		filter.filter(exchange, chain).block(TIMEOUT);
+
+		byte[] body = body(exchange.getResponse());
+		assertThat(new String(StreamUtils.copyToByteArray(
+				new GZIPInputStream(new ByteArrayInputStream(body))),
+				StandardCharsets.UTF_8))
+						.isEqualTo("data: one\n\ndata: two\n\ndata: three\n\n");
+		assertThat(pool.idle()).isEqualTo(1);
+	}
+
+	@Test
+	public void acceptEncodingIsNegotiated() {
+		assertThat(ResponseCompressionGatewayFilterFactory
+				.negotiate(Arrays.asList("gzip, deflate, br"))).isEqualTo("gzip");
+		assertThat(ResponseCompressionGatewayFilterFactory
+				.negotiate(Arrays.asList("gzip;q=0.5", "deflate"))).isEqualTo("deflate");
+		assertThat(ResponseCompressionGatewayFilterFactory
+				.negotiate(Arrays.asList("*"))).isEqualTo("gzip");
+		assertThat(ResponseCompressionGatewayFilterFactory
+				.negotiate(Arrays.asList("identity"))).isNull();
+	}
+
+	@Test
+	public void deflatersAreReused() {
+		DeflaterPool pool = new DeflaterPool(-1, 2);
+		ResponseCompressor compressor = new ResponseCompressor(pool, "gzip");
+		compressor.compress(JSON.getBytes(), false);
+		compressor.finish();
+		compressor.release();
+
+		assertThat(pool.idle()).isEqualTo(1);
+	}
+
+	private MockServerHttpResponse filter(Config config, String acceptEncoding,
+			MediaType contentType, long contentLength, String... chunks) {
+		GatewayFilter filter = new ResponseCompressionGatewayFilterFactory()
+				.apply(config);
+		MockServerWebExchange exchange = MockServerWebExchange
+				.from(MockServerHttpRequest.get("http://localhost/get")
+						.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding));
+		GatewayFilterChain chain = e -> {
+			ServerHttpResponse response = e.getResponse();
+			response.setStatusCode(HttpStatus.OK);
+			response.getHeaders().setContentType(contentType);
+			if (contentLength >= 0) {
+				response.getHeaders().setContentLength(contentLength);
+			}
+			return response.writeWith(Flux.just(chunks).map(chunk -> response
+					.bufferFactory().wrap(chunk.getBytes(StandardCharsets.UTF_8))));
+		};
+		filter.filter(exchange, chain).block(TIMEOUT);
+		return exchange.getResponse();
+	}
+
+	private static byte[] body(MockServerHttpResponse response) {
+		DataBuffer joined = DataBufferUtils.join(response.getBody()).block(TIMEOUT);
+		byte[] bytes = new byte[joined.readableByteCount()];
+		joined.read(bytes);
+		return bytes;
+	}
+
+	private static String repeat(String value, int times) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < times; i++) {
+			builder.append(value);
+		}
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.handler;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractNameValueGatewayFilterFactory.NameValueConfig;
+import org.springframework.cloud.gateway.filter.factory.AddRequestHeaderGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+public class FilterProfilerTests {
+
+	@Test
+	public void filtersAreProfiled() {
+		FilterProfiler profiler = new FilterProfiler(1);
+		FilteringWebHandler handler = new FilteringWebHandler(
+				Arrays.asList(new SlowPostFilter(), new ShortCircuitFilter()), profiler);
+		GatewayFilter routeFilter = new OrderedGatewayFilter(
+				(exchange, chain) -> chain.filter(exchange), 5);
+
+		handle(handler, routeFilter);
+		handle(handler, routeFilter);
+
+		List<Map<String, Object>> statistics = profiler.getStatistics();
+		// the route filter is a lambda, named after the class declaring it
+		assertThat(statistics).extracting(s -> s.get("filter")).containsExactlyInAnyOrder(
+				"FilterProfilerTests.SlowPostFilter",
+				"FilterProfilerTests.ShortCircuitFilter", "FilterProfilerTests");
+		assertThat(statistics)
+				.allSatisfy(s -> assertThat(s.get("samples")).isEqualTo(2L));
+		assertThat(statistics.get(0).get("filter"))
+				.isEqualTo("FilterProfilerTests.SlowPostFilter");
+		assertThat(statistics.get(0).get("order")).isEqualTo(1);
+		assertThat((double) statistics.get(0).get("meanPostMicros"))
+				.isGreaterThanOrEqualTo(20_000);
+
+		profiler.reset();
+		assertThat(profiler.getStatistics()).isEmpty();
+	}
+
+	@Test
+	public void unsampledRequestsAreNotProfiled() {
+		FilterProfiler profiler = new FilterProfiler(0);
+		FilteringWebHandler handler = new FilteringWebHandler(
+				Arrays.asList(new SlowPostFilter()), profiler);
+
+		handle(handler, (exchange, chain) -> chain.filter(exchange));
+
+		assertThat(profiler.getStatistics()).isEmpty();
+	}
+
+	@Test
+	public void lambdaFiltersAreNamedAfterTheirFactory() {
+		GatewayFilter filter = new AddRequestHeaderGatewayFilterFactory()
+				.apply(new NameValueConfig().setName("X-Test").setValue("value"));
+
+		assertThat(FilteringWebHandler.nameOf(filter))
+				.isEqualTo("AddRequestHeaderGatewayFilterFactory");
+		assertThat(FilteringWebHandler.nameOf(new OrderedGatewayFilter(filter, 1)))
+				.isEqualTo("AddRequestHeaderGatewayFilterFactory");
+	}
+
+	private void handle(FilteringWebHandler handler, GatewayFilter routeFilter) {
+		MockServerWebExchange exchange = MockServerWebExchange
+				.from(MockServerHttpRequest.get("http://localhost/get"));
+		exchange.getAttributes().put(GATEWAY_ROUTE_ATTR,
+				Route.async().id("route").uri("http://localhost")
+						.predicate(e -> true).filter(routeFilter).build());
+		handler.handle(exchange).block(Duration.ofSeconds(5));
+	}
+
+	static class SlowPostFilter implements GlobalFilter, Ordered {
+
+		@Override
+		public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+			return chain.filter(exchange).then(Mono.delay(Duration.ofMillis(20)).then());
+		}
+
+		@Override
+		public int getOrder() {
+			return 1;
+		}
+
+	}
+
+	static class ShortCircuitFilter implements GlobalFilter, Ordered {
+
+		@Override
+		public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+			return Mono.empty();
+		}
+
+		@Override
+		public int getOrder() {
+			return 10;
+		}
+
+	}
+
+}
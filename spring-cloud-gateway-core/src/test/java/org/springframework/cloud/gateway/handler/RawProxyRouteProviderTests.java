@@ -0,0 +1,126 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.handler;
+
+import java.net.URI;
+
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaders;
+import org.junit.Test;
+import reactor.netty.http.server.HttpServerRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RawProxyRouteProviderTests {
+
+	@Test
+	public void matchesHostIgnoringPort() {
+		RawProxyProperties.Route route = route("example.org", null);
+
+		assertThat(RawProxyRouteProvider.matches(route,
+				request("/", "Example.org:8080"))).isTrue();
+		assertThat(RawProxyRouteProvider.matches(route, request("/", "example.org")))
+				.isTrue();
+		assertThat(RawProxyRouteProvider.matches(route, request("/", "other.org")))
+				.isFalse();
+		assertThat(RawProxyRouteProvider.matches(route, request("/", null))).isFalse();
+	}
+
+	@Test
+	public void matchesPathPrefix() {
+		RawProxyProperties.Route route = route(null, "/raw/");
+
+		assertThat(RawProxyRouteProvider.matches(route, request("/raw/a?b=c", null)))
+				.isTrue();
+		assertThat(RawProxyRouteProvider.matches(route, request("/other", null)))
+				.isFalse();
+	}
+
+	@Test
+	public void matchesPathPrefixAtSegmentBoundary() {
+		assertThat(RawProxyRouteProvider.matchesPathPrefix("/api", "/api")).isTrue();
+		assertThat(RawProxyRouteProvider.matchesPathPrefix("/api", "/api/a")).isTrue();
+		assertThat(RawProxyRouteProvider.matchesPathPrefix("/api/", "/api/a"))
+				.isTrue();
+		assertThat(RawProxyRouteProvider.matchesPathPrefix("/api", "/apix")).isFalse();
+		assertThat(RawProxyRouteProvider.matchesPathPrefix("/", "/anything"))
+				.isTrue();
+	}
+
+	@Test
+	public void matchesNormalizedDecodedPath() {
+		assertThat(RawProxyRouteProvider.matchesPathPrefix("/raw/", "/./raw/a"))
+				.isTrue();
+		assertThat(RawProxyRouteProvider.matchesPathPrefix("/raw/", "/r%61w/a"))
+				.isTrue();
+		assertThat(RawProxyRouteProvider.matchesPathPrefix("/raw/", "/raw/.")).isTrue();
+	}
+
+	@Test
+	public void doesNotMatchPathsEscapingPrefix() {
+		assertThat(RawProxyRouteProvider.matchesPathPrefix("/raw/", "/raw/../admin"))
+				.isFalse();
+		assertThat(
+				RawProxyRouteProvider.matchesPathPrefix("/raw/", "/raw/%2e%2e/admin"))
+						.isFalse();
+		assertThat(
+				RawProxyRouteProvider.matchesPathPrefix("/raw/", "/raw%2F..%2Fadmin"))
+						.isFalse();
+		assertThat(RawProxyRouteProvider.matchesPathPrefix("/raw/", "/raw/a%2fb"))
+				.isFalse();
+		assertThat(RawProxyRouteProvider.matchesPathPrefix("/raw/", "/raw/..%5cadmin"))
+				.isFalse();
+		assertThat(RawProxyRouteProvider.matchesPathPrefix("/raw/", "/raw/%zz"))
+				.isFalse();
+	}
+
+	@Test
+	public void copiesEndToEndHeadersOnly() {
+		HttpHeaders from = new DefaultHttpHeaders().add("Connection", "close, X-Hop")
+				.add("X-Hop", "1").add("Transfer-Encoding", "chunked")
+				.add("Accept", "text/plain").add("Accept", "text/html");
+		HttpHeaders to = new DefaultHttpHeaders();
+
+		RawProxyRouteProvider.copyHeaders(from, to);
+
+		assertThat(to.names()).containsExactly("Accept");
+		assertThat(to.getAll("Accept")).containsExactly("text/plain", "text/html");
+	}
+
+	private RawProxyProperties.Route route(String host, String pathPrefix) {
+		RawProxyProperties.Route route = new RawProxyProperties.Route();
+		route.setId("raw");
+		route.setUri(URI.create("http://localhost:8081"));
+		route.setHost(host);
+		route.setPathPrefix(pathPrefix);
+		return route;
+	}
+
+	private HttpServerRequest request(String uri, String host) {
+		HttpHeaders headers = new DefaultHttpHeaders();
+		if (host != null) {
+			headers.add("Host", host);
+		}
+		HttpServerRequest request = mock(HttpServerRequest.class);
+		when(request.uri()).thenReturn(uri);
+		when(request.requestHeaders()).thenReturn(headers);
+		return request;
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.handler.predicate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CidrIndexTests {
+
+	@Test
+	public void matchesIpv4Ranges() throws Exception {
+		CidrIndex index = CidrIndex.of(Arrays.asList("10.0.0.0/8", "192.168.1.7",
+				"172.16.0.0/12", "127.0.0.1/24"));
+
+		assertThat(index.matches(address("10.255.3.4"))).isTrue();
+		assertThat(index.matches(address("11.0.0.1"))).isFalse();
+		assertThat(index.matches(address("192.168.1.7"))).isTrue();
+		assertThat(index.matches(address("192.168.1.8"))).isFalse();
+		assertThat(index.matches(address("172.31.255.255"))).isTrue();
+		assertThat(index.matches(address("172.32.0.0"))).isFalse();
+		assertThat(index.matches(address("127.0.0.200"))).isTrue();
+		assertThat(index.matches(address("::1"))).isFalse();
+	}
+
+	@Test
+	public void matchesIpv6Ranges() throws Exception {
+		CidrIndex index = CidrIndex.of(Arrays.asList("2001:db8::/32", "::1"));
+
+		assertThat(index.matches(address("2001:db8:1234::1"))).isTrue();
+		assertThat(index.matches(address("2001:db9::1"))).isFalse();
+		assertThat(index.matches(address("::1"))).isTrue();
+		assertThat(index.matches(address("::2"))).isFalse();
+		assertThat(index.matches(address("0.0.0.1"))).isFalse();
+	}
+
+	@Test
+	public void zeroPrefixMatchesEverythingOfItsFamily() throws Exception {
+		CidrIndex index = CidrIndex.of(Arrays.asList("0.0.0.0/0"));
+
+		assertThat(index.matches(address("203.0.113.9"))).isTrue();
+		assertThat(index.matches(address("2001:db8::1"))).isFalse();
+	}
+
+	@Test
+	public void longerPrefixesInsideShorterOnesAreCovered() throws Exception {
+		CidrIndex index = CidrIndex
+				.of(Arrays.asList("10.1.2.0/24", "10.0.0.0/8", "10.1.0.0/16"));
+
+		assertThat(index.matches(address("10.200.0.1"))).isTrue();
+		assertThat(index.matches(address("10.1.2.3"))).isTrue();
+	}
+
+	@Test
+	public void matchesManyRanges() throws Exception {
+		List<String> sources = new ArrayList<>();
+		for (int i = 0; i < 256; i++) {
+			for (int j = 0; j < 64; j++) {
+				sources.add("100." + i + "." + (j * 4) + ".0/23");
+			}
+		}
+		CidrIndex index = CidrIndex.of(sources);
+
+		assertThat(index.size()).isEqualTo(256 * 64);
+		assertThat(index.matches(address("100.17.9.200"))).isTrue();
+		assertThat(index.matches(address("100.17.10.200"))).isFalse();
+	}
+
+	@Test
+	public void invalidSourcesAreRejected() {
+		assertThatThrownBy(() -> CidrIndex.of(Arrays.asList("10.0.0.0/33")))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> CidrIndex.of(Arrays.asList("10.0.0.0/x")))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> CidrIndex.of(Arrays.asList("example.org/24")))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static InetAddress address(String address) throws UnknownHostException {
+		return InetAddress.getByName(address);
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.handler.predicate;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.util.AntPathMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HostPatternsTests {
+
+	@Test
+	public void exactHostMatchesIgnoringCaseAndPort() {
+		HostPatterns patterns = patterns("www.example.org", "api.example.org");
+
+		assertThat(patterns.match("api.example.org")).isEmpty();
+		assertThat(patterns.match("WWW.Example.ORG:8080")).isEmpty();
+		assertThat(patterns.match("example.org")).isNull();
+		assertThat(patterns.match(null)).isNull();
+	}
+
+	@Test
+	public void leadingDoubleWildcardMatchesAnyNumberOfLabels() {
+		HostPatterns patterns = patterns("**.example.org");
+
+		assertThat(patterns.match("example.org")).isEmpty();
+		assertThat(patterns.match("www.example.org")).isEmpty();
+		assertThat(patterns.match("a.b.example.org:443")).isEmpty();
+		assertThat(patterns.match("www.example.com")).isNull();
+		assertThat(patterns.match("wwwexample.org")).isNull();
+	}
+
+	@Test
+	public void singleWildcardMatchesOneLabel() {
+		HostPatterns patterns = patterns("*.example.org");
+
+		assertThat(patterns.match("www.example.org")).isEmpty();
+		assertThat(patterns.match("example.org")).isNull();
+		assertThat(patterns.match("a.b.example.org")).isNull();
+	}
+
+	@Test
+	public void extractsVariables() {
+		Map<String, String> variables = patterns("{sub}.{domain}.org")
+				.match("www.myhost.org:8080");
+
+		assertThat(variables).containsEntry("sub", "www")
+				.containsEntry("domain", "myhost").hasSize(2);
+	}
+
+	@Test
+	public void extractsVariablesAfterDoubleWildcard() {
+		assertThat(patterns("**.{tenant}.example.org").match("a.b.acme.example.org"))
+				.containsOnlyKeys("tenant").containsEntry("tenant", "acme");
+	}
+
+	@Test
+	public void firstDeclaredPatternWins() {
+		assertThat(patterns("{sub}.myhost.org", "www.myhost.org").match("www.myhost.org"))
+				.containsEntry("sub", "www");
+		assertThat(patterns("www.myhost.org", "{sub}.myhost.org").match("www.myhost.org"))
+				.isEmpty();
+		assertThat(patterns("{a}.myhost.org", "{b}.myhost.org").match("www.myhost.org"))
+				.containsOnlyKeys("a");
+	}
+
+	@Test
+	public void otherPatternsFallBackToPathMatcher() {
+		HostPatterns patterns = patterns("www*.example.org", "{sub}.other.org:8080",
+				"**.example.org");
+
+		assertThat(patterns.match("www1.example.org")).isEmpty();
+		assertThat(patterns.match("api.other.org:8080")).containsEntry("sub", "api");
+		assertThat(patterns.match("api.other.org:9090")).isNull();
+		assertThat(patterns.match("api.example.org")).isEmpty();
+	}
+
+	@Test
+	public void earlierFallbackPatternWins() {
+		assertThat(patterns("{sub:[a-z]+}.myhost.org", "{name}.myhost.org")
+				.match("www.myhost.org")).containsOnlyKeys("sub");
+	}
+
+	@Test
+	public void notCompiledMatchesThroughPathMatcherOnly() {
+		HostPatterns patterns = new HostPatterns(Arrays.asList("**.example.org"),
+				new AntPathMatcher("."), false);
+
+		assertThat(patterns.match("www.example.org")).isEmpty();
+		assertThat(patterns.match("www.example.org:8080")).isNull();
+	}
+
+	private HostPatterns patterns(String... patterns) {
+		return new HostPatterns(Arrays.asList(patterns), new AntPathMatcher("."), true);
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.handler.predicate;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory.Config;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.URI_TEMPLATE_VARIABLES_ATTRIBUTE;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.getUriTemplateVariables;
+
+public class PathRoutePredicateFactoryUnitTests {
+
+	private final PathRoutePredicateFactory factory = new PathRoutePredicateFactory();
+
+	@Test
+	public void extractsVariablesOfMatchingPattern() {
+		Predicate<ServerWebExchange> predicate = factory.apply(new Config()
+				.setPatterns(Arrays.asList("/red/{segment}", "/blue/{color}/{id}")));
+		ServerWebExchange exchange = exchange("/blue/dark/42");
+
+		assertThat(predicate.test(exchange)).isTrue();
+		assertThat(getUriTemplateVariables(exchange)).containsEntry("color", "dark")
+				.containsEntry("id", "42").hasSize(2);
+	}
+
+	@Test
+	public void doesNotStoreVariablesForPatternsWithoutVariables() {
+		Predicate<ServerWebExchange> predicate = factory
+				.apply(new Config().setPatterns(Arrays.asList("/red/**", "/blue")));
+		ServerWebExchange exchange = exchange("/blue");
+
+		assertThat(predicate.test(exchange)).isTrue();
+		assertThat(exchange.getAttributes())
+				.doesNotContainKey(URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+	}
+
+	@Test
+	public void noPatternMatches() {
+		Predicate<ServerWebExchange> predicate = factory.apply(
+				new Config().setPatterns(Arrays.asList("/red/{segment}", "/blue/**")));
+		ServerWebExchange exchange = exchange("/green/42");
+
+		assertThat(predicate.test(exchange)).isFalse();
+		assertThat(exchange.getAttributes())
+				.doesNotContainKey(URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+	}
+
+	@Test
+	public void trailingSeparatorIsConfiguredPerRoute() {
+		PathPatternParser parser = new PathPatternParser();
+		factory.setPathPatternParser(parser);
+		Predicate<ServerWebExchange> strict = factory.apply(new Config()
+				.setPatterns(Arrays.asList("/red"))
+				.setMatchOptionalTrailingSeparator(false));
+		Predicate<ServerWebExchange> lenient = factory
+				.apply(new Config().setPatterns(Arrays.asList("/red")));
+
+		assertThat(strict.test(exchange("/red/"))).isFalse();
+		assertThat(lenient.test(exchange("/red/"))).isTrue();
+		assertThat(parser.isMatchOptionalTrailingSeparator()).isTrue();
+	}
+
+	@Test
+	public void reevaluatesMutatedRequest() {
+		Predicate<ServerWebExchange> predicate = factory
+				.apply(new Config().setPatterns(Arrays.asList("/red/{segment}")));
+		ServerWebExchange exchange = exchange("/blue/42");
+
+		assertThat(predicate.test(exchange)).isFalse();
+
+		ServerWebExchange mutated = exchange.mutate()
+				.request(exchange.getRequest().mutate().path("/red/42").build())
+				.build();
+		assertThat(predicate.test(mutated)).isTrue();
+		assertThat(getUriTemplateVariables(mutated)).containsEntry("segment", "42");
+	}
+
+	private ServerWebExchange exchange(String path) {
+		return MockServerWebExchange
+				.from(MockServerHttpRequest.get("http://localhost" + path).build());
+	}
+
+}
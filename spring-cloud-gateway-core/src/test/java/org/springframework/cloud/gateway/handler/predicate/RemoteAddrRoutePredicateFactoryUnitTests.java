@@ -0,0 +1,135 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.handler.predicate;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.cloud.gateway.handler.predicate.RemoteAddrRoutePredicateFactory.Config;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RemoteAddrRoutePredicateFactoryUnitTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final RemoteAddrRoutePredicateFactory factory = new RemoteAddrRoutePredicateFactory();
+
+	@Test
+	public void matchesInlineSources() {
+		Predicate<ServerWebExchange> predicate = factory
+				.apply(new Config().setSources("10.0.0.0/8", "192.168.0.1"));
+
+		assertThat(predicate.test(exchange("10.1.2.3"))).isTrue();
+		assertThat(predicate.test(exchange("192.168.0.1"))).isTrue();
+		assertThat(predicate.test(exchange("192.168.0.2"))).isFalse();
+	}
+
+	@Test
+	public void matchesSourcesFromLocation() throws Exception {
+		File file = write("# office\n10.0.0.0/8\n\n172.16.0.0/12 # vpn\n");
+		Predicate<ServerWebExchange> predicate = factory.apply(new Config()
+				.setSources("192.168.0.1").setSourcesLocation(file.toURI().toString()));
+
+		// inline sources match while the location is loaded in the background
+		assertThat(predicate.test(exchange("192.168.0.1"))).isTrue();
+		awaitMatch(predicate, "10.1.2.3");
+		assertThat(predicate.test(exchange("10.1.2.3"))).isTrue();
+		assertThat(predicate.test(exchange("172.20.0.1"))).isTrue();
+		assertThat(predicate.test(exchange("192.168.0.1"))).isTrue();
+		assertThat(predicate.test(exchange("192.168.0.2"))).isFalse();
+	}
+
+	@Test
+	public void reloadsSourcesFromLocation() throws Exception {
+		File file = write("10.0.0.0/8\n");
+		Predicate<ServerWebExchange> predicate = factory
+				.apply(new Config().setSourcesLocation(file.toURI().toString())
+						.setSourcesReloadInterval(Duration.ofMillis(10)));
+		assertThat(predicate.test(exchange("172.20.0.1"))).isFalse();
+
+		Files.write(file.toPath(), "172.16.0.0/12\n".getBytes(StandardCharsets.UTF_8));
+
+		awaitMatch(predicate, "172.20.0.1");
+		assertThat(predicate.test(exchange("172.20.0.1"))).isTrue();
+		assertThat(predicate.test(exchange("10.1.2.3"))).isFalse();
+	}
+
+	@Test
+	public void keepsSourcesWhenReloadFails() throws Exception {
+		File file = write("10.0.0.0/8\n");
+		Predicate<ServerWebExchange> predicate = factory
+				.apply(new Config().setSourcesLocation(file.toURI().toString())
+						.setSourcesReloadInterval(Duration.ofMillis(10)));
+		awaitMatch(predicate, "10.1.2.3");
+
+		Files.write(file.toPath(), "10.0.0.0/99\n".getBytes(StandardCharsets.UTF_8));
+		for (int i = 0; i < 10; i++) {
+			Thread.sleep(20);
+			assertThat(predicate.test(exchange("10.1.2.3"))).isTrue();
+		}
+	}
+
+	@Test
+	public void rejectsHostNames() {
+		assertThatThrownBy(
+				() -> factory.apply(new Config().setSources("localhost", "10.0.0.0/8")))
+						.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void requiresSources() {
+		assertThatThrownBy(() -> factory.apply(new Config()))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private void awaitMatch(Predicate<ServerWebExchange> predicate,
+			String remoteAddress) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!predicate.test(exchange(remoteAddress))
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+
+	private File write(String content) throws Exception {
+		File file = folder.newFile();
+		Files.write(file.toPath(), Arrays.asList(content.split("\n")),
+				StandardCharsets.UTF_8);
+		return file;
+	}
+
+	private ServerWebExchange exchange(String remoteAddress) {
+		return MockServerWebExchange.from(MockServerHttpRequest.get("http://localhost/")
+				.remoteAddress(new InetSocketAddress(remoteAddress, 12345)).build());
+	}
+
+}
@@ -16,12 +16,19 @@
 
 package org.springframework.cloud.gateway.route;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Test;
 import reactor.core.publisher.Flux;
 
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class CachingRouteLocatorTests {
 
@@ -60,6 +67,132 @@ public class CachingRouteLocatorTests {
 		assertThat(routes).containsExactly(route1, route2);
 	}
 
+	@Test
+	public void updateRouteReplacesSingleRoute() {
+		Route route1 = route(1);
+		Route route2 = route(2);
+		Route route3 = route(3);
+		CachingRouteLocator locator = new CachingRouteLocator(
+				() -> Flux.just(route1, route3));
+
+		locator.updateRoute("2", route2);
+		assertThat(locator.getRoutes().collectList().block())
+				.containsExactly(route1, route3);
+
+		locator.updateRoute("2", route2);
+		assertThat(locator.getRoutes().collectList().block())
+				.containsExactly(route1, route2, route3);
+
+		locator.updateRoute("1", null);
+		assertThat(locator.getRoutes().collectList().block())
+				.containsExactly(route2, route3);
+	}
+
+	@Test
+	public void candidateServesSelectedRequestsUntilPromoted() {
+		Route route1 = route(1);
+		Route route2 = route(2);
+		CachingRouteLocator locator = new CachingRouteLocator(() -> Flux.just(route1));
+		assertThat(locator.getRoutes().collectList().block()).containsExactly(route1);
+
+		long version = locator.stageCandidate(
+				Collections.singletonMap("2", route2), "X-Canary", 0);
+
+		MockServerWebExchange canary = MockServerWebExchange
+				.from(MockServerHttpRequest.get("/").header("X-Canary", "1"));
+		MockServerWebExchange other = MockServerWebExchange
+				.from(MockServerHttpRequest.get("/"));
+		assertThat(locator.getRoutes(canary).collectList().block())
+				.containsExactly(route1, route2);
+		assertThat(locator.getRoutes(other).collectList().block())
+				.containsExactly(route1);
+		assertThat(locator.getRoutes().collectList().block()).containsExactly(route1);
+
+		assertThat(locator.promoteCandidate(version + 1)).isFalse();
+		assertThat(locator.promoteCandidate(version)).isTrue();
+		assertThat(locator.getRoutes(other).collectList().block())
+				.containsExactly(route1, route2);
+		assertThat(locator.getCandidate()).isEmpty();
+
+		assertThat(locator.rollback()).isTrue();
+		assertThat(locator.getRoutes().collectList().block()).containsExactly(route1);
+		assertThat(locator.rollback()).isFalse();
+	}
+
+	@Test
+	public void candidateAppliesItsChangesOverTheActiveRoutes() {
+		Route route1 = route(1);
+		Route route2 = route(2);
+		Route route3 = route(3);
+		CachingRouteLocator locator = new CachingRouteLocator(
+				() -> Flux.just(route1, route2));
+		locator.getRoutes().blockLast();
+		Map<String, Route> changes = new HashMap<>();
+		changes.put("1", null);
+		locator.stageCandidate(changes, "X-Canary", 0);
+		MockServerWebExchange canary = MockServerWebExchange
+				.from(MockServerHttpRequest.get("/").header("X-Canary", "1"));
+
+		assertThat(locator.getRoutes(canary).collectList().block())
+				.containsExactly(route2);
+
+		locator.updateRoute("3", route3);
+		assertThat(locator.getRoutes(canary).collectList().block())
+				.containsExactly(route2, route3);
+		assertThat(locator.getRoutes().collectList().block())
+				.containsExactly(route1, route2, route3);
+	}
+
+	@Test
+	public void candidateStagedBeforeRefreshIsNotPromoted() {
+		Route route1 = route(1);
+		CachingRouteLocator locator = new CachingRouteLocator(() -> Flux.just(route1));
+		locator.getRoutes().blockLast();
+		long version = locator.stageCandidate(Collections.singletonMap("1", null),
+				null, 0);
+
+		locator.refresh().blockLast();
+
+		assertThatThrownBy(() -> locator.promoteCandidate(version))
+				.isInstanceOf(IllegalStateException.class);
+		assertThat(locator.getRoutes().collectList().block()).containsExactly(route1);
+	}
+
+	@Test
+	public void refreshClearsRollback() {
+		Route route1 = route(1);
+		Route route2 = route(2);
+		CachingRouteLocator locator = new CachingRouteLocator(() -> Flux.just(route1));
+		locator.getRoutes().blockLast();
+		long version = locator.stageCandidate(Collections.singletonMap("2", route2),
+				null, 0);
+		assertThat(locator.promoteCandidate(version)).isTrue();
+
+		locator.refresh().blockLast();
+
+		assertThat(locator.rollback()).isFalse();
+		assertThat(locator.getRoutes().collectList().block()).containsExactly(route1);
+	}
+
+	@Test
+	public void candidateServesPercentageOfRequests() {
+		Route route1 = route(1);
+		Route route2 = route(2);
+		CachingRouteLocator locator = new CachingRouteLocator(() -> Flux.just(route1));
+		locator.getRoutes().blockLast();
+		locator.stageCandidate(Collections.singletonMap("2", route2), null, 100);
+		MockServerWebExchange exchange = MockServerWebExchange
+				.from(MockServerHttpRequest.get("/"));
+
+		assertThat(locator.getRoutes(exchange).collectList().block())
+				.containsExactly(route1, route2);
+		assertThat(locator.getCandidate()).containsEntry("percentage", 100)
+				.containsEntry("saved", 1L).containsEntry("deleted", 0L);
+
+		locator.discardCandidate();
+		assertThat(locator.getCandidate()).isEmpty();
+	}
+
 	Route route(int id) {
 		return Route.async().id(String.valueOf(id)).uri("http://localhost/" + id)
 				.order(id).predicate(exchange -> true).build();
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.route;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.support.NotFoundException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FileRouteDefinitionRepositoryTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path location;
+
+	private FileRouteDefinitionRepository repository;
+
+	@Before
+	public void setup() {
+		location = folder.getRoot().toPath().resolve("routes.log");
+		repository = new FileRouteDefinitionRepository(location, 1000);
+	}
+
+	@After
+	public void close() throws IOException {
+		repository.destroy();
+	}
+
+	@Test
+	public void routesSurviveReopening() throws IOException {
+		RouteDefinition route1 = routeDef("route1");
+		route1.getFilters().add(new FilterDefinition("AddRequestHeader=X-Id,1"));
+		RouteDefinition route2 = routeDef("route2");
+		repository.save(Mono.just(route1)).block();
+		repository.save(Mono.just(route2)).block();
+		repository.delete(Mono.just("route1")).block();
+		RouteDefinition updated = routeDef("route2");
+		updated.setOrder(5);
+		repository.save(Mono.just(updated)).block();
+
+		reopen(1000);
+
+		List<RouteDefinition> routes = repository.getRouteDefinitions().collectList()
+				.block();
+		assertThat(routes).containsExactly(updated);
+	}
+
+	@Test
+	public void deletingUnknownRouteFails() {
+		StepVerifier.create(repository.delete(Mono.just("unknown")))
+				.expectError(NotFoundException.class).verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	public void incompleteRecordIsDiscarded() throws IOException {
+		repository.save(Mono.just(routeDef("route1"))).block();
+		repository.save(Mono.just(routeDef("route2"))).block();
+		repository.destroy();
+		try (FileChannel channel = FileChannel.open(location,
+				StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - 3);
+		}
+
+		repository = new FileRouteDefinitionRepository(location, 1000);
+
+		assertThat(repository.getRouteDefinitions().collectList().block())
+				.containsExactly(routeDef("route1"));
+		repository.save(Mono.just(routeDef("route3"))).block();
+		reopen(1000);
+		assertThat(repository.getRouteDefinitions().collectList().block())
+				.containsExactly(routeDef("route1"), routeDef("route3"));
+	}
+
+	@Test
+	public void logIsCompacted() throws IOException {
+		reopen(10);
+		RouteDefinition route = routeDef("route1");
+		repository.save(Mono.just(route)).block();
+		long recordSize = Files.size(location) - 8;
+		for (int i = 0; i < 50; i++) {
+			route = routeDef("route1");
+			route.setOrder(i);
+			repository.save(Mono.just(route)).block();
+		}
+
+		// never more than the threshold plus one live record
+		assertThat(Files.size(location)).isLessThanOrEqualTo(8 + 11 * recordSize);
+		reopen(10);
+		assertThat(repository.getRouteDefinitions().collectList().block())
+				.containsExactly(route);
+	}
+
+	@Test
+	public void failedCompactionIsRetriedLater() throws IOException {
+		reopen(2);
+		Path compacted = location.resolveSibling(location.getFileName() + ".compact");
+		Files.createDirectories(compacted.resolve("blocked"));
+		for (int i = 0; i < 4; i++) {
+			repository.save(Mono.just(routeDef("route1"))).block();
+		}
+		long recordSize = (Files.size(location) - 8) / 4;
+		Files.delete(compacted.resolve("blocked"));
+		Files.delete(compacted);
+
+		repository.save(Mono.just(routeDef("route1"))).block();
+		assertThat(Files.size(location)).isEqualTo(8 + 5 * recordSize);
+		repository.save(Mono.just(routeDef("route1"))).block();
+		assertThat(Files.size(location)).isEqualTo(8 + recordSize);
+	}
+
+	@Test
+	public void changesArePublished() {
+		StepVerifier.create(repository.changes().take(2))
+				.then(() -> repository.save(Mono.just(routeDef("route1"))).block())
+				.assertNext(change -> {
+					assertThat(change.getType())
+							.isEqualTo(RouteDefinitionChange.Type.SAVED);
+					assertThat(change.getRouteDefinition())
+							.isEqualTo(routeDef("route1"));
+				})
+				.then(() -> repository.delete(Mono.just("route1")).block())
+				.assertNext(change -> {
+					assertThat(change.getType())
+							.isEqualTo(RouteDefinitionChange.Type.DELETED);
+					assertThat(change.getRouteId()).isEqualTo("route1");
+				}).expectComplete().verify(Duration.ofSeconds(5));
+	}
+
+	private void reopen(int compactionThreshold) throws IOException {
+		repository.destroy();
+		repository = new FileRouteDefinitionRepository(location, compactionThreshold);
+	}
+
+	private RouteDefinition routeDef(String id) {
+		RouteDefinition def = new RouteDefinition();
+		def.setId(id);
+		def.setUri(URI.create("http://localhost/" + id));
+		def.setOrder(1);
+		def.getPredicates().add(new PredicateDefinition("Path=/" + id + "/**"));
+		return def;
+	}
+
+}
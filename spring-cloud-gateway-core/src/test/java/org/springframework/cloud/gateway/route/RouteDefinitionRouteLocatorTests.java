@@ -17,13 +17,17 @@
 package org.springframework.cloud.gateway.route;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.Test;
+import reactor.core.publisher.Flux;
 
 import org.springframework.cloud.gateway.config.GatewayProperties;
 import org.springframework.cloud.gateway.config.PropertiesRouteDefinitionLocator;
+import org.springframework.cloud.gateway.event.PredicateArgsEvent;
 import org.springframework.cloud.gateway.filter.FilterDefinition;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
@@ -80,6 +84,84 @@ public class RouteDefinitionRouteLocatorTests {
 				.startsWith("RouteDefinitionRouteLocatorTests$TestOrderedGateway");
 	}
 
+	@Test
+	public void convertsManyRoutesInOrderAndSkipsInvalidOnes() {
+		int count = RouteDefinitionRouteLocator.PARALLEL_CONVERSION_THRESHOLD * 4;
+		List<RouteDefinition> definitions = new ArrayList<>();
+		List<String> expectedIds = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			RouteDefinition definition = new RouteDefinition();
+			definition.setId("route" + i);
+			definition.setUri(URI.create("https://route" + i + ".example.com"));
+			String predicate = i == count / 2 ? "Unknown=x"
+					: "Host=route" + i + ".example.com";
+			definition.setPredicates(
+					Collections.singletonList(new PredicateDefinition(predicate)));
+			definitions.add(definition);
+			if (i != count / 2) {
+				expectedIds.add(definition.getId());
+			}
+		}
+		List<String> eventIds = Collections.synchronizedList(new ArrayList<>());
+		RouteDefinitionRouteLocator locator = new RouteDefinitionRouteLocator(
+				() -> Flux.fromIterable(definitions),
+				Arrays.asList(new HostRoutePredicateFactory()), Collections.emptyList(),
+				new GatewayProperties(), new DefaultConversionService());
+		locator.setApplicationEventPublisher(event -> eventIds
+				.add(((PredicateArgsEvent) event).getRouteId()));
+
+		try {
+			List<Route> routes = locator.getRoutes().collectList().block();
+
+			assertThat(routes).extracting(Route::getId).isEqualTo(expectedIds);
+			assertThat(eventIds).isEqualTo(expectedIds);
+		}
+		finally {
+			locator.destroy();
+		}
+	}
+
+	@Test
+	public void identicalFiltersOfStatelessFactoriesAreShared() {
+		GatewayProperties gatewayProperties = new GatewayProperties();
+		gatewayProperties.setRoutes(Arrays.asList(routeWithFilters("route1"),
+				routeWithFilters("route2")));
+		RouteDefinitionRouteLocator locator = new RouteDefinitionRouteLocator(
+				new PropertiesRouteDefinitionLocator(gatewayProperties),
+				Arrays.asList(new HostRoutePredicateFactory()),
+				Arrays.asList(new AddResponseHeaderGatewayFilterFactory(),
+						new TestOrderedGatewayFilterFactory()),
+				gatewayProperties, new DefaultConversionService());
+
+		List<Route> routes = locator.getRoutes().collectList().block();
+		List<Route> rebuilt = locator.getRoutes().collectList().block();
+
+		GatewayFilter addHeader = unwrap(routes.get(0).getFilters().get(0));
+		assertThat(unwrap(routes.get(1).getFilters().get(0))).isSameAs(addHeader);
+		assertThat(unwrap(rebuilt.get(0).getFilters().get(0))).isSameAs(addHeader);
+		assertThat(unwrap(routes.get(1).getFilters().get(1)))
+				.isNotSameAs(unwrap(routes.get(0).getFilters().get(1)));
+	}
+
+	private RouteDefinition routeWithFilters(String id) {
+		RouteDefinition definition = new RouteDefinition();
+		definition.setId(id);
+		definition.setUri(URI.create("https://" + id + ".example.com"));
+		definition.setPredicates(Collections
+				.singletonList(new PredicateDefinition("Host=" + id + ".example.com")));
+		definition.setFilters(
+				Arrays.asList(new FilterDefinition("AddResponseHeader=X-Foo, Bar"),
+						new FilterDefinition("TestOrdered=")));
+		return definition;
+	}
+
+	private GatewayFilter unwrap(GatewayFilter filter) {
+		if (filter instanceof OrderedGatewayFilter) {
+			return unwrap(((OrderedGatewayFilter) filter).getDelegate());
+		}
+		return filter;
+	}
+
 	private String getFilterClassName(GatewayFilter target) {
 		if (target instanceof OrderedGatewayFilter) {
 			return getFilterClassName(((OrderedGatewayFilter) target).getDelegate());
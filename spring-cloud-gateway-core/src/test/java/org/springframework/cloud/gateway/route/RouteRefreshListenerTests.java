@@ -26,6 +26,7 @@ import org.springframework.context.ApplicationEventPublisher;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -53,6 +54,17 @@ public class RouteRefreshListenerTests {
 		verify(publisher, times(2)).publishEvent(any(RefreshRoutesEvent.class));
 	}
 
+	@Test
+	public void ignoresHeartbeatsWhenDisabled() {
+		ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+		RouteRefreshListener listener = new RouteRefreshListener(publisher, false);
+
+		listener.onApplicationEvent(new HeartbeatEvent(this, 1L));
+		listener.onApplicationEvent(new ParentHeartbeatEvent(this, 2L));
+
+		verify(publisher, never()).publishEvent(any(RefreshRoutesEvent.class));
+	}
+
 	@Test
 	public void onParentHeartbeatEvent() {
 		ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
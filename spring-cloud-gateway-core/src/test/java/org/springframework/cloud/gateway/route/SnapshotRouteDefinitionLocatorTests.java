@@ -0,0 +1,223 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.route;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import reactor.core.publisher.Flux;
+
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SnapshotRouteDefinitionLocatorTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path location;
+
+	private final BlockingQueue<Object> events = new LinkedBlockingQueue<>();
+
+	@Before
+	public void setup() {
+		location = folder.getRoot().toPath().resolve("routes.snapshot");
+	}
+
+	@Test
+	public void snapshotRoundTrips() throws IOException {
+		RouteDefinition route = routeDef("route1");
+		route.getFilters()
+				.add(new FilterDefinition("AddRequestHeader=X-Snap, \u00e9t\u00e9"));
+
+		byte[] encoded = RouteDefinitionSnapshot
+				.encode(Collections.singletonList(route));
+		List<RouteDefinition> decoded = RouteDefinitionSnapshot
+				.decode(ByteBuffer.wrap(encoded));
+
+		assertThat(decoded).hasSize(1);
+		RouteDefinition copy = decoded.get(0);
+		assertThat(copy).isEqualTo(route);
+		assertThat(copy.getFilters()).isEqualTo(route.getFilters());
+		assertThat(copy.getPredicates().get(0).getArgs())
+				.isEqualTo(route.getPredicates().get(0).getArgs());
+	}
+
+	@Test
+	public void writesSnapshotWhenThereIsNone() throws Exception {
+		SnapshotRouteDefinitionLocator locator = locator(
+				() -> Flux.just(routeDef("live")));
+
+		List<RouteDefinition> routes = locator.getRouteDefinitions().collectList()
+				.block();
+
+		assertThat(routes).extracting(RouteDefinition::getId).containsExactly("live");
+		assertThat(awaitSnapshot(routes)).isEqualTo(routes);
+		assertThat(events).isEmpty();
+	}
+
+	@Test
+	public void servesSnapshotUntilDelegateAnswers() throws Exception {
+		RouteDefinitionSnapshot.write(location, RouteDefinitionSnapshot
+				.encode(Collections.singletonList(routeDef("snapshot"))));
+		SnapshotRouteDefinitionLocator locator = locator(
+				() -> Flux.just(routeDef("live1"), routeDef("live2")));
+
+		List<RouteDefinition> routes = locator.getRouteDefinitions().collectList()
+				.block();
+		assertThat(routes).extracting(RouteDefinition::getId)
+				.containsExactly("snapshot");
+
+		assertThat(events.poll(5, TimeUnit.SECONDS))
+				.isInstanceOf(RefreshRoutesEvent.class);
+		routes = locator.getRouteDefinitions().collectList().block();
+		assertThat(routes).extracting(RouteDefinition::getId).containsExactly("live1",
+				"live2");
+		assertThat(awaitSnapshot(routes)).isEqualTo(routes);
+	}
+
+	@Test
+	public void servesSnapshotWhileDelegateFails() throws Exception {
+		RouteDefinitionSnapshot.write(location, RouteDefinitionSnapshot
+				.encode(Collections.singletonList(routeDef("snapshot"))));
+		SnapshotRouteDefinitionLocator locator = locator(
+				() -> Flux.error(new IllegalStateException("registry down")));
+
+		for (int i = 0; i < 2; i++) {
+			List<RouteDefinition> routes = locator.getRouteDefinitions().collectList()
+					.block();
+			assertThat(routes).extracting(RouteDefinition::getId)
+					.containsExactly("snapshot");
+		}
+		assertThat(events.poll(100, TimeUnit.MILLISECONDS)).isNull();
+	}
+
+	@Test
+	public void servesLastKnownGoodRoutesWhenDelegateFails() {
+		SnapshotRouteDefinitionLocator locator = locator(new RouteDefinitionLocator() {
+			int i = 0;
+
+			@Override
+			public Flux<RouteDefinition> getRouteDefinitions() {
+				if (i++ == 0) {
+					return Flux.just(routeDef("live"));
+				}
+				return Flux.error(new IllegalStateException("registry down"));
+			}
+		});
+
+		locator.getRouteDefinitions().blockLast();
+		List<RouteDefinition> routes = locator.getRouteDefinitions().collectList()
+				.block();
+
+		assertThat(routes).extracting(RouteDefinition::getId).containsExactly("live");
+	}
+
+	@Test
+	public void emptyResultDoesNotReplaceSnapshot() throws Exception {
+		List<RouteDefinition> snapshot = Collections.singletonList(routeDef("snapshot"));
+		RouteDefinitionSnapshot.write(location,
+				RouteDefinitionSnapshot.encode(snapshot));
+		SnapshotRouteDefinitionLocator locator = locator(Flux::empty);
+
+		locator.getRouteDefinitions().blockLast();
+		assertThat(events.poll(5, TimeUnit.SECONDS))
+				.isInstanceOf(RefreshRoutesEvent.class);
+		List<RouteDefinition> routes = locator.getRouteDefinitions().collectList()
+				.block();
+
+		assertThat(routes).isEmpty();
+		// a saved result is pending until written, so none is pending once idle
+		awaitIdle(locator);
+		assertThat(RouteDefinitionSnapshot.read(location)).isEqualTo(snapshot);
+	}
+
+	@Test
+	public void ignoresCorruptSnapshot() throws Exception {
+		Files.write(location, Arrays.copyOf(RouteDefinitionSnapshot
+				.encode(Collections.singletonList(routeDef("snapshot"))), 20));
+		SnapshotRouteDefinitionLocator locator = locator(
+				() -> Flux.just(routeDef("live")));
+
+		List<RouteDefinition> routes = locator.getRouteDefinitions().collectList()
+				.block();
+
+		assertThat(routes).extracting(RouteDefinition::getId).containsExactly("live");
+		assertThat(awaitSnapshot(routes)).isEqualTo(routes);
+	}
+
+	private List<RouteDefinition> awaitSnapshot(List<RouteDefinition> expected)
+			throws InterruptedException {
+		List<RouteDefinition> snapshot = null;
+		long deadline = System.currentTimeMillis() + 5000;
+		while (System.currentTimeMillis() < deadline) {
+			try {
+				snapshot = RouteDefinitionSnapshot.read(location);
+			}
+			catch (IOException e) {
+				snapshot = null;
+			}
+			if (expected.equals(snapshot)) {
+				break;
+			}
+			Thread.sleep(10);
+		}
+		return snapshot;
+	}
+
+	private void awaitIdle(SnapshotRouteDefinitionLocator locator)
+			throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (locator.isWriting() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(locator.isWriting()).isFalse();
+	}
+
+	private SnapshotRouteDefinitionLocator locator(RouteDefinitionLocator delegate) {
+		SnapshotRouteDefinitionLocator locator = new SnapshotRouteDefinitionLocator(
+				delegate, location);
+		locator.setApplicationEventPublisher(events::add);
+		return locator;
+	}
+
+	private RouteDefinition routeDef(String id) {
+		RouteDefinition def = new RouteDefinition();
+		def.setId(id);
+		def.setUri(URI.create("http://localhost/" + id));
+		def.setOrder(1);
+		def.getPredicates().add(new PredicateDefinition("Path=/" + id + "/**"));
+		return def;
+	}
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.support;
+
+import org.junit.Test;
+
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExpressionCacheTests {
+
+	private final SpelExpressionParser parser = new SpelExpressionParser();
+
+	@Test
+	public void reusesParsedExpressions() {
+		ExpressionCache cache = new ExpressionCache(16);
+
+		Expression expression = cache.parseExpression(parser, "1 + 1");
+
+		assertThat(cache.parseExpression(parser, "1 + 1")).isSameAs(expression);
+		assertThat(cache.parseExpression(new SpelExpressionParser(), "1 + 1"))
+				.isNotSameAs(expression);
+		assertThat(cache.parseTemplate(parser, "1 + 1")).isNotSameAs(expression);
+		assertThat(expression.getValue()).isEqualTo(2);
+	}
+
+	@Test
+	public void parsesTemplates() {
+		ExpressionCache cache = new ExpressionCache(16);
+
+		Expression template = cache.parseTemplate(parser, "#{'a' + 'b'}");
+
+		assertThat(cache.parseTemplate(parser, "#{'a' + 'b'}")).isSameAs(template);
+		assertThat(template.getValue()).isEqualTo("ab");
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsedExpressions() {
+		ExpressionCache cache = new ExpressionCache(2);
+		Expression one = cache.parseExpression(parser, "1");
+		cache.parseExpression(parser, "2");
+		cache.parseExpression(parser, "1");
+
+		cache.parseExpression(parser, "3");
+
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.parseExpression(parser, "1")).isSameAs(one);
+	}
+
+	@Test
+	public void reusesEvaluationContextPerBeanFactory() {
+		ExpressionCache cache = new ExpressionCache(16);
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerSingleton("greeting", "hello");
+
+		StandardEvaluationContext context = cache.getEvaluationContext(beanFactory);
+
+		assertThat(cache.getEvaluationContext(beanFactory)).isSameAs(context);
+		assertThat(cache.getEvaluationContext(new DefaultListableBeanFactory()))
+				.isNotSameAs(context);
+		assertThat(cache.parseTemplate(parser, "#{@greeting}").getValue(context))
+				.isEqualTo("hello");
+	}
+
+}
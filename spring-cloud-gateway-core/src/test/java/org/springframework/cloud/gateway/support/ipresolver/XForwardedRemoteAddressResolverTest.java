@@ -135,6 +135,82 @@ public class XForwardedRemoteAddressResolverTest {
 		assertThat(address.getHostName()).isEqualTo("0.0.0.0");
 	}
 
+	@Test
+	public void toleratesMissingAndExtraWhitespace() {
+		ServerWebExchange exchange = buildExchange(remoteAddressOnlyBuilder()
+				.header("X-Forwarded-For", " 0.0.0.1,0.0.0.2 ,\t0.0.0.3\t "));
+
+		assertThat(trustOne.resolve(exchange).getHostString()).isEqualTo("0.0.0.3");
+		assertThat(XForwardedRemoteAddressResolver.maxTrustedIndex(2).resolve(exchange)
+				.getHostString()).isEqualTo("0.0.0.2");
+		assertThat(trustAll.resolve(exchange).getHostString()).isEqualTo("0.0.0.1");
+	}
+
+	@Test
+	public void skipsEmptyValues() {
+		ServerWebExchange exchange = buildExchange(remoteAddressOnlyBuilder()
+				.header("X-Forwarded-For", "0.0.0.1,, 0.0.0.2, "));
+
+		assertThat(trustOne.resolve(exchange).getHostString()).isEqualTo("0.0.0.2");
+		assertThat(XForwardedRemoteAddressResolver.maxTrustedIndex(2).resolve(exchange)
+				.getHostString()).isEqualTo("0.0.0.1");
+	}
+
+	@Test
+	public void fallsBackOnHeaderOfSeparatorsOnly() {
+		ServerWebExchange exchange = buildExchange(
+				remoteAddressOnlyBuilder().header("X-Forwarded-For", " , ,"));
+
+		assertThat(trustOne.resolve(exchange)).isSameAs(remote0000Address);
+	}
+
+	@Test
+	public void parsesAddressesWithoutLookup() {
+		ServerWebExchange exchange = buildExchange(remoteAddressOnlyBuilder()
+				.header("X-Forwarded-For", "[2001:db8::1]:4711, 0.0.0.2:8080"));
+
+		InetSocketAddress last = trustOne.resolve(exchange);
+		assertThat(last.isUnresolved()).isFalse();
+		assertThat(last.getAddress().getHostAddress()).isEqualTo("0.0.0.2");
+
+		InetSocketAddress first = trustAll.resolve(exchange);
+		assertThat(first.isUnresolved()).isFalse();
+		assertThat(first.getAddress().getAddress()).hasSize(16);
+	}
+
+	@Test
+	public void unknownIdentifierIsUnresolved() {
+		ServerWebExchange exchange = buildExchange(
+				remoteAddressOnlyBuilder().header("X-Forwarded-For", "unknown"));
+
+		InetSocketAddress address = trustOne.resolve(exchange);
+
+		assertThat(address.isUnresolved()).isTrue();
+		assertThat(address.getHostString()).isEqualTo("unknown");
+	}
+
+	@Test
+	public void resolvesOncePerExchange() {
+		ServerWebExchange exchange = buildExchange(oneTwoThreeBuilder());
+
+		InetSocketAddress address = trustOne.resolve(exchange);
+
+		assertThat(trustOne.resolve(exchange)).isSameAs(address);
+		assertThat(trustAll.resolve(exchange).getHostString()).isEqualTo("0.0.0.1");
+	}
+
+	@Test
+	public void resolvesAgainWhenHeaderChanges() {
+		ServerWebExchange exchange = buildExchange(oneTwoThreeBuilder());
+		trustOne.resolve(exchange);
+
+		ServerWebExchange mutated = exchange.mutate()
+				.request(r -> r.headers(h -> h.set("X-Forwarded-For", "0.0.0.4")))
+				.build();
+
+		assertThat(trustOne.resolve(mutated).getHostString()).isEqualTo("0.0.0.4");
+	}
+
 	private MockServerHttpRequest.BaseBuilder emptyBuilder() {
 		return MockServerHttpRequest.get("someUrl");
 	}
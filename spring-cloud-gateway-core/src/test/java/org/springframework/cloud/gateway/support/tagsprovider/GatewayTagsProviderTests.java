@@ -0,0 +1,49 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.support.tagsprovider;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.junit.Test;
+
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+public class GatewayTagsProviderTests {
+
+	@Test
+	public void providersAreCombined() {
+		MockServerWebExchange exchange = MockServerWebExchange
+				.from(MockServerHttpRequest.post("http://localhost/post"));
+		exchange.getResponse().setStatusCodeValue(432);
+		exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, Route.async().id("route1")
+				.uri("http://localhost:8080").predicate(e -> true).build());
+
+		Tags tags = new GatewayHttpTagsProvider().and(new GatewayRouteTagsProvider())
+				.and(e -> Tags.of("custom", "value")).apply(exchange);
+
+		assertThat(tags).containsExactlyInAnyOrder(Tag.of("outcome", "CUSTOM"),
+				Tag.of("status", "432"), Tag.of("httpStatusCode", "432"),
+				Tag.of("httpMethod", "POST"), Tag.of("routeId", "route1"),
+				Tag.of("routeUri", "http://localhost:8080"), Tag.of("custom", "value"));
+	}
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.loadtest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads the number of bytes allocated by all live threads of the JVM. Allocations of
+ * threads that terminated between two readings are not accounted for, which does not
+ * matter for the long lived event loop threads doing the work of a load test.
+ */
+final class AllocationMonitor {
+
+	private static final com.sun.management.ThreadMXBean THREADS = threadMXBean();
+
+	private AllocationMonitor() {
+		throw new AssertionError("Must not instantiate utility class.");
+	}
+
+	/**
+	 * @return the bytes allocated so far, or -1 when the JVM does not report them
+	 */
+	static long allocatedBytes() {
+		if (THREADS == null) {
+			return -1;
+		}
+		long total = 0;
+		for (long allocated : THREADS.getThreadAllocatedBytes(THREADS.getAllThreadIds())) {
+			if (allocated > 0) {
+				total += allocated;
+			}
+		}
+		return total;
+	}
+
+	private static com.sun.management.ThreadMXBean threadMXBean() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean
+				&& ((com.sun.management.ThreadMXBean) bean)
+						.isThreadAllocatedMemorySupported()) {
+			com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+			threads.setThreadAllocatedMemoryEnabled(true);
+			return threads;
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.loadtest;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Gateway started by the load test, relying on the regular auto-configuration with one
+ * route per {@link Scenario} pointing at the {@link StubUpstream}.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+public class GatewayLoadTestConfiguration {
+
+	@Bean
+	public RouteLocator loadTestRoutes(RouteLocatorBuilder builder,
+			KeyResolver keyResolver,
+			@Value("${loadtest.upstream-port}") int upstreamPort) {
+		String http = "http://localhost:" + upstreamPort;
+		String ws = "ws://localhost:" + upstreamPort;
+		return builder.routes()
+				.route("proxy",
+						r -> r.path("/proxy/**").filters(f -> f.stripPrefix(1)).uri(http))
+				.route("rate-limited",
+						r -> r.path("/rate-limited/**")
+								.filters(f -> f.stripPrefix(1).requestRateLimiter(
+										c -> c.setKeyResolver(keyResolver)))
+								.uri(http))
+				.route("rewrite", r -> r.path("/rewrite/**")
+						.filters(f -> f.stripPrefix(1).modifyResponseBody(String.class,
+								String.class,
+								(exchange, body) -> Mono.just(body.toUpperCase())))
+						.uri(http))
+				.route("websocket", r -> r.path("/ws/**").uri(ws))
+				.route("retry",
+						r -> r.path("/retry/**")
+								.filters(f -> f.stripPrefix(1).retry(3)).uri(http))
+				.build();
+	}
+
+	@Bean
+	public RedisRateLimiter loadTestRateLimiter(
+			@Value("${loadtest.rate-limit}") int rateLimit) {
+		return new RedisRateLimiter(rateLimit, rateLimit);
+	}
+
+	@Bean
+	public KeyResolver clientIdKeyResolver() {
+		return exchange -> Mono.justOrEmpty(
+				exchange.getRequest().getHeaders().getFirst("X-Client-Id"));
+	}
+
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.UnicastProcessor;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.websocket.WebsocketInbound;
+import reactor.netty.http.websocket.WebsocketOutbound;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Non-blocking load generator keeping a fixed number of requests in flight against the
+ * gateway for a given duration. HTTP scenarios send back to back requests over a
+ * connection pool as large as the concurrency, the websocket scenario keeps one
+ * message in flight per connection and times each round trip.
+ */
+public class LoadGenerator {
+
+	private static final double[] PERCENTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+	private final String baseUrl;
+
+	private final int concurrency;
+
+	private final String message;
+
+	public LoadGenerator(String baseUrl, int concurrency, int messageSize) {
+		this.baseUrl = baseUrl;
+		this.concurrency = concurrency;
+		char[] chars = new char[messageSize];
+		Arrays.fill(chars, 'a');
+		this.message = new String(chars);
+	}
+
+	public Recording run(Scenario scenario, Duration duration) {
+		Recording recording = new Recording();
+		long deadline = System.nanoTime() + duration.toNanos();
+		ConnectionProvider provider = ConnectionProvider.fixed("loadtest", concurrency);
+		try {
+			HttpClient client = HttpClient.create(provider).baseUrl(baseUrl);
+			long start = System.nanoTime();
+			Flux.range(0, concurrency).flatMap(worker -> {
+				HttpClient workerClient = client
+						.headers(headers -> headers.set("X-Client-Id", "client" + worker));
+				if (scenario == Scenario.WEBSOCKET) {
+					return websocketWorker(workerClient, scenario.getPath(), deadline,
+							recording);
+				}
+				return httpWorker(workerClient, scenario.getPath(), deadline, recording);
+			}, concurrency).then().block();
+			recording.elapsed = System.nanoTime() - start;
+		}
+		finally {
+			provider.dispose();
+		}
+		return recording;
+	}
+
+	private Mono<Void> httpWorker(HttpClient client, String path, long deadline,
+			Recording recording) {
+		return Mono.defer(() -> {
+			long start = System.nanoTime();
+			return client.get().uri(path)
+					.responseSingle((response, body) -> body.asByteArray()
+							.thenReturn(response.status().code()))
+					.doOnNext(status -> recording.record(status,
+							System.nanoTime() - start))
+					.onErrorResume(ex -> {
+						recording.errors.increment();
+						return Mono.empty();
+					});
+		}).repeat(() -> System.nanoTime() < deadline).then();
+	}
+
+	private Mono<Void> websocketWorker(HttpClient client, String path, long deadline,
+			Recording recording) {
+		return client.websocket().uri(path)
+				.handle((in, out) -> pingPong(in, out, deadline, recording)).then()
+				.onErrorResume(ex -> {
+					recording.errors.increment();
+					return Mono.empty();
+				});
+	}
+
+	private Mono<Void> pingPong(WebsocketInbound in, WebsocketOutbound out,
+			long deadline, Recording recording) {
+		UnicastProcessor<String> outbound = UnicastProcessor.create();
+		AtomicLong sentAt = new AtomicLong(System.nanoTime());
+		Mono<Void> receive = in.receive().asString().doOnNext(echo -> {
+			long now = System.nanoTime();
+			recording.record(200, now - sentAt.get());
+			if (now < deadline) {
+				sentAt.set(now);
+				outbound.onNext(message);
+			}
+			else {
+				outbound.onComplete();
+			}
+		}).takeUntil(echo -> System.nanoTime() >= deadline).then();
+		outbound.onNext(message);
+		return out.sendString(outbound).then().and(receive);
+	}
+
+	/**
+	 * Latencies and outcomes recorded during a run.
+	 */
+	public static class Recording {
+
+		private final Timer latency;
+
+		private final LongAdder errors = new LongAdder();
+
+		private final LongAdder unsuccessful = new LongAdder();
+
+		private long elapsed;
+
+		Recording() {
+			// one bucket that never rotates, so percentiles cover the whole run
+			latency = Timer.builder("loadtest.latency").publishPercentiles(PERCENTILES)
+					.distributionStatisticExpiry(Duration.ofDays(1))
+					.distributionStatisticBufferLength(1)
+					.register(new SimpleMeterRegistry());
+		}
+
+		void record(int status, long nanos) {
+			latency.record(nanos, TimeUnit.NANOSECONDS);
+			if (status < 200 || status >= 300) {
+				unsuccessful.increment();
+			}
+		}
+
+		public long getRequests() {
+			return latency.count();
+		}
+
+		public long getErrors() {
+			return errors.sum();
+		}
+
+		public long getUnsuccessful() {
+			return unsuccessful.sum();
+		}
+
+		public Duration getElapsed() {
+			return Duration.ofNanos(elapsed);
+		}
+
+		public double getRequestsPerSecond() {
+			return elapsed == 0 ? 0 : getRequests() / (elapsed / 1e9);
+		}
+
+		public HistogramSnapshot getLatency() {
+			return latency.takeSnapshot();
+		}
+
+	}
+
+}
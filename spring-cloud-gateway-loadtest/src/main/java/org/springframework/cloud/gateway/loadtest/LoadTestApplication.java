@@ -0,0 +1,143 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import redis.embedded.RedisServer;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+/**
+ * Runs the gateway end to end against a {@link StubUpstream} and reports throughput,
+ * latency percentiles, allocation rate and upstream connection usage for each
+ * {@link Scenario}. Everything runs in a single JVM, so the allocation rate includes
+ * the load generator and the stub upstream.
+ */
+public final class LoadTestApplication {
+
+	private static final String ROW_FORMAT = "%-13s %10s %7s %8s %10s"
+			+ " %8s %8s %8s %8s %8s %10s %8s %6s%n";
+
+	private LoadTestApplication() {
+		throw new AssertionError("Must not instantiate utility class.");
+	}
+
+	public static void main(String[] args) throws IOException {
+		StandardEnvironment environment = new StandardEnvironment();
+		environment.getPropertySources()
+				.addFirst(new SimpleCommandLinePropertySource(args));
+		LoadTestProperties properties = Binder.get(environment)
+				.bind("loadtest", LoadTestProperties.class)
+				.orElseGet(LoadTestProperties::new);
+
+		RedisServer redisServer = null;
+		StubUpstream upstream = null;
+		ConfigurableApplicationContext gateway = null;
+		try {
+			int redisPort = findOpenPort();
+			if (properties.getScenarios().contains(Scenario.RATE_LIMITED)) {
+				redisServer = new RedisServer(redisPort);
+				redisServer.start();
+			}
+			upstream = new StubUpstream(properties.getLatency(),
+					(int) properties.getPayloadSize().toBytes(),
+					properties.getFailEvery()).start();
+			gateway = new SpringApplicationBuilder(GatewayLoadTestConfiguration.class)
+					.web(WebApplicationType.REACTIVE)
+					.properties("server.port=0", "spring.main.banner-mode=off",
+							"spring.redis.port=" + redisPort,
+							"loadtest.upstream-port=" + upstream.getPort(),
+							"loadtest.rate-limit=" + properties.getRateLimit())
+					.run(args);
+			String baseUrl = "http://localhost:"
+					+ gateway.getEnvironment().getProperty("local.server.port");
+
+			run(properties, upstream, new LoadGenerator(baseUrl,
+					properties.getConcurrency(),
+					(int) properties.getPayloadSize().toBytes()), System.out);
+		}
+		finally {
+			if (gateway != null) {
+				gateway.close();
+			}
+			if (upstream != null) {
+				upstream.stop();
+			}
+			if (redisServer != null) {
+				redisServer.stop();
+			}
+		}
+	}
+
+	private static void run(LoadTestProperties properties, StubUpstream upstream,
+			LoadGenerator generator, PrintStream out) {
+		out.println("Load test " + properties);
+		out.printf(ROW_FORMAT, "scenario", "requests", "errors", "non-2xx", "req/s",
+				"p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "alloc MB/s",
+				"up conns", "peak");
+		for (Scenario scenario : properties.getScenarios()) {
+			generator.run(scenario, properties.getWarmup());
+
+			upstream.resetStatistics();
+			long allocatedBefore = AllocationMonitor.allocatedBytes();
+			LoadGenerator.Recording recording = generator.run(scenario,
+					properties.getDuration());
+			long allocated = AllocationMonitor.allocatedBytes() - allocatedBefore;
+
+			HistogramSnapshot latency = recording.getLatency();
+			ValueAtPercentile[] percentiles = latency.percentileValues();
+			double seconds = recording.getElapsed().toNanos() / 1e9;
+			out.printf(ROW_FORMAT, scenario.name().toLowerCase(Locale.ENGLISH),
+					recording.getRequests(), recording.getErrors(),
+					recording.getUnsuccessful(),
+					format("%.0f", recording.getRequestsPerSecond()),
+					millis(percentiles[0]), millis(percentiles[1]),
+					millis(percentiles[2]), millis(percentiles[3]),
+					format("%.2f", latency.max(TimeUnit.MILLISECONDS)),
+					allocatedBefore < 0 ? "n/a"
+							: format("%.1f", allocated / seconds / (1024 * 1024)),
+					upstream.getConnections(), upstream.getPeakConnections());
+		}
+	}
+
+	private static String millis(ValueAtPercentile percentile) {
+		return format("%.2f", percentile.value(TimeUnit.MILLISECONDS));
+	}
+
+	private static String format(String format, double value) {
+		return String.format(Locale.ENGLISH, format, value);
+	}
+
+	private static int findOpenPort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+}
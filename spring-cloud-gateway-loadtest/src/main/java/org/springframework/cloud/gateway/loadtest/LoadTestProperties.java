@@ -0,0 +1,144 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.core.style.ToStringCreator;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings of a load test run, bound from {@code --loadtest.*} command line arguments.
+ */
+public class LoadTestProperties {
+
+	/**
+	 * Scenarios to run, in order.
+	 */
+	private List<Scenario> scenarios = Arrays.asList(Scenario.values());
+
+	/**
+	 * Number of requests, or websocket connections, in flight at any time.
+	 */
+	private int concurrency = 64;
+
+	/**
+	 * Duration of the warmup of each scenario, not included in the results.
+	 */
+	private Duration warmup = Duration.ofSeconds(10);
+
+	/**
+	 * Duration of the measurement of each scenario.
+	 */
+	private Duration duration = Duration.ofSeconds(30);
+
+	/**
+	 * Delay the stub upstream adds before answering a request.
+	 */
+	private Duration latency = Duration.ZERO;
+
+	/**
+	 * Size of the stub upstream response bodies and of the websocket messages.
+	 */
+	private DataSize payloadSize = DataSize.ofKilobytes(1);
+
+	/**
+	 * Replenish rate and burst capacity of the rate limited route, per client.
+	 */
+	private int rateLimit = 1_000_000;
+
+	/**
+	 * Every how many requests the flaky endpoint of the stub upstream fails.
+	 */
+	private int failEvery = 3;
+
+	public List<Scenario> getScenarios() {
+		return scenarios;
+	}
+
+	public void setScenarios(List<Scenario> scenarios) {
+		this.scenarios = scenarios;
+	}
+
+	public int getConcurrency() {
+		return concurrency;
+	}
+
+	public void setConcurrency(int concurrency) {
+		this.concurrency = concurrency;
+	}
+
+	public Duration getWarmup() {
+		return warmup;
+	}
+
+	public void setWarmup(Duration warmup) {
+		this.warmup = warmup;
+	}
+
+	public Duration getDuration() {
+		return duration;
+	}
+
+	public void setDuration(Duration duration) {
+		this.duration = duration;
+	}
+
+	public Duration getLatency() {
+		return latency;
+	}
+
+	public void setLatency(Duration latency) {
+		this.latency = latency;
+	}
+
+	public DataSize getPayloadSize() {
+		return payloadSize;
+	}
+
+	public void setPayloadSize(DataSize payloadSize) {
+		this.payloadSize = payloadSize;
+	}
+
+	public int getRateLimit() {
+		return rateLimit;
+	}
+
+	public void setRateLimit(int rateLimit) {
+		this.rateLimit = rateLimit;
+	}
+
+	public int getFailEvery() {
+		return failEvery;
+	}
+
+	public void setFailEvery(int failEvery) {
+		this.failEvery = failEvery;
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringCreator(this).append("scenarios", scenarios)
+				.append("concurrency", concurrency).append("warmup", warmup)
+				.append("duration", duration).append("latency", latency)
+				.append("payloadSize", payloadSize).append("rateLimit", rateLimit)
+				.append("failEvery", failEvery).toString();
+	}
+
+}
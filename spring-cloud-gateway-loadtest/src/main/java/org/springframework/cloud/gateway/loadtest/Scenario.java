@@ -0,0 +1,62 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.loadtest;
+
+/**
+ * The traffic a load test run drives through the gateway. Each scenario is served by
+ * its own route in {@link GatewayLoadTestConfiguration}.
+ */
+public enum Scenario {
+
+	/**
+	 * Plain proxying of a GET request to the stub upstream.
+	 */
+	PROXY("/proxy/payload"),
+
+	/**
+	 * Proxying through the Redis backed {@code RequestRateLimiter} filter.
+	 */
+	RATE_LIMITED("/rate-limited/payload"),
+
+	/**
+	 * Proxying through {@code ModifyResponseBody}, which buffers and rewrites the
+	 * upstream response.
+	 */
+	BODY_REWRITE("/rewrite/payload"),
+
+	/**
+	 * Round trips of websocket messages through a proxied websocket connection.
+	 */
+	WEBSOCKET("/ws/echo"),
+
+	/**
+	 * Proxying through the {@code Retry} filter against an upstream that fails a
+	 * share of the requests.
+	 */
+	RETRY("/retry/flaky");
+
+	private final String path;
+
+	Scenario(String path) {
+		this.path = path;
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2013-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.gateway.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+
+/**
+ * In-process Reactor Netty server standing in for the services behind the gateway. It
+ * answers {@code /payload} with a fixed size body after a configurable delay, fails
+ * every n-th request to {@code /flaky} and echoes websocket messages on
+ * {@code /ws/echo}. It counts the connections the gateway opens to it, so connection
+ * pool reuse can be reported next to the load figures.
+ */
+public class StubUpstream {
+
+	private final Duration latency;
+
+	private final byte[] payload;
+
+	private final int failEvery;
+
+	private final LongAdder requests = new LongAdder();
+
+	private final LongAdder connections = new LongAdder();
+
+	private final AtomicLong openConnections = new AtomicLong();
+
+	private final LongAccumulator peakConnections = new LongAccumulator(Math::max, 0);
+
+	private final AtomicLong flakyCounter = new AtomicLong();
+
+	private DisposableServer server;
+
+	public StubUpstream(Duration latency, int payloadSize, int failEvery) {
+		this.latency = latency;
+		this.payload = new byte[payloadSize];
+		Arrays.fill(this.payload, (byte) 'a');
+		this.failEvery = failEvery;
+	}
+
+	public StubUpstream start() {
+		server = HttpServer.create().host("localhost").port(0)
+				.doOnConnection(connection -> {
+					connections.increment();
+					peakConnections.accumulate(openConnections.incrementAndGet());
+					connection.onDispose(openConnections::decrementAndGet);
+				}).route(routes -> routes
+						.get("/payload", (request, response) -> payload(response))
+						.get("/flaky", (request, response) -> flaky(response))
+						.ws("/ws/echo", (in, out) -> out.send(in.receive().retain())))
+				.bindNow();
+		return this;
+	}
+
+	public int getPort() {
+		return server.port();
+	}
+
+	public long getRequests() {
+		return requests.sum();
+	}
+
+	public long getConnections() {
+		return connections.sum();
+	}
+
+	public long getPeakConnections() {
+		return peakConnections.get();
+	}
+
+	/**
+	 * Resets the request and connection counters, connections still open count
+	 * towards the new peak.
+	 */
+	public void resetStatistics() {
+		requests.reset();
+		connections.reset();
+		peakConnections.reset();
+		peakConnections.accumulate(openConnections.get());
+	}
+
+	public void stop() {
+		if (server != null) {
+			server.disposeNow();
+		}
+	}
+
+	private Publisher<Void> payload(HttpServerResponse response) {
+		requests.increment();
+		Publisher<Void> send = response
+				.header(HttpHeaderNames.CONTENT_TYPE, "text/plain")
+				.header(HttpHeaderNames.CONTENT_LENGTH, String.valueOf(payload.length))
+				.sendByteArray(Mono.just(payload));
+		if (latency.isZero()) {
+			return send;
+		}
+		return Mono.delay(latency).thenEmpty(send);
+	}
+
+	private Publisher<Void> flaky(HttpServerResponse response) {
+		if (failEvery > 0 && flakyCounter.incrementAndGet() % failEvery == 0) {
+			requests.increment();
+			return response.status(HttpResponseStatus.SERVICE_UNAVAILABLE).send();
+		}
+		return payload(response);
+	}
+
+}